@@ -97,13 +97,13 @@ fun normalCacheVersion(dataRoot: File): CacheVersion =
                      whenTurnedOff = CacheVersion.Action.CLEAN_NORMAL_CACHES,
                      isEnabled = { IncrementalCompilation.isEnabled() })
 
-fun experimentalCacheVersion(dataRoot: File): CacheVersion =
+fun experimentalCacheVersion(dataRoot: File, isEnabled: () -> Boolean = { IncrementalCompilation.isExperimental() }): CacheVersion =
         CacheVersion(ownVersion = EXPERIMENTAL_VERSION,
                      versionFile = File(dataRoot, EXPERIMENTAL_VERSION_FILE_NAME),
                      whenVersionChanged = CacheVersion.Action.REBUILD_CHUNK,
                      whenTurnedOn = CacheVersion.Action.REBUILD_CHUNK,
                      whenTurnedOff = CacheVersion.Action.CLEAN_EXPERIMENTAL_CACHES,
-                     isEnabled = { IncrementalCompilation.isExperimental() })
+                     isEnabled = isEnabled)
 
 fun dataContainerCacheVersion(dataRoot: File): CacheVersion =
         CacheVersion(ownVersion = DATA_CONTAINER_VERSION,
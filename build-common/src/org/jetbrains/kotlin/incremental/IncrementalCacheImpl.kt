@@ -45,10 +45,15 @@ import java.util.*
 
 val KOTLIN_CACHE_DIRECTORY_NAME = "kotlin"
 
+/**
+ * @param isExperimental whether the caches of the experimental incremental compilation are maintained, the builds which don't set
+ * the global property (e.g. the Maven one, where several modules may be compiled in parallel) pass it explicitly.
+ */
 open class IncrementalCacheImpl<Target>(
         private val targetDataRoot: File,
         targetOutputDir: File?,
-        target: Target
+        target: Target,
+        private val isExperimental: Boolean = IncrementalCompilation.isExperimental()
 ) : BasicMapsOwner(), IncrementalCache {
     companion object {
         private val PROTO_MAP = "proto"
@@ -119,6 +124,9 @@ open class IncrementalCacheImpl<Target>(
         }
     }
 
+    fun getOutputClasses(sourceFile: File): Collection<JvmClassName> =
+            sourceToClassesMap[sourceFile].filter { it.internalName != MODULE_MAPPING_FILE_NAME }
+
     fun getSubtypesOf(className: FqName): Sequence<FqName> =
             subtypesMap[className].asSequence()
 
@@ -253,7 +261,7 @@ open class IncrementalCacheImpl<Target>(
                                 .toList()
 
         val changes =
-                if (IncrementalCompilation.isExperimental())
+                if (isExperimental)
                     dirtyClasses.mapNotNull { createChangeInfo(it) }.asSequence()
                 else
                     emptySequence<ChangeInfo>()
@@ -536,7 +544,7 @@ open class IncrementalCacheImpl<Target>(
     }
 
     private fun addToClassStorage(kotlinClass: LocalFileKotlinClass, srcFile: File) {
-        if (!IncrementalCompilation.isExperimental()) return
+        if (!isExperimental) return
 
         val classData = JvmProtoBufUtil.readClassDataFrom(kotlinClass.classHeader.data!!, kotlinClass.classHeader.strings!!)
         val supertypes = classData.classProto.supertypes(TypeTable(classData.classProto.typeTable))
@@ -555,7 +563,7 @@ open class IncrementalCacheImpl<Target>(
     }
 
     private fun removeAllFromClassStorage(removedClasses: Collection<JvmClassName>) {
-        if (!IncrementalCompilation.isExperimental() || removedClasses.isEmpty()) return
+        if (!isExperimental || removedClasses.isEmpty()) return
 
         val removedFqNames = removedClasses.map { it.fqNameForClassNameWithoutDollars }.toSet()
 
@@ -657,7 +665,7 @@ open class IncrementalCacheImpl<Target>(
             }
 
             val changes =
-                    if (IncrementalCompilation.isExperimental()) {
+                    if (isExperimental) {
                         val fqName = if (isPackage) className.packageFqName else className.fqNameForClassNameWithoutDollars
                         // TODO get name in better way instead of using substringBefore
                         (added.asSequence() + changed.asSequence()).map { ChangeInfo.MembersChanged(fqName, listOf(it.substringBefore("("))) }
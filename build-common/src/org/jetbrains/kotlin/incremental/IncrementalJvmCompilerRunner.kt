@@ -0,0 +1,386 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.incremental
+
+import com.intellij.openapi.util.io.FileUtil
+import org.jetbrains.kotlin.build.GeneratedJvmClass
+import org.jetbrains.kotlin.build.JvmSourceRoot
+import org.jetbrains.kotlin.build.isModuleMappingFile
+import org.jetbrains.kotlin.cli.common.ExitCode
+import org.jetbrains.kotlin.cli.common.arguments.K2JVMCompilerArguments
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.cli.common.messages.OutputMessageUtil
+import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
+import org.jetbrains.kotlin.compilerRunner.OutputItemsCollectorImpl
+import org.jetbrains.kotlin.config.IncrementalCompilation
+import org.jetbrains.kotlin.config.Services
+import org.jetbrains.kotlin.incremental.components.LookupTracker
+import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents
+import org.jetbrains.kotlin.modules.KotlinModuleXmlBuilder
+import org.jetbrains.kotlin.modules.TargetId
+import org.jetbrains.kotlin.name.FqName
+import java.io.File
+import java.util.*
+
+/**
+ * Incremental compilation of a single JVM module for build tools which don't track changed files themselves (e.g. Maven).
+ *
+ * The incremental cache, the lookups and a snapshot of the sources and the classpath are kept in [workingDir].
+ * A build compiles the Kotlin sources changed since the previous successful build, then, the same way as the JPS plugin
+ * in the experimental mode, finds the sources affected by the changed protos using the lookups, and repeats until nothing
+ * else is affected. A change of the classpath, of Java sources or of the caches format leads to the recompilation of all sources.
+ *
+ * The caches of the experimental incremental compilation (see [IncrementalCompilation]) are the only ones which allow to find
+ * the affected sources without the IDE, so they are always maintained by this runner. The mode is passed to the caches explicitly
+ * rather than through the global property, since the modules of a parallel Maven build are compiled in the same process.
+ *
+ * The output directory is excluded from the snapshot of the classpath: build tools put it there (Maven always does),
+ * and the classes written by a build must not make the next one recompile everything.
+ *
+ * @param isTests whether the module is the tests of a project, the production and the test targets have separate ids in the caches.
+ */
+class IncrementalJvmCompilerRunner(private val workingDir: File, private val isTests: Boolean, private val reporter: Reporter) {
+
+    interface Reporter {
+        fun report(message: String)
+    }
+
+    private val snapshotFile = File(workingDir, "build-snapshot.txt")
+    private val moduleFile = File(workingDir, "module.xml")
+
+    fun compile(args: K2JVMCompilerArguments, messageCollector: MessageCollector): ExitCode {
+        if (!IncrementalCompilation.isEnabled()) {
+            reporter.report("Incremental compilation is turned off, compiling all Kotlin sources")
+            return K2JVMCompiler().exec(messageCollector, Services.EMPTY, args)
+        }
+
+        return compileIncrementally(args, messageCollector)
+    }
+
+    private fun compileIncrementally(args: K2JVMCompilerArguments, messageCollector: MessageCollector): ExitCode {
+        val destination = args.destination
+        if (destination == null || destination.endsWith(".jar") || args.module != null) {
+            reporter.report("Incremental compilation requires an output directory and source roots, compiling all Kotlin sources")
+            return K2JVMCompiler().exec(messageCollector, Services.EMPTY, args)
+        }
+
+        workingDir.mkdirs()
+        val outputDir = File(destination).absoluteFile
+        val sourceRoots = args.freeArgs.map { File(it).absoluteFile }
+        val targetId = TargetId(args.moduleName ?: "main", if (isTests) TEST_TARGET_TYPE_ID else PRODUCTION_TARGET_TYPE_ID)
+        val cache = IncrementalCacheImpl(workingDir, outputDir, targetId, isExperimental = true)
+        val lookupStorage = LookupStorage(File(workingDir, LOOKUPS_DIRECTORY_NAME))
+        val cacheVersions = listOf(normalCacheVersion(workingDir), experimentalCacheVersion(workingDir) { true })
+
+        try {
+            val previous = BuildSnapshot.load(snapshotFile)
+            val classpath = args.classpath?.split(File.pathSeparatorChar).orEmpty().map { File(it).absoluteFile }
+            val current = BuildSnapshot.create(sourceRoots, classpath.filter { !FileUtil.isAncestor(outputDir, it, false) })
+
+            val rebuildReason = when {
+                previous == null -> "no information about the previous build"
+                cacheVersions.any { it.checkVersion() != CacheVersion.Action.DO_NOTHING } -> "caches format changed"
+                previous.classpath != current.classpath -> "classpath changed"
+                previous.javaSources != current.javaSources -> "Java sources changed"
+                else -> null
+            }
+
+            val compilation = Compilation(targetId, outputDir, sourceRoots, cache, lookupStorage, args, messageCollector)
+            val exitCode =
+                    if (rebuildReason != null) {
+                        reporter.report("Compiling all Kotlin sources: $rebuildReason")
+                        previous?.kotlinSources?.keys?.let { compilation.removeOutputs(it.map(::File)) }
+                        cache.clean()
+                        lookupStorage.clean()
+                        compilation.compileIteratively(current.kotlinSources.keys.map(::File), removedFiles = emptyList())
+                    }
+                    else {
+                        val changed = current.kotlinSources.filter { previous!!.kotlinSources[it.key] != it.value }.keys.map(::File)
+                        val removed = previous!!.kotlinSources.keys.filter { it !in current.kotlinSources }.map(::File)
+                        if (changed.isEmpty() && removed.isEmpty()) {
+                            reporter.report("Kotlin sources are up to date")
+                            ExitCode.OK
+                        }
+                        else {
+                            compilation.compileIteratively(changed, removed)
+                        }
+                    }
+
+            when {
+                exitCode == ExitCode.OK -> {
+                    current.save(snapshotFile)
+                    cacheVersions.forEach { it.saveIfNeeded() }
+                }
+                rebuildReason != null -> snapshotFile.delete()
+                // the files compiled by the failed build are saved as changed, so the next build compiles them again
+                else -> current.withChangedKotlinSources(compilation.compiledFiles).save(snapshotFile)
+            }
+            return exitCode
+        }
+        finally {
+            cache.flush(false)
+            cache.close()
+            lookupStorage.flush(false)
+            lookupStorage.close()
+        }
+    }
+
+    private inner class Compilation(
+            val targetId: TargetId,
+            val outputDir: File,
+            val sourceRoots: List<File>,
+            val cache: IncrementalCacheImpl<TargetId>,
+            val lookupStorage: LookupStorage,
+            val args: K2JVMCompilerArguments,
+            val messageCollector: MessageCollector
+    ) {
+        val compiledFiles = LinkedHashSet<File>()
+
+        fun compileIteratively(changedFiles: List<File>, removedFiles: List<File>): ExitCode {
+            var dirtyFiles = changedFiles
+            var filesToForget = removedFiles
+
+            while (true) {
+                reporter.report("Compiling ${dirtyFiles.size} Kotlin file(s)" +
+                                (if (dirtyFiles.size <= REPORTED_FILES_LIMIT) ": " + dirtyFiles.joinToString() else ""))
+
+                removeOutputs(dirtyFiles + filesToForget)
+                lookupStorage.removeLookupsFrom(dirtyFiles.asSequence() + filesToForget.asSequence())
+                compiledFiles.addAll(dirtyFiles)
+
+                val lookupTracker = LookupTrackerImpl(LookupTracker.DO_NOTHING)
+                val outputs = OutputItemsCollectorImpl()
+                if (dirtyFiles.isNotEmpty()) {
+                    val exitCode = compileFiles(dirtyFiles, lookupTracker, outputs)
+                    if (exitCode != ExitCode.OK) return exitCode
+                }
+
+                var result = CompilationResult.NO_CHANGES
+                for (output in outputs.outputs) {
+                    val outputFile = output.outputFile
+                    result += when {
+                        outputFile.name.endsWith(".class") -> cache.saveFileToCache(GeneratedJvmClass(targetId, output.sourceFiles, outputFile))
+                        outputFile.isModuleMappingFile() -> cache.saveModuleMappingToCache(output.sourceFiles, outputFile)
+                        else -> CompilationResult.NO_CHANGES
+                    }
+                }
+                result += cache.clearCacheForRemovedClasses()
+                lookupStorage.addAll(lookupTracker.lookups.entrySet(), lookupTracker.pathInterner.values)
+
+                val affectedFiles = getAffectedFiles(result).filter { it.exists() && it !in compiledFiles }
+                if (affectedFiles.isEmpty()) return ExitCode.OK
+
+                dirtyFiles = affectedFiles
+                filesToForget = emptyList()
+            }
+        }
+
+        fun removeOutputs(sourceFiles: List<File>) {
+            for (sourceFile in sourceFiles) {
+                for (className in cache.getOutputClasses(sourceFile)) {
+                    File(outputDir, className.internalName + ".class").delete()
+                }
+            }
+            cache.markOutputClassesDirty(sourceFiles)
+        }
+
+        private fun compileFiles(sourceFiles: List<File>, lookupTracker: LookupTracker, outputs: OutputItemsCollectorImpl): ExitCode {
+            val moduleXml = KotlinModuleXmlBuilder().addModule(
+                    targetId.name,
+                    outputDir.path,
+                    sourceFiles,
+                    sourceRoots.filter { it.isDirectory }.map { JvmSourceRoot(it) },
+                    // classes of the sources which are not recompiled are taken from the previous build
+                    listOf(outputDir),
+                    targetId.type,
+                    isTests,
+                    emptySet(),
+                    args.friendPaths.orEmpty().map(::File)
+            ).asText()
+            moduleFile.writeText(moduleXml.toString())
+
+            val services = Services.Builder()
+                    .register(IncrementalCompilationComponents::class.java, IncrementalCompilationComponentsImpl(mapOf(targetId to cache), lookupTracker))
+                    .build()
+
+            val freeArgs = args.freeArgs
+            val destination = args.destination
+            args.freeArgs = arrayListOf()
+            args.destination = null
+            args.module = moduleFile.absolutePath
+            try {
+                return K2JVMCompiler().exec(OutputCollectingMessageCollector(messageCollector, outputs), services, args)
+            }
+            finally {
+                args.freeArgs = freeArgs
+                args.destination = destination
+                args.module = null
+            }
+        }
+
+        private fun getAffectedFiles(result: CompilationResult): Set<File> {
+            val dirtyLookupSymbols = HashSet<LookupSymbol>()
+            val dirtyClassesFqNames = HashSet<FqName>()
+
+            for (change in result.changes) {
+                if (change is ChangeInfo.SignatureChanged) {
+                    val fqNames = if (!change.areSubclassesAffected) listOf(change.fqName) else withSubtypes(change.fqName)
+                    for (classFqName in fqNames) {
+                        dirtyLookupSymbols.add(LookupSymbol(classFqName.shortName().identifier, classFqName.parent().asString()))
+                    }
+                }
+                else if (change is ChangeInfo.MembersChanged) {
+                    val fqNames = withSubtypes(change.fqName)
+                    // need to recompile subtypes because changed member might break override
+                    dirtyClassesFqNames.addAll(fqNames)
+                    for (name in change.names) {
+                        fqNames.mapTo(dirtyLookupSymbols) { LookupSymbol(name, it.asString()) }
+                    }
+                }
+            }
+
+            val affectedFiles = HashSet<File>()
+            lookupStorage.getAll(dirtyLookupSymbols).values.flatMapTo(affectedFiles) { paths -> paths.map(::File) }
+            dirtyClassesFqNames.mapNotNullTo(affectedFiles) { cache.getSourceFileIfClass(it) }
+            return affectedFiles
+        }
+
+        private fun withSubtypes(typeFqName: FqName): Set<FqName> {
+            val types = LinkedList(listOf(typeFqName))
+            val subtypes = hashSetOf(typeFqName)
+
+            while (types.isNotEmpty()) {
+                cache.getSubtypesOf(types.pollFirst()).filter { subtypes.add(it) }.forEach { types.addLast(it) }
+            }
+
+            return subtypes
+        }
+    }
+
+    private class OutputCollectingMessageCollector(
+            private val delegate: MessageCollector,
+            private val outputs: OutputItemsCollectorImpl
+    ) : MessageCollector {
+        override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+            if (severity == CompilerMessageSeverity.OUTPUT) {
+                val output = OutputMessageUtil.parseOutputMessage(message)
+                val outputFile = output?.outputFile
+                if (output != null && outputFile != null) {
+                    outputs.add(output.sourceFiles, outputFile)
+                }
+            }
+            delegate.report(severity, message, location)
+        }
+    }
+
+    /**
+     * Sizes and modification times of the sources and of the classpath entries; a directory on the classpath is represented
+     * by the total size and the latest modification time of the files in it. The output directory of the module is not a part of it.
+     */
+    private class BuildSnapshot(
+            val kotlinSources: Map<String, FileStamp>,
+            val javaSources: Map<String, FileStamp>,
+            val classpath: Map<String, FileStamp>
+    ) {
+        data class FileStamp(val length: Long, val lastModified: Long)
+
+        fun withChangedKotlinSources(files: Collection<File>): BuildSnapshot {
+            val sources = HashMap(kotlinSources)
+            for (file in files) {
+                if (file.path in sources) {
+                    sources[file.path] = CHANGED_STAMP
+                }
+            }
+            return BuildSnapshot(sources, javaSources, classpath)
+        }
+
+        fun save(file: File) {
+            file.parentFile.mkdirs()
+            file.printWriter().use { out ->
+                fun write(kind: String, stamps: Map<String, FileStamp>) {
+                    for ((path, stamp) in stamps) {
+                        out.println("$kind\t${stamp.length}\t${stamp.lastModified}\t$path")
+                    }
+                }
+                write(KOTLIN_SOURCE, kotlinSources)
+                write(JAVA_SOURCE, javaSources)
+                write(CLASSPATH_ENTRY, classpath)
+            }
+        }
+
+        companion object {
+            private val KOTLIN_SOURCE = "kotlin"
+            private val JAVA_SOURCE = "java"
+            private val CLASSPATH_ENTRY = "classpath"
+            private val CHANGED_STAMP = FileStamp(-1, -1)
+
+            fun create(sourceRoots: List<File>, classpath: List<File>): BuildSnapshot {
+                val kotlinSources = LinkedHashMap<String, FileStamp>()
+                val javaSources = LinkedHashMap<String, FileStamp>()
+                for (file in sourceRoots.asSequence().flatMap { it.walk() }.filter { it.isFile }) {
+                    when (file.extension) {
+                        "kt" -> kotlinSources[file.path] = file.stamp()
+                        "java" -> javaSources[file.path] = file.stamp()
+                    }
+                }
+
+                val classpathStamps = LinkedHashMap<String, FileStamp>()
+                for (entry in classpath) {
+                    classpathStamps[entry.path] =
+                            if (entry.isDirectory) {
+                                entry.walk().filter { it.isFile }.fold(FileStamp(0, 0)) { acc, file ->
+                                    FileStamp(acc.length + file.length(), Math.max(acc.lastModified, file.lastModified()))
+                                }
+                            }
+                            else {
+                                entry.stamp()
+                            }
+                }
+
+                return BuildSnapshot(kotlinSources, javaSources, classpathStamps)
+            }
+
+            fun load(file: File): BuildSnapshot? {
+                if (!file.exists()) return null
+
+                val stamps = hashMapOf(KOTLIN_SOURCE to LinkedHashMap<String, FileStamp>(),
+                                       JAVA_SOURCE to LinkedHashMap<String, FileStamp>(),
+                                       CLASSPATH_ENTRY to LinkedHashMap<String, FileStamp>())
+                for (line in file.readLines()) {
+                    val parts = line.split('\t', limit = 4)
+                    if (parts.size != 4) return null
+                    val map = stamps[parts[0]] ?: return null
+                    map[parts[3]] = FileStamp(parts[1].toLong(), parts[2].toLong())
+                }
+
+                return BuildSnapshot(stamps[KOTLIN_SOURCE]!!, stamps[JAVA_SOURCE]!!, stamps[CLASSPATH_ENTRY]!!)
+            }
+
+            private fun File.stamp() = FileStamp(length(), lastModified())
+        }
+    }
+
+    companion object {
+        // the same ids as the ones of the JPS module build targets
+        private val PRODUCTION_TARGET_TYPE_ID = "java-production"
+        private val TEST_TARGET_TYPE_ID = "java-test"
+        private val LOOKUPS_DIRECTORY_NAME = "lookups"
+        private val REPORTED_FILES_LIMIT = 10
+    }
+}
@@ -68,6 +68,26 @@ open class LookupStorage(private val targetDataDir: File) : BasicMapsOwner() {
         }
     }
 
+    /**
+     * Batched version of [get]: the lock is taken once, and a file shared by several symbols is resolved only once.
+     */
+    @Synchronized
+    fun getAll(lookupSymbols: Collection<LookupSymbol>): Map<LookupSymbol, Collection<String>> {
+        val idToPath = HashMap<Int, String?>()
+        val result = HashMap<LookupSymbol, Collection<String>>(lookupSymbols.size)
+
+        for (lookupSymbol in lookupSymbols) {
+            val fileIds = lookupMap[LookupSymbolKey(lookupSymbol.name, lookupSymbol.scope)] ?: continue
+
+            result[lookupSymbol] = fileIds.mapNotNull { id ->
+                // null means it's outdated
+                idToPath.getOrPut(id) { idToFile[id]?.path }
+            }
+        }
+
+        return result
+    }
+
     @Synchronized
     fun addAll(lookups: Set<Map.Entry<LookupSymbol, Collection<String>>>, allPaths: Set<String>) {
         val pathToId = allPaths.keysToMap { addFileIfNeeded(File(it)) }
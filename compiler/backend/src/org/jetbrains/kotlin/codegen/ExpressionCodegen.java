@@ -557,15 +557,32 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         if (binaryCall != null) {
             ResolvedCall<?> resolvedCall = CallUtilKt.getResolvedCall(binaryCall.op, bindingContext);
             if (resolvedCall != null) {
-                if (RangeCodegenUtil.isOptimizableRangeTo(resolvedCall.getResultingDescriptor())) {
+                CallableDescriptor rangeFunction = resolvedCall.getResultingDescriptor();
+                if (RangeCodegenUtil.isOptimizableRangeTo(rangeFunction)) {
                     generateForLoop(new ForInRangeLiteralLoopGenerator(forExpression, binaryCall));
                     return StackValue.none();
                 }
+                if (RangeCodegenUtil.isOptimizableUntil(rangeFunction)) {
+                    generateForLoop(new ForInUntilLoopGenerator(forExpression, binaryCall));
+                    return StackValue.none();
+                }
+                if (RangeCodegenUtil.isOptimizableDownTo(rangeFunction)) {
+                    generateForLoop(new ForInDownToLoopGenerator(forExpression, binaryCall));
+                    return StackValue.none();
+                }
             }
         }
 
         KtExpression loopRange = forExpression.getLoopRange();
         assert loopRange != null;
+
+        // Is it "c.indices"
+        ResolvedCall<?> loopRangeCall = CallUtilKt.getResolvedCall(KtPsiUtil.deparenthesize(loopRange), bindingContext);
+        if (loopRangeCall != null && RangeCodegenUtil.isOptimizableIndices(loopRangeCall.getResultingDescriptor())) {
+            generateForLoop(new ForInIndicesLoopGenerator(forExpression, loopRangeCall));
+            return StackValue.none();
+        }
+
         KotlinType loopRangeType = bindingContext.getType(loopRange);
         assert loopRangeType != null;
         Type asmLoopRangeType = asmType(loopRangeType);
@@ -584,6 +601,11 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             return StackValue.none();
         }
 
+        if (RangeCodegenUtil.isList(loopRangeType)) {
+            generateForLoop(new ForInListLoopGenerator(forExpression));
+            return StackValue.none();
+        }
+
         generateForLoop(new IteratorForLoopGenerator(forExpression));
         return StackValue.none();
     }
@@ -914,6 +936,120 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    /**
+     * Iterates a list by index if it is exactly java.util.ArrayList and with an iterator otherwise, the check is done once before the loop.
+     * Other lists, even the RandomAccess ones, may define their own iteration semantics (e.g. CopyOnWriteArrayList iterates a snapshot)
+     * or override iterator(), so they are left alone. Indexed iteration fails with ConcurrentModificationException if the size of the list
+     * changes, as the iterator of ArrayList does
+     */
+    private class ForInListLoopGenerator extends AbstractForLoopGenerator {
+        private int listVar;
+        private int indexVar;
+        private int sizeVar;
+        private int iteratorVar;
+
+        private ForInListLoopGenerator(@NotNull KtForExpression forExpression) {
+            super(forExpression);
+        }
+
+        @Override
+        public void beforeLoop() {
+            super.beforeLoop();
+
+            listVar = createLoopTempVariable(OBJECT_TYPE);
+            indexVar = createLoopTempVariable(Type.INT_TYPE);
+            sizeVar = createLoopTempVariable(Type.INT_TYPE);
+            iteratorVar = createLoopTempVariable(OBJECT_TYPE);
+
+            KtExpression loopRange = forExpression.getLoopRange();
+            KotlinType loopRangeType = bindingContext.getType(loopRange);
+            assert loopRangeType != null;
+            gen(loopRange, asmType(loopRangeType));
+            v.store(listVar, OBJECT_TYPE);
+
+            v.iconst(0);
+            v.store(indexVar, Type.INT_TYPE);
+
+            // Iterator<E> tmp<iterator> = c.getClass() == ArrayList.class ? null : c.iterator()
+            Label useIterator = new Label();
+            Label storeIterator = new Label();
+            v.load(listVar, OBJECT_TYPE);
+            v.invokevirtual("java/lang/Object", "getClass", "()Ljava/lang/Class;", false);
+            v.tconst(Type.getObjectType("java/util/ArrayList"));
+            v.ifacmpne(useIterator);
+            v.load(listVar, OBJECT_TYPE);
+            v.invokeinterface("java/util/List", "size", "()I");
+            v.store(sizeVar, Type.INT_TYPE);
+            v.aconst(null);
+            v.goTo(storeIterator);
+            v.mark(useIterator);
+            v.iconst(0);
+            v.store(sizeVar, Type.INT_TYPE);
+            v.load(listVar, OBJECT_TYPE);
+            v.invokeinterface("java/util/List", "iterator", "()Ljava/util/Iterator;");
+            v.mark(storeIterator);
+            v.store(iteratorVar, OBJECT_TYPE);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+        }
+
+        @Override
+        public void checkPreCondition(@NotNull Label loopExit) {
+            Label withIterator = new Label();
+            Label end = new Label();
+            v.load(iteratorVar, OBJECT_TYPE);
+            v.ifnonnull(withIterator);
+
+            v.load(indexVar, Type.INT_TYPE);
+            v.load(sizeVar, Type.INT_TYPE);
+            v.ificmpge(loopExit);
+            v.goTo(end);
+
+            v.mark(withIterator);
+            v.load(iteratorVar, OBJECT_TYPE);
+            v.invokeinterface("java/util/Iterator", "hasNext", "()Z");
+            v.ifeq(loopExit);
+
+            v.mark(end);
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+            Label withIterator = new Label();
+            Label end = new Label();
+            v.load(iteratorVar, OBJECT_TYPE);
+            v.ifnonnull(withIterator);
+
+            Label notModified = new Label();
+            v.load(listVar, OBJECT_TYPE);
+            v.invokeinterface("java/util/List", "size", "()I");
+            v.load(sizeVar, Type.INT_TYPE);
+            v.ificmpeq(notModified);
+            genThrow(v, "java/util/ConcurrentModificationException", null);
+            v.mark(notModified);
+
+            v.load(listVar, OBJECT_TYPE);
+            v.load(indexVar, Type.INT_TYPE);
+            v.invokeinterface("java/util/List", "get", "(I)Ljava/lang/Object;");
+            v.iinc(indexVar, 1);
+            v.goTo(end);
+
+            v.mark(withIterator);
+            v.load(iteratorVar, OBJECT_TYPE);
+            v.invokeinterface("java/util/Iterator", "next", "()Ljava/lang/Object;");
+
+            v.mark(end);
+            StackValue.onStack(OBJECT_TYPE).put(asmElementType, v);
+            v.store(loopParameterVar, asmElementType);
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+        }
+    }
+
     private abstract class AbstractForInProgressionOrRangeLoopGenerator extends AbstractForLoopGenerator {
         protected int endVar;
 
@@ -1028,6 +1164,98 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    private class ForInUntilLoopGenerator extends AbstractForInRangeLoopGenerator {
+        private final RangeCodegenUtil.BinaryCall rangeCall;
+
+        private ForInUntilLoopGenerator(
+                @NotNull KtForExpression forExpression,
+                @NotNull RangeCodegenUtil.BinaryCall rangeCall
+        ) {
+            super(forExpression);
+            this.rangeCall = rangeCall;
+        }
+
+        @Override
+        protected void storeRangeStartAndEnd() {
+            gen(rangeCall.left, asmElementType);
+            v.store(loopParameterVar, asmElementType);
+
+            gen(rangeCall.right, asmElementType);
+            v.store(endVar, asmElementType);
+
+            // 'until' fails if the last element can't be represented, the same as the library function does
+            Label valid = new Label();
+            v.load(endVar, asmElementType);
+            if (asmElementType.getSort() == Type.LONG) {
+                v.lconst(Long.MIN_VALUE);
+                v.lcmp();
+                v.ifne(valid);
+            }
+            else {
+                v.iconst(getMinValue(asmElementType));
+                v.ificmpne(valid);
+            }
+            genThrow(v, "java/lang/IllegalArgumentException",
+                     "The to argument value '" + getMinValueText(asmElementType) + "' was too small.");
+            v.mark(valid);
+
+            v.load(endVar, asmElementType);
+            genIncrement(asmElementType, -1, v);
+            v.store(endVar, asmElementType);
+        }
+
+        private int getMinValue(@NotNull Type type) {
+            switch (type.getSort()) {
+                case Type.CHAR: return Character.MIN_VALUE;
+                case Type.BYTE: return Byte.MIN_VALUE;
+                case Type.SHORT: return Short.MIN_VALUE;
+                default: return Integer.MIN_VALUE;
+            }
+        }
+
+        @NotNull
+        private String getMinValueText(@NotNull Type type) {
+            switch (type.getSort()) {
+                case Type.LONG: return String.valueOf(Long.MIN_VALUE);
+                case Type.CHAR: return String.valueOf(Character.MIN_VALUE);
+                default: return String.valueOf(getMinValue(type));
+            }
+        }
+    }
+
+    private class ForInIndicesLoopGenerator extends AbstractForInRangeLoopGenerator {
+        private final ResolvedCall<?> indicesCall;
+
+        private ForInIndicesLoopGenerator(@NotNull KtForExpression forExpression, @NotNull ResolvedCall<?> indicesCall) {
+            super(forExpression);
+            this.indicesCall = indicesCall;
+        }
+
+        @Override
+        protected void storeRangeStartAndEnd() {
+            v.iconst(0);
+            v.store(loopParameterVar, Type.INT_TYPE);
+
+            ReceiverParameterDescriptor receiverParameter = indicesCall.getResultingDescriptor().getExtensionReceiverParameter();
+            assert receiverParameter != null : "Extension receiver expected: " + indicesCall.getResultingDescriptor();
+            Type receiverType = asmType(receiverParameter.getType());
+            generateReceiverValue(indicesCall.getExtensionReceiver(), false).put(receiverType, v);
+
+            if (receiverType.getSort() == Type.ARRAY) {
+                v.arraylength();
+            }
+            else if (receiverType.getInternalName().equals("java/lang/CharSequence")) {
+                v.invokeinterface("java/lang/CharSequence", "length", "()I");
+            }
+            else {
+                v.invokeinterface("java/util/Collection", "size", "()I");
+            }
+            v.iconst(1);
+            v.sub(Type.INT_TYPE);
+            v.store(endVar, Type.INT_TYPE);
+        }
+    }
+
     private class ForInRangeInstanceLoopGenerator extends AbstractForInRangeLoopGenerator {
         private ForInRangeInstanceLoopGenerator(@NotNull KtForExpression forExpression) {
             super(forExpression);
@@ -1047,6 +1275,60 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    private class ForInDownToLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
+        private final RangeCodegenUtil.BinaryCall rangeCall;
+
+        private ForInDownToLoopGenerator(
+                @NotNull KtForExpression forExpression,
+                @NotNull RangeCodegenUtil.BinaryCall rangeCall
+        ) {
+            super(forExpression);
+            this.rangeCall = rangeCall;
+        }
+
+        @Override
+        public void beforeLoop() {
+            super.beforeLoop();
+
+            gen(rangeCall.left, asmElementType);
+            v.store(loopParameterVar, asmElementType);
+
+            gen(rangeCall.right, asmElementType);
+            v.store(endVar, asmElementType);
+        }
+
+        @Override
+        public void checkEmptyLoop(@NotNull Label loopExit) {
+            v.load(loopParameterVar, asmElementType);
+            v.load(endVar, asmElementType);
+            if (asmElementType.getSort() == Type.LONG) {
+                v.lcmp();
+                v.iflt(loopExit);
+            }
+            else {
+                v.ificmplt(loopExit);
+            }
+        }
+
+        @Override
+        protected void assignToLoopParameter() {
+        }
+
+        @Override
+        protected void increment(@NotNull Label loopExit) {
+            checkPostCondition(loopExit);
+
+            if (asmElementType == Type.INT_TYPE) {
+                v.iinc(loopParameterVar, -1);
+            }
+            else {
+                v.load(loopParameterVar, asmElementType);
+                genIncrement(asmElementType, -1, v);
+                v.store(loopParameterVar, asmElementType);
+            }
+        }
+    }
+
     private class ForInProgressionExpressionLoopGenerator extends AbstractForInProgressionOrRangeLoopGenerator {
         private int incrementVar;
         private Type incrementType;
@@ -1358,6 +1640,14 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
             @Nullable SamType samType,
             @Nullable FunctionDescriptor functionReferenceTarget
     ) {
+        if (functionReferenceTarget == null) {
+            LambdaMetafactoryCodegen lambdaMetafactoryCodegen =
+                    LambdaMetafactoryCodegen.createIfApplicable(state, declaration, descriptor, samType, context, parentCodegen);
+            if (lambdaMetafactoryCodegen != null) {
+                return lambdaMetafactoryCodegen.generate(strategy, this);
+            }
+        }
+
         ClassBuilder cv = state.getFactory().newVisitor(
                 JvmDeclarationOriginKt.OtherOrigin(declaration, descriptor),
                 asmTypeForAnonymousClass(bindingContext, descriptor),
@@ -2666,46 +2956,7 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
                 }
             }
             else {
-                String owner;
-                String addDescriptor;
-                String toArrayDescriptor;
-                if (arrayOfReferences) {
-                    owner = "kotlin/jvm/internal/SpreadBuilder";
-                    addDescriptor = "(Ljava/lang/Object;)V";
-                    toArrayDescriptor = "([Ljava/lang/Object;)[Ljava/lang/Object;";
-                }
-                else {
-                    String spreadBuilderClassName = AsmUtil.asmPrimitiveTypeToLangPrimitiveType(elementType).getTypeName().getIdentifier() + "SpreadBuilder";
-                    owner = "kotlin/jvm/internal/" + spreadBuilderClassName;
-                    addDescriptor = "(" + elementType.getDescriptor() + ")V";
-                    toArrayDescriptor = "()" + type.getDescriptor();
-                }
-                v.anew(Type.getObjectType(owner));
-                v.dup();
-                v.iconst(size);
-                v.invokespecial(owner, "<init>", "(I)V", false);
-                for (int i = 0; i != size; ++i) {
-                    v.dup();
-                    ValueArgument argument = arguments.get(i);
-                    if (argument.getSpreadElement() != null) {
-                        gen(argument.getArgumentExpression(), OBJECT_TYPE);
-                        v.invokevirtual(owner, "addSpread", "(Ljava/lang/Object;)V", false);
-                    }
-                    else {
-                        gen(argument.getArgumentExpression(), elementType);
-                        v.invokevirtual(owner, "add", addDescriptor, false);
-                    }
-                }
-                if (arrayOfReferences) {
-                    v.dup();
-                    v.invokevirtual(owner, "size", "()I", false);
-                    newArrayInstruction(outType);
-                    v.invokevirtual(owner, "toArray", toArrayDescriptor, false);
-                    v.checkcast(type);
-                }
-                else {
-                    v.invokevirtual(owner, "toArray", toArrayDescriptor, false);
-                }
+                genVarargsWithSpreadIntoArray(arguments, outType, type, elementType);
             }
         }
         else {
@@ -2719,6 +2970,80 @@ public class ExpressionCodegen extends KtVisitor<StackValue, StackValue> impleme
         }
     }
 
+    /**
+     * Evaluates the arguments into temporary variables to compute the total size,
+     * then allocates the resulting array once and copies the spread arrays into it with System.arraycopy
+     */
+    private void genVarargsWithSpreadIntoArray(
+            @NotNull List<ValueArgument> arguments,
+            @NotNull KotlinType outType,
+            @NotNull Type type,
+            @NotNull Type elementType
+    ) {
+        int size = arguments.size();
+        int[] argumentLocals = new int[size];
+        int fixedElements = 0;
+        for (int i = 0; i != size; ++i) {
+            ValueArgument argument = arguments.get(i);
+            Type argumentType = argument.getSpreadElement() != null ? type : elementType;
+            argumentLocals[i] = myFrameMap.enterTemp(argumentType);
+            gen(argument.getArgumentExpression(), argumentType);
+            v.store(argumentLocals[i], argumentType);
+            if (argument.getSpreadElement() == null) {
+                fixedElements++;
+            }
+        }
+
+        v.iconst(fixedElements);
+        for (int i = 0; i != size; ++i) {
+            if (arguments.get(i).getSpreadElement() != null) {
+                v.load(argumentLocals[i], type);
+                v.arraylength();
+                v.add(Type.INT_TYPE);
+            }
+        }
+        newArrayInstruction(outType);
+        int result = myFrameMap.enterTemp(type);
+        v.store(result, type);
+
+        int position = myFrameMap.enterTemp(Type.INT_TYPE);
+        v.iconst(0);
+        v.store(position, Type.INT_TYPE);
+        for (int i = 0; i != size; ++i) {
+            if (arguments.get(i).getSpreadElement() != null) {
+                // System.arraycopy(spread, 0, result, position, spread.length)
+                v.load(argumentLocals[i], type);
+                v.iconst(0);
+                v.load(result, type);
+                v.load(position, Type.INT_TYPE);
+                v.load(argumentLocals[i], type);
+                v.arraylength();
+                v.invokestatic("java/lang/System", "arraycopy", "(Ljava/lang/Object;ILjava/lang/Object;II)V", false);
+
+                v.load(position, Type.INT_TYPE);
+                v.load(argumentLocals[i], type);
+                v.arraylength();
+                v.add(Type.INT_TYPE);
+                v.store(position, Type.INT_TYPE);
+            }
+            else {
+                v.load(result, type);
+                v.load(position, Type.INT_TYPE);
+                v.load(argumentLocals[i], elementType);
+                v.astore(elementType);
+                v.iinc(position, 1);
+            }
+        }
+
+        v.load(result, type);
+
+        myFrameMap.leaveTemp(Type.INT_TYPE);
+        myFrameMap.leaveTemp(type);
+        for (int i = size - 1; i >= 0; --i) {
+            myFrameMap.leaveTemp(arguments.get(i).getSpreadElement() != null ? type : elementType);
+        }
+    }
+
     public int indexOfLocal(KtReferenceExpression lhs) {
         DeclarationDescriptor declarationDescriptor = bindingContext.get(REFERENCE_TARGET, lhs);
         if (isVarCapturedInClosure(bindingContext, declarationDescriptor)) {
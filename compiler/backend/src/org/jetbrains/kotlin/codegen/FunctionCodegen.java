@@ -155,6 +155,10 @@ public class FunctionCodegen {
         Method asmMethod = jvmSignature.getAsmMethod();
 
         int flags = getMethodAsmFlags(functionDescriptor, contextKind);
+        boolean isDefaultMethod = isDelegatingDefaultMethod(functionDescriptor, contextKind);
+        if (isDefaultMethod) {
+            flags &= ~ACC_ABSTRACT;
+        }
         boolean isNative = NativeKt.hasNativeAnnotation(functionDescriptor);
 
         if (isNative && owner instanceof MultifileClassFacadeContext) {
@@ -184,7 +188,8 @@ public class FunctionCodegen {
             parentBodyCodegen.addAdditionalTask(new JvmStaticGenerator(functionDescriptor, origin, state));
         }
 
-        if (state.getClassBuilderMode() == ClassBuilderMode.LIGHT_CLASSES || isAbstractMethod(functionDescriptor, contextKind)) {
+        if (state.getClassBuilderMode() == ClassBuilderMode.LIGHT_CLASSES ||
+            (isAbstractMethod(functionDescriptor, contextKind) && !isDefaultMethod)) {
             generateLocalVariableTable(
                     mv,
                     jvmSignature,
@@ -199,7 +204,15 @@ public class FunctionCodegen {
             return;
         }
 
-        if (!isNative) {
+        if (isDefaultMethod) {
+            // The body stays in DefaultImpls, so that classes compiled against the interface without default methods keep working
+            mv.visitCode();
+            Method defaultImplsMethod = typeMapper.mapSignature(functionDescriptor, OwnerKind.DEFAULT_IMPLS).getAsmMethod();
+            Type defaultImplsType = typeMapper.mapDefaultImpls((ClassDescriptor) getInterfaceMember(functionDescriptor).getContainingDeclaration());
+            // 'this' is the first parameter of the DefaultImpls method, so all the locals are passed as is
+            generateDelegateToMethodBody(true, mv, defaultImplsMethod, defaultImplsType.getInternalName());
+        }
+        else if (!isNative) {
             generateMethodBody(mv, functionDescriptor, methodContext, jvmSignature, strategy, memberCodegen);
         }
         else if (staticInCompanionObject) {
@@ -215,6 +228,27 @@ public class FunctionCodegen {
         endVisit(mv, null, origin.getElement());
     }
 
+    /**
+     * In the default methods mode, interface members with bodies are generated as default methods delegating to DefaultImpls,
+     * so that implementing classes compiled in the same mode don't need their own delegates
+     */
+    private boolean isDelegatingDefaultMethod(@NotNull FunctionDescriptor descriptor, @NotNull OwnerKind kind) {
+        if (!state.getGenerateDefaultMethods() || kind != OwnerKind.IMPLEMENTATION) return false;
+
+        CallableMemberDescriptor member = getInterfaceMember(descriptor);
+        return isInterface(member.getContainingDeclaration()) &&
+               member.getKind() == DECLARATION &&
+               descriptor.getModality() != Modality.ABSTRACT;
+    }
+
+    // Accessors are generated to DefaultImpls of the interface declaring their property
+    @NotNull
+    private static CallableMemberDescriptor getInterfaceMember(@NotNull FunctionDescriptor descriptor) {
+        return descriptor instanceof PropertyAccessorDescriptor
+               ? ((PropertyAccessorDescriptor) descriptor).getCorrespondingProperty()
+               : descriptor;
+    }
+
     private void generateMethodAnnotations(
             @NotNull FunctionDescriptor functionDescriptor,
             Method asmMethod,
@@ -37,6 +37,7 @@ import org.jetbrains.kotlin.codegen.inline.InlineCodegenUtil;
 import org.jetbrains.kotlin.codegen.serialization.JvmSerializerExtension;
 import org.jetbrains.kotlin.codegen.signature.BothSignatureWriter;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.when.SealedClassSwitchCodegen;
 import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.incremental.components.NoLookupLocation;
 import org.jetbrains.kotlin.lexer.KtTokens;
@@ -213,7 +214,7 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
         }
 
         v.defineClass(
-                myClass, V1_6,
+                myClass, state.getClassFileVersion(),
                 access,
                 signature.getName(),
                 signature.getJavaGenericSignature(),
@@ -384,6 +385,8 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
 
         generateEnumMethods();
 
+        generateSealedClassTagMethods();
+
         generateFunctionsForDataClasses();
 
         new CollectionStubMethodGenerator(state, descriptor, functionCodegen, v).generate();
@@ -797,6 +800,31 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
         }
     }
 
+    private void generateSealedClassTagMethods() {
+        if (state.getClassBuilderMode() != ClassBuilderMode.FULL) return;
+
+        if (descriptor.getModality() == Modality.SEALED) {
+            v.newMethod(JvmDeclarationOriginKt.OtherOrigin(myClass), ACC_PUBLIC | ACC_ABSTRACT | ACC_SYNTHETIC,
+                        SealedClassSwitchCodegen.getTagMethodName(descriptor, typeMapper), SealedClassSwitchCodegen.TAG_METHOD_DESCRIPTOR,
+                        null, null);
+        }
+
+        ClassDescriptor superClass = DescriptorUtilsKt.getSuperClassNotAny(descriptor);
+        if (superClass == null || superClass.getModality() != Modality.SEALED) return;
+
+        int tag = SealedClassSwitchCodegen.getSealedSubclasses(superClass).indexOf(descriptor);
+        assert tag >= 0 : "Direct subclass of a sealed class should be nested in it: " + descriptor;
+
+        MethodVisitor mv = v.newMethod(JvmDeclarationOriginKt.OtherOrigin(myClass), ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC,
+                                       SealedClassSwitchCodegen.getTagMethodName(superClass, typeMapper),
+                                       SealedClassSwitchCodegen.TAG_METHOD_DESCRIPTOR, null, null);
+        mv.visitCode();
+        InstructionAdapter iv = new InstructionAdapter(mv);
+        iv.iconst(tag);
+        iv.areturn(Type.INT_TYPE);
+        FunctionCodegen.endVisit(mv, "sealed class tag", myClass);
+    }
+
     private void generateEnumValuesMethod() {
         Type type = typeMapper.mapType(DescriptorUtilsKt.getBuiltIns(descriptor).getArrayType(INVARIANT, descriptor.getDefaultType()));
 
@@ -1326,12 +1354,28 @@ public class ImplementationBodyCodegen extends ClassBodyCodegen {
         for (Map.Entry<FunctionDescriptor, FunctionDescriptor> entry : CodegenUtil.getNonPrivateTraitMethods(descriptor).entrySet()) {
             FunctionDescriptor traitFun = entry.getKey();
             //skip java 8 default methods
-            if (!(traitFun instanceof JavaCallableMemberDescriptor)) {
+            if (!(traitFun instanceof JavaCallableMemberDescriptor) && !isInheritedFromDefaultMethod(traitFun, entry.getValue())) {
                 generateDelegationToTraitImpl(traitFun, entry.getValue());
             }
         }
     }
 
+    // Only interfaces compiled together with this class are known to have default methods, binary ones still need delegates
+    private boolean isInheritedFromDefaultMethod(@NotNull FunctionDescriptor traitFun, @NotNull FunctionDescriptor inheritedFun) {
+        if (!state.getGenerateDefaultMethods()) return false;
+
+        // Accessors are default methods of the interface declaring their property
+        CallableMemberDescriptor traitMember = traitFun instanceof PropertyAccessorDescriptor
+                                               ? ((PropertyAccessorDescriptor) traitFun).getCorrespondingProperty()
+                                               : traitFun;
+        DeclarationDescriptor containingTrait = traitMember.getContainingDeclaration();
+        if (!DescriptorUtils.isInterface(containingTrait) || descriptorToDeclaration(containingTrait) == null) return false;
+
+        // Delegates with a signature different from the interface method are kept, the bridges of the class rely on them
+        Method traitMethod = typeMapper.mapSignature(traitFun.getOriginal()).getAsmMethod();
+        return traitMethod.equals(typeMapper.mapSignature(inheritedFun).getAsmMethod());
+    }
+
     private void generateDelegationToTraitImpl(@NotNull final FunctionDescriptor traitFun, @NotNull final FunctionDescriptor inheritedFun) {
         functionCodegen.generateMethod(
                 JvmDeclarationOriginKt.DelegationToTraitImpl(descriptorToDeclaration(traitFun), traitFun),
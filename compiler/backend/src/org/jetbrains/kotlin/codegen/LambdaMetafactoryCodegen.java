@@ -0,0 +1,396 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen;
+
+import com.intellij.psi.PsiElement;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.binding.CalculatedClosure;
+import org.jetbrains.kotlin.codegen.context.ClosureContext;
+import org.jetbrains.kotlin.codegen.context.CodegenContext;
+import org.jetbrains.kotlin.codegen.context.InlineLambdaContext;
+import org.jetbrains.kotlin.codegen.context.MethodContext;
+import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
+import org.jetbrains.kotlin.descriptors.*;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.calls.callUtil.CallUtilKt;
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall;
+import org.jetbrains.kotlin.resolve.calls.model.VariableAsFunctionResolvedCall;
+import org.jetbrains.kotlin.resolve.inline.InlineUtil;
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOriginKt;
+import org.jetbrains.kotlin.resolve.jvm.jvmSignature.JvmMethodSignature;
+import org.jetbrains.kotlin.resolve.scopes.receivers.ImplicitReceiver;
+import org.jetbrains.kotlin.resolve.scopes.receivers.Receiver;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.TypeUtils;
+import org.jetbrains.org.objectweb.asm.Handle;
+import org.jetbrains.org.objectweb.asm.MethodVisitor;
+import org.jetbrains.org.objectweb.asm.Type;
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter;
+import org.jetbrains.org.objectweb.asm.commons.Method;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jetbrains.kotlin.codegen.AsmUtil.boxType;
+import static org.jetbrains.kotlin.codegen.AsmUtil.isPrimitive;
+import static org.jetbrains.kotlin.codegen.JvmCodegenUtil.isConst;
+import static org.jetbrains.kotlin.codegen.binding.CodegenBinding.CLOSURE;
+import static org.jetbrains.kotlin.codegen.binding.CodegenBinding.anonymousClassForCallable;
+import static org.jetbrains.kotlin.codegen.binding.CodegenBinding.asmTypeForAnonymousClass;
+import static org.jetbrains.kotlin.resolve.BindingContext.REFERENCE_TARGET;
+import static org.jetbrains.kotlin.types.expressions.ExpressionTypingUtils.isFunctionExpression;
+import static org.jetbrains.kotlin.types.expressions.ExpressionTypingUtils.isFunctionLiteral;
+import static org.jetbrains.org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates a lambda or a SAM conversion of a lambda as an invokedynamic instruction bootstrapped by
+ * {@code java.lang.invoke.LambdaMetafactory} instead of a class per lambda. The body of the lambda is generated
+ * as a private static synthetic method of the enclosing class.
+ *
+ * Only used with the -Xindy-lambdas option for the JVM 1.8 target, since it changes the behavior of lambdas at runtime:
+ * unlike the instances of the lambda classes, such instances don't extend {@code kotlin.jvm.internal.Lambda},
+ * so they are not serializable, and {@code kotlin.reflect.jvm.reflect()} returns null for them since they have no metadata.
+ * SAM conversions to serializable interfaces are always generated as classes.
+ *
+ * Only lambdas which capture nothing (neither locals nor receivers) are generated this way, so the instance produced
+ * by the call site is never mutated and can be shared as LambdaMetafactory does.
+ */
+public class LambdaMetafactoryCodegen {
+    private static final Handle LAMBDA_METAFACTORY = new Handle(
+            H_INVOKESTATIC,
+            "java/lang/invoke/LambdaMetafactory",
+            "metafactory",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/invoke/MethodType;" +
+            "Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;)Ljava/lang/invoke/CallSite;"
+    );
+
+    private final GenerationState state;
+    private final KtElement declaration;
+    private final FunctionDescriptor descriptor;
+    private final MemberCodegen<?> parentCodegen;
+    private final Type interfaceType;
+    private final Method interfaceMethod;
+    private final JvmMethodSignature signature;
+
+    private LambdaMetafactoryCodegen(
+            @NotNull GenerationState state,
+            @NotNull KtElement declaration,
+            @NotNull FunctionDescriptor descriptor,
+            @NotNull MemberCodegen<?> parentCodegen,
+            @NotNull Type interfaceType,
+            @NotNull Method interfaceMethod,
+            @NotNull JvmMethodSignature signature
+    ) {
+        this.state = state;
+        this.declaration = declaration;
+        this.descriptor = descriptor;
+        this.parentCodegen = parentCodegen;
+        this.interfaceType = interfaceType;
+        this.interfaceMethod = interfaceMethod;
+        this.signature = signature;
+    }
+
+    /**
+     * @return null if the lambda should be generated as a class by {@link ClosureCodegen}
+     */
+    @Nullable
+    public static LambdaMetafactoryCodegen createIfApplicable(
+            @NotNull GenerationState state,
+            @NotNull KtElement declaration,
+            @NotNull FunctionDescriptor descriptor,
+            @Nullable SamType samType,
+            @NotNull CodegenContext<?> context,
+            @NotNull MemberCodegen<?> parentCodegen
+    ) {
+        if (!state.getGenerateIndyLambdas() || state.getJvmTarget() != JvmTarget.JVM_1_8) return null;
+        if (state.getClassBuilderMode() != ClassBuilderMode.FULL) return null;
+        if (!isFunctionLiteral(descriptor) && !isFunctionExpression(descriptor)) return null;
+        if (isInsideInlineFunctionOrLambda(context) || isInterface(parentCodegen.getContext())) return null;
+
+        JetTypeMapper typeMapper = state.getTypeMapper();
+
+        Type interfaceType;
+        FunctionDescriptor erasedInterfaceFunction;
+        if (samType == null) {
+            List<KotlinType> superInterfaces = new ArrayList<KotlinType>();
+            ClassDescriptor classDescriptor = anonymousClassForCallable(state.getBindingContext(), descriptor);
+            for (KotlinType supertype : classDescriptor.getTypeConstructor().getSupertypes()) {
+                if (DescriptorUtils.isInterface(supertype.getConstructor().getDeclarationDescriptor())) {
+                    superInterfaces.add(supertype);
+                }
+            }
+            if (superInterfaces.size() != 1) return null;
+
+            interfaceType = typeMapper.mapType(superInterfaces.get(0));
+            erasedInterfaceFunction = ClosureCodegen.getErasedInvokeFunction(descriptor);
+        }
+        else {
+            erasedInterfaceFunction = samType.getAbstractMethod().getOriginal();
+            // LambdaMetafactory.metafactory doesn't generate bridges for the methods overridden by the abstract method
+            if (!erasedInterfaceFunction.getOverriddenDescriptors().isEmpty()) return null;
+            // the instances produced by LambdaMetafactory.metafactory can't be serialized
+            if (isSerializable(samType.getType())) return null;
+
+            interfaceType = typeMapper.mapType(samType.getType());
+        }
+
+        Method interfaceMethod = typeMapper.mapSignature(erasedInterfaceFunction).getAsmMethod();
+        JvmMethodSignature signature = typeMapper.mapSignature(descriptor);
+        if (!isAdaptable(interfaceMethod, signature.getAsmMethod())) return null;
+
+        if (!capturesNothing(declaration, descriptor, state.getBindingContext())) return null;
+
+        return new LambdaMetafactoryCodegen(state, declaration, descriptor, parentCodegen, interfaceType, interfaceMethod, signature);
+    }
+
+    @NotNull
+    public StackValue generate(@NotNull FunctionGenerationStrategy strategy, @NotNull ExpressionCodegen codegen) {
+        ClassBuilder v = parentCodegen.v;
+        String owner = v.getThisName();
+
+        Method implMethod = new Method(getImplMethodName(owner), signature.getAsmMethod().getDescriptor());
+
+        ClosureContext closureContext =
+                new ClosureContext(state.getTypeMapper(), descriptor, codegen.getContext(), codegen, OwnerKind.PACKAGE);
+        MethodVisitor mv = v.newMethod(JvmDeclarationOriginKt.OtherOrigin(declaration, descriptor),
+                                       ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC,
+                                       implMethod.getName(), implMethod.getDescriptor(), null, null);
+        FunctionCodegen.generateMethodBody(mv, descriptor, closureContext.intoFunction(descriptor),
+                                           new JvmMethodSignature(implMethod, null, signature.getValueParameters()),
+                                           strategy, parentCodegen);
+        FunctionCodegen.endVisit(mv, "lambda", declaration);
+
+        CalculatedClosure closure = state.getBindingContext().get(CLOSURE, closureContext.getContextDescriptor());
+        assert closure != null && isConst(closure) : "Lambda generated with invokedynamic shouldn't capture anything: " + descriptor;
+
+        if (implMethod.getReturnType().getSort() == Type.VOID && interfaceMethod.getReturnType().getSort() != Type.VOID) {
+            implMethod = generateUnitAdapter(v, implMethod);
+        }
+
+        final Handle implHandle = new Handle(H_INVOKESTATIC, owner, implMethod.getName(), implMethod.getDescriptor());
+        final Type instantiatedMethodType = getInstantiatedMethodType(interfaceMethod, implMethod);
+
+        return StackValue.operation(interfaceType, new Function1<InstructionAdapter, Unit>() {
+            @Override
+            public Unit invoke(InstructionAdapter v) {
+                v.invokedynamic(
+                        interfaceMethod.getName(), Type.getMethodDescriptor(interfaceType), LAMBDA_METAFACTORY,
+                        new Object[] {Type.getMethodType(interfaceMethod.getDescriptor()), implHandle, instantiatedMethodType}
+                );
+                return Unit.INSTANCE;
+            }
+        });
+    }
+
+    // The lambda returning Unit is compiled to a void method, but the interface method returns Unit.INSTANCE
+    @NotNull
+    private Method generateUnitAdapter(@NotNull ClassBuilder v, @NotNull Method implMethod) {
+        Method adapter = new Method(implMethod.getName() + "$unit", interfaceMethod.getReturnType(), implMethod.getArgumentTypes());
+
+        MethodVisitor mv = v.newMethod(JvmDeclarationOriginKt.OtherOrigin(declaration, descriptor),
+                                       ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC,
+                                       adapter.getName(), adapter.getDescriptor(), null, null);
+        mv.visitCode();
+        InstructionAdapter iv = new InstructionAdapter(mv);
+
+        int slot = 0;
+        for (Type type : implMethod.getArgumentTypes()) {
+            iv.load(slot, type);
+            slot += type.getSize();
+        }
+        iv.invokestatic(v.getThisName(), implMethod.getName(), implMethod.getDescriptor(), false);
+        StackValue.onStack(Type.VOID_TYPE).put(adapter.getReturnType(), iv);
+        iv.areturn(adapter.getReturnType());
+
+        FunctionCodegen.endVisit(mv, "lambda adapter", declaration);
+
+        return adapter;
+    }
+
+    // e.g. lambda$main$1 for the lambda class Foo$main$1 in Foo
+    @NotNull
+    private String getImplMethodName(@NotNull String owner) {
+        String lambdaClassName = asmTypeForAnonymousClass(state.getBindingContext(), descriptor).getInternalName();
+        return lambdaClassName.startsWith(owner + "$")
+               ? "lambda" + lambdaClassName.substring(owner.length())
+               : "lambda$" + lambdaClassName.substring(lambdaClassName.lastIndexOf('/') + 1);
+    }
+
+    // The interface method with the types of the lambda: LambdaMetafactory boxes and unboxes the values passed between them
+    @NotNull
+    private static Type getInstantiatedMethodType(@NotNull Method interfaceMethod, @NotNull Method implMethod) {
+        Type[] interfaceArgumentTypes = interfaceMethod.getArgumentTypes();
+        Type[] implArgumentTypes = implMethod.getArgumentTypes();
+
+        Type[] argumentTypes = new Type[interfaceArgumentTypes.length];
+        for (int i = 0; i < argumentTypes.length; i++) {
+            argumentTypes[i] = getInstantiatedType(interfaceArgumentTypes[i], implArgumentTypes[i]);
+        }
+        return Type.getMethodType(getInstantiatedType(interfaceMethod.getReturnType(), implMethod.getReturnType()), argumentTypes);
+    }
+
+    @NotNull
+    private static Type getInstantiatedType(@NotNull Type interfaceType, @NotNull Type implType) {
+        return isPrimitive(interfaceType) ? interfaceType : boxType(implType);
+    }
+
+    // LambdaMetafactory doesn't convert between the primitive types, so they should be the same in the interface and in the lambda
+    private static boolean isAdaptable(@NotNull Method interfaceMethod, @NotNull Method implMethod) {
+        Type[] interfaceArgumentTypes = interfaceMethod.getArgumentTypes();
+        Type[] implArgumentTypes = implMethod.getArgumentTypes();
+        if (interfaceArgumentTypes.length != implArgumentTypes.length) return false;
+
+        for (int i = 0; i < interfaceArgumentTypes.length; i++) {
+            if (isPrimitive(interfaceArgumentTypes[i]) && !interfaceArgumentTypes[i].equals(implArgumentTypes[i])) return false;
+        }
+
+        Type interfaceReturnType = interfaceMethod.getReturnType();
+        return interfaceReturnType.getSort() == Type.VOID ||
+               !isPrimitive(interfaceReturnType) ||
+               interfaceReturnType.equals(implMethod.getReturnType());
+    }
+
+    private static boolean isSerializable(@NotNull KotlinType type) {
+        for (KotlinType supertype : TypeUtils.getAllSupertypes(type)) {
+            ClassifierDescriptor classifier = supertype.getConstructor().getDeclarationDescriptor();
+            if (classifier != null && "java.io.Serializable".equals(DescriptorUtils.getFqName(classifier).asString())) return true;
+        }
+        return false;
+    }
+
+    private static boolean isInsideInlineFunctionOrLambda(@NotNull CodegenContext<?> context) {
+        for (CodegenContext<?> current = context; current != null; current = current.getParentContext()) {
+            if (current.isInlineMethodContext() || current instanceof InlineLambdaContext) return true;
+        }
+        return false;
+    }
+
+    // Java 8 doesn't allow private methods in interfaces
+    private static boolean isInterface(@NotNull CodegenContext<?> context) {
+        return context.getContextKind() != OwnerKind.DEFAULT_IMPLS && DescriptorUtils.isInterface(context.getContextDescriptor());
+    }
+
+    /**
+     * The closure of a lambda is only known after its body is generated, so this check is conservative: it also rejects
+     * the lambdas containing declarations and other lambdas, which are generated as classes nested into the lambda class,
+     * and the calls of inline functions, which may regenerate anonymous objects in it.
+     */
+    private static boolean capturesNothing(
+            @NotNull KtElement declaration,
+            @NotNull final FunctionDescriptor descriptor,
+            @NotNull final BindingContext bindingContext
+    ) {
+        final boolean[] result = new boolean[] {true};
+        declaration.acceptChildren(new KtTreeVisitorVoid() {
+            @Override
+            public void visitElement(PsiElement element) {
+                if (result[0]) {
+                    super.visitElement(element);
+                }
+            }
+
+            @Override
+            public void visitClassOrObject(@NotNull KtClassOrObject classOrObject) {
+                result[0] = false;
+            }
+
+            @Override
+            public void visitNamedFunction(@NotNull KtNamedFunction function) {
+                result[0] = false;
+            }
+
+            @Override
+            public void visitLambdaExpression(@NotNull KtLambdaExpression lambdaExpression) {
+                result[0] = false;
+            }
+
+            @Override
+            public void visitCallableReferenceExpression(@NotNull KtCallableReferenceExpression expression) {
+                result[0] = false;
+            }
+
+            @Override
+            public void visitSuperExpression(@NotNull KtSuperExpression expression) {
+                result[0] = false;
+            }
+
+            @Override
+            public void visitThisExpression(@NotNull KtThisExpression expression) {
+                DeclarationDescriptor target = bindingContext.get(REFERENCE_TARGET, expression.getInstanceReference());
+                if (target == null || !isAvailableInLambda(target, descriptor)) {
+                    result[0] = false;
+                }
+            }
+
+            @Override
+            public void visitSimpleNameExpression(@NotNull KtSimpleNameExpression expression) {
+                ResolvedCall<?> resolvedCall = CallUtilKt.getResolvedCall(expression, bindingContext);
+                if (resolvedCall instanceof VariableAsFunctionResolvedCall) {
+                    VariableAsFunctionResolvedCall call = (VariableAsFunctionResolvedCall) resolvedCall;
+                    if (!isAvailableInLambda(call.getVariableCall(), descriptor) ||
+                        !isAvailableInLambda(call.getFunctionCall(), descriptor)) {
+                        result[0] = false;
+                    }
+                }
+                else if (resolvedCall != null && !isAvailableInLambda(resolvedCall, descriptor)) {
+                    result[0] = false;
+                }
+            }
+        });
+        return result[0];
+    }
+
+    private static boolean isAvailableInLambda(@NotNull ResolvedCall<?> resolvedCall, @NotNull FunctionDescriptor lambda) {
+        CallableDescriptor target = resolvedCall.getResultingDescriptor().getOriginal();
+        return !InlineUtil.isInline(target) &&
+               !isDeclaredInOtherFunction(target, lambda) &&
+               isAvailableInLambda(resolvedCall.getDispatchReceiver(), lambda) &&
+               isAvailableInLambda(resolvedCall.getExtensionReceiver(), lambda);
+    }
+
+    private static boolean isAvailableInLambda(@Nullable Receiver receiver, @NotNull FunctionDescriptor lambda) {
+        // explicit receivers are visited as expressions
+        return !(receiver instanceof ImplicitReceiver) ||
+               isAvailableInLambda(((ImplicitReceiver) receiver).getDeclarationDescriptor(), lambda);
+    }
+
+    // objects are obtained from their static instance fields, everything else is captured unless it belongs to the lambda itself
+    private static boolean isAvailableInLambda(@NotNull DeclarationDescriptor thisDescriptor, @NotNull FunctionDescriptor lambda) {
+        if (thisDescriptor instanceof ClassDescriptor) {
+            return DescriptorUtils.isObject(thisDescriptor) && !isDeclaredInOtherFunction(thisDescriptor, lambda);
+        }
+        return DescriptorUtils.isAncestor(lambda, thisDescriptor, false);
+    }
+
+    // locals of the enclosing functions and the members of the local classes are captured
+    private static boolean isDeclaredInOtherFunction(@NotNull DeclarationDescriptor descriptor, @NotNull FunctionDescriptor lambda) {
+        for (DeclarationDescriptor container = descriptor.getContainingDeclaration();
+             container != null;
+             container = container.getContainingDeclaration()) {
+            if (container instanceof CallableDescriptor) {
+                return !DescriptorUtils.isAncestor(lambda, container, false);
+            }
+        }
+        return false;
+    }
+}
@@ -90,7 +90,7 @@ class MultifileClassCodegen(
 
         val singleSourceFile = if (previouslyCompiledCallables.isNotEmpty()) null else filesWithCallables.singleOrNull()
 
-        classBuilder.defineClass(singleSourceFile, Opcodes.V1_6,
+        classBuilder.defineClass(singleSourceFile, state.classFileVersion,
                                  if (state.generateOpenMultifileClasses) OPEN_FACADE_CLASS_ATTRIBUTES else FACADE_CLASS_ATTRIBUTES,
                                  facadeClassType.internalName,
                                  null, "java/lang/Object", ArrayUtil.EMPTY_STRING_ARRAY)
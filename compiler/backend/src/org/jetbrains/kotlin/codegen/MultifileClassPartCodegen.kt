@@ -46,7 +46,7 @@ class MultifileClassPartCodegen(
     }
 
     override fun generateDeclaration() {
-        v.defineClass(element, Opcodes.V1_6,
+        v.defineClass(element, state.classFileVersion,
                       Opcodes.ACC_FINAL or Opcodes.ACC_SYNTHETIC or Opcodes.ACC_SUPER,
                       filePartType.internalName,
                       null,
@@ -64,7 +64,7 @@ public class PackagePartCodegen extends MemberCodegen<KtFile> {
 
     @Override
     protected void generateDeclaration() {
-        v.defineClass(element, V1_6,
+        v.defineClass(element, state.getClassFileVersion(),
                       ACC_PUBLIC | ACC_FINAL | ACC_SUPER,
                       packagePartType.getInternalName(),
                       null,
@@ -66,7 +66,7 @@ class PropertyReferenceCodegen(
     override fun generateDeclaration() {
         v.defineClass(
                 element,
-                V1_6,
+                state.classFileVersion,
                 ACC_FINAL or ACC_SUPER or AsmUtil.getVisibilityAccessFlagForAnonymous(classDescriptor),
                 asmType.internalName,
                 null,
@@ -20,13 +20,13 @@ import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.builtins.PrimitiveType;
-import org.jetbrains.kotlin.descriptors.CallableDescriptor;
-import org.jetbrains.kotlin.descriptors.ClassifierDescriptor;
+import org.jetbrains.kotlin.descriptors.*;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.name.FqNameUnsafe;
 import org.jetbrains.kotlin.name.Name;
 import org.jetbrains.kotlin.psi.*;
 import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.descriptorUtil.DescriptorUtilsKt;
 import org.jetbrains.kotlin.types.KotlinType;
 
 import java.util.List;
@@ -38,6 +38,9 @@ public class RangeCodegenUtil {
     private static final ImmutableMap<FqName, PrimitiveType> RANGE_TO_ELEMENT_TYPE;
     private static final ImmutableMap<FqName, PrimitiveType> PROGRESSION_TO_ELEMENT_TYPE;
 
+    private static final FqNameUnsafe COLLECTION_INDICES_FQ_NAME = new FqNameUnsafe("kotlin.collections.indices");
+    private static final FqNameUnsafe CHAR_SEQUENCE_INDICES_FQ_NAME = new FqNameUnsafe("kotlin.text.indices");
+
     private static PrimitiveType[] supportedRangeTypes() {
         return new PrimitiveType[] {
                 PrimitiveType.CHAR,
@@ -143,6 +146,44 @@ public class RangeCodegenUtil {
         return false;
     }
 
+    public static boolean isOptimizableUntil(@NotNull CallableDescriptor until) {
+        return isPrimitiveRangeExtension(until, "until");
+    }
+
+    public static boolean isOptimizableDownTo(@NotNull CallableDescriptor downTo) {
+        return isPrimitiveRangeExtension(downTo, "downTo");
+    }
+
+    private static boolean isPrimitiveRangeExtension(@NotNull CallableDescriptor descriptor, @NotNull String name) {
+        if (!name.equals(descriptor.getName().asString())) return false;
+
+        ReceiverParameterDescriptor receiver = descriptor.getExtensionReceiverParameter();
+        if (receiver == null || !isPrimitiveNumberClassDescriptor(receiver.getType().getConstructor().getDeclarationDescriptor())) {
+            return false;
+        }
+
+        DeclarationDescriptor container = descriptor.getContainingDeclaration();
+        return container instanceof PackageFragmentDescriptor &&
+               RANGES_PACKAGE_FQ_NAME.equals(((PackageFragmentDescriptor) container).getFqName());
+    }
+
+    /**
+     * @return true for the 'indices' extension properties of collections, arrays and char sequences from the standard library
+     */
+    public static boolean isOptimizableIndices(@NotNull CallableDescriptor indices) {
+        if (!(indices instanceof PropertyDescriptor) || indices.getExtensionReceiverParameter() == null) return false;
+
+        FqNameUnsafe fqName = DescriptorUtils.getFqName(indices.getOriginal());
+        return COLLECTION_INDICES_FQ_NAME.equals(fqName) || CHAR_SEQUENCE_INDICES_FQ_NAME.equals(fqName);
+    }
+
+    public static boolean isList(@NotNull KotlinType type) {
+        ClassifierDescriptor descriptor = type.getConstructor().getDeclarationDescriptor();
+        return !type.isMarkedNullable() &&
+               descriptor instanceof ClassDescriptor &&
+               DescriptorUtils.isSubclass((ClassDescriptor) descriptor, DescriptorUtilsKt.getBuiltIns(descriptor).getList());
+    }
+
     public static class BinaryCall {
         public final KtExpression left;
         public final KtExpression op;
@@ -32,9 +32,23 @@ public class ClosureContext extends ClassContext {
             @NotNull FunctionDescriptor functionDescriptor,
             @Nullable CodegenContext parentContext,
             @NotNull LocalLookup localLookup
+    ) {
+        this(typeMapper, functionDescriptor, parentContext, localLookup, OwnerKind.IMPLEMENTATION);
+    }
+
+    /**
+     * @param contextKind a static kind (e.g. {@link OwnerKind#PACKAGE}) if the body of the closure is generated
+     *                    as a static method instead of the method of the closure class
+     */
+    public ClosureContext(
+            @NotNull JetTypeMapper typeMapper,
+            @NotNull FunctionDescriptor functionDescriptor,
+            @Nullable CodegenContext parentContext,
+            @NotNull LocalLookup localLookup,
+            @NotNull OwnerKind contextKind
     ) {
         super(typeMapper, anonymousClassForCallable(typeMapper.getBindingContext(), functionDescriptor),
-              OwnerKind.IMPLEMENTATION, parentContext, localLookup);
+              contextKind, parentContext, localLookup);
 
         this.functionDescriptor = functionDescriptor;
     }
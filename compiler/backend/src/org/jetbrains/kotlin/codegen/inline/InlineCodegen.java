@@ -195,7 +195,8 @@ public class InlineCodegen extends CallGenerator {
                     IntrinsicArrayConstructorsKt.getBytecode(),
                     asmMethod.getName(),
                     asmMethod.getDescriptor(),
-                    IntrinsicArrayConstructorsKt.getClassId()
+                    IntrinsicArrayConstructorsKt.getClassId(),
+                    state.getJvmTarget()
             );
 
             if (nodeAndSMAP == null) {
@@ -213,7 +214,8 @@ public class InlineCodegen extends CallGenerator {
             }
 
             nodeAndSMAP = InlineCodegenUtil.getMethodNode(
-                    file.contentsToByteArray(), asmMethod.getName(), asmMethod.getDescriptor(), containingClasses.getFacadeClassId()
+                    file.contentsToByteArray(), asmMethod.getName(), asmMethod.getDescriptor(), containingClasses.getFacadeClassId(),
+                    state.getJvmTarget()
             );
 
             if (nodeAndSMAP == null) {
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.kotlin.backend.common.output.OutputFile;
+import org.jetbrains.kotlin.codegen.JvmTarget;
 import org.jetbrains.kotlin.codegen.MemberCodegen;
 import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
 import org.jetbrains.kotlin.codegen.context.CodegenContext;
@@ -84,7 +85,8 @@ public class InlineCodegenUtil {
             byte[] classData,
             final String methodName,
             final String methodDescriptor,
-            ClassId classId
+            ClassId classId,
+            @NotNull final JvmTarget target
     ) throws IOException {
         ClassReader cr = new ClassReader(classData);
         final MethodNode[] node = new MethodNode[1];
@@ -95,7 +97,7 @@ public class InlineCodegenUtil {
         cr.accept(new ClassVisitor(API) {
             @Override
             public void visit(int version, int access, @NotNull String name, String signature, String superName, String[] interfaces) {
-                assertVersionNotGreaterThanJava6(version, name);
+                assertVersionNotGreaterThanTarget(version, name, target);
             }
 
             @Override
@@ -141,12 +143,13 @@ public class InlineCodegenUtil {
         return new SMAPAndMethodNode(node[0], smap);
     }
 
-    public static void assertVersionNotGreaterThanJava6(int version, String internalName) {
+    public static void assertVersionNotGreaterThanTarget(int version, String internalName, @NotNull JvmTarget target) {
         // TODO: report a proper diagnostic
-        if (version > Opcodes.V1_6 && !"true".equals(System.getProperty("kotlin.skip.bytecode.version.check"))) {
+        if (version > target.getBytecodeVersion() && !"true".equals(System.getProperty("kotlin.skip.bytecode.version.check"))) {
             throw new UnsupportedOperationException(
                     "Cannot inline bytecode of class " + internalName + " which has version " + version + ". " +
-                    "This compiler can only inline Java 1.6 bytecode (version " + Opcodes.V1_6 + ")"
+                    "This compiler can only inline Java " + target.getDescription() + " bytecode " +
+                    "(version " + target.getBytecodeVersion() + "). Please specify a proper '-jvm-target' option"
             );
         }
     }
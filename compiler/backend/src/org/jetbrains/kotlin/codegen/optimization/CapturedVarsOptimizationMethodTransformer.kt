@@ -0,0 +1,270 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.StackValue
+import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+
+/**
+ * Replaces the Ref objects of captured variables with plain local variables when a Ref never leaves the method,
+ * which is the case for the variables captured only by inlined lambdas
+ */
+class CapturedVarsOptimizationMethodTransformer : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (methodNode.instructions.toArray().none { it.opcode == Opcodes.NEW && (it as TypeInsnNode).desc in REF_ELEMENT_TYPES }) return
+
+        val interpreter = CapturedRefInterpreter()
+        val frames = MethodTransformer.analyze(internalClassName, methodNode, interpreter)
+        val insns = methodNode.instructions.toArray()
+
+        for ((insn, frame) in insns.zip(frames)) {
+            if (frame != null) {
+                interpreter.checkStackManipulation(insn, frame)
+            }
+        }
+
+        val refs = interpreter.refs.filter { it.isSafe }
+        if (refs.isEmpty()) return
+
+        for (ref in refs) {
+            ref.localIndex = methodNode.maxLocals
+            methodNode.maxLocals += ref.elementType.size
+        }
+
+        rewriteLocalVariables(methodNode, frames)
+
+        for ((insn, frame) in insns.zip(frames)) {
+            if (frame != null) {
+                rewriteInsn(methodNode.instructions, insn, frame, interpreter)
+            }
+        }
+    }
+
+    private fun rewriteInsn(insnList: InsnList, insn: AbstractInsnNode, frame: Frame<BasicValue>, interpreter: CapturedRefInterpreter) {
+        when (insn.opcode) {
+            Opcodes.NEW -> {
+                val ref = interpreter.refForNew(insn) ?: return
+                if (!ref.isSafe) return
+                insnList.insertBefore(insn, InsnNode(defaultValueOpcode(ref.elementType)))
+                insnList.set(insn, VarInsnNode(ref.elementType.getOpcode(Opcodes.ISTORE), ref.localIndex))
+            }
+            Opcodes.DUP, Opcodes.ASTORE, Opcodes.INVOKESPECIAL -> {
+                if (frame.peek(0).safeRef != null) {
+                    insnList.remove(insn)
+                }
+            }
+            Opcodes.ALOAD -> {
+                if (frame.getLocal((insn as VarInsnNode).`var`).safeRef != null) {
+                    insnList.remove(insn)
+                }
+            }
+            Opcodes.GETFIELD -> {
+                val ref = frame.peek(0).safeRef ?: return
+                insnList.set(insn, VarInsnNode(ref.elementType.getOpcode(Opcodes.ILOAD), ref.localIndex))
+            }
+            Opcodes.PUTFIELD -> {
+                val ref = frame.peek(1).safeRef ?: return
+                insnList.set(insn, VarInsnNode(ref.elementType.getOpcode(Opcodes.ISTORE), ref.localIndex))
+            }
+        }
+    }
+
+    private fun rewriteLocalVariables(methodNode: MethodNode, frames: Array<Frame<BasicValue>?>) {
+        val insnList = methodNode.instructions
+        for (localVariable in methodNode.localVariables ?: return) {
+            if (Type.getType(localVariable.desc).internalNameOrNull() !in REF_ELEMENT_TYPES) continue
+
+            val start = insnList.indexOf(localVariable.start)
+            val end = insnList.indexOf(localVariable.end)
+            val ref = (start until end).asSequence().mapNotNull { frames[it]?.getLocal(localVariable.index)?.safeRef }.firstOrNull()
+            if (ref != null) {
+                localVariable.index = ref.localIndex
+                localVariable.desc = ref.elementType.descriptor
+                localVariable.signature = null
+            }
+        }
+    }
+
+    private fun Type.internalNameOrNull(): String? = if (sort == Type.OBJECT) internalName else null
+
+    private fun defaultValueOpcode(type: Type): Int =
+            when (type.sort) {
+                Type.LONG -> Opcodes.LCONST_0
+                Type.FLOAT -> Opcodes.FCONST_0
+                Type.DOUBLE -> Opcodes.DCONST_0
+                Type.OBJECT, Type.ARRAY -> Opcodes.ACONST_NULL
+                else -> Opcodes.ICONST_0
+            }
+
+    private companion object {
+        // Ref class internal name -> type of its 'element' field
+        val REF_ELEMENT_TYPES: Map<String, Type> =
+                listOf(Type.BOOLEAN_TYPE, Type.CHAR_TYPE, Type.BYTE_TYPE, Type.SHORT_TYPE, Type.INT_TYPE,
+                       Type.FLOAT_TYPE, Type.LONG_TYPE, Type.DOUBLE_TYPE, AsmTypes.OBJECT_TYPE)
+                        .associateBy { StackValue.sharedTypeForType(it).internalName }
+                        .mapValues { StackValue.refType(it.value) }
+    }
+
+    private class CapturedRef(val elementType: Type) {
+        var isSafe = true
+        var localIndex = -1
+    }
+
+    private class CapturedRefValue(val ref: CapturedRef, type: Type) : BasicValue(type) {
+        override fun equals(other: Any?) = this === other
+
+        override fun hashCode() = System.identityHashCode(this)
+    }
+
+    // A value that may be one of several refs or something else, depending on the path
+    private class MergedRefsValue(val refs: Set<CapturedRef>) : BasicValue(AsmTypes.OBJECT_TYPE) {
+        override fun equals(other: Any?) = other is MergedRefsValue && refs == other.refs
+
+        override fun hashCode() = refs.hashCode()
+    }
+
+    private val BasicValue?.safeRef: CapturedRef?
+        get() = if (this is CapturedRefValue && ref.isSafe) ref else null
+
+    /**
+     * Tracks the refs created in the method and marks the ones used in any other way than
+     * being initialized, copied between the stack and locals and having their 'element' field read or written
+     */
+    private class CapturedRefInterpreter : OptimizationBasicInterpreter() {
+        private val valuesByNew = linkedMapOf<AbstractInsnNode, CapturedRefValue>()
+        private val mergedValues = hashMapOf<Set<CapturedRef>, MergedRefsValue>()
+
+        val refs: List<CapturedRef> get() = valuesByNew.values.map { it.ref }
+
+        fun refForNew(insn: AbstractInsnNode): CapturedRef? = valuesByNew[insn]?.ref
+
+        override fun newOperation(insn: AbstractInsnNode): BasicValue {
+            if (insn.opcode == Opcodes.NEW) {
+                val desc = (insn as TypeInsnNode).desc
+                val elementType = REF_ELEMENT_TYPES[desc]
+                if (elementType != null) {
+                    return valuesByNew.getOrPut(insn) { CapturedRefValue(CapturedRef(elementType), Type.getObjectType(desc)) }
+                }
+            }
+            return super.newOperation(insn)
+        }
+
+        override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? {
+            if (!(insn.opcode == Opcodes.GETFIELD && value is CapturedRefValue && (insn as FieldInsnNode).isElementOf(value))) {
+                markEscaping(value)
+            }
+            return super.unaryOperation(insn, value)
+        }
+
+        override fun binaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue): BasicValue? {
+            if (!(insn.opcode == Opcodes.PUTFIELD && value1 is CapturedRefValue && (insn as FieldInsnNode).isElementOf(value1))) {
+                markEscaping(value1)
+            }
+            markEscaping(value2)
+            return super.binaryOperation(insn, value1, value2)
+        }
+
+        override fun ternaryOperation(insn: AbstractInsnNode, value1: BasicValue, value2: BasicValue, value3: BasicValue): BasicValue? {
+            markEscaping(value1)
+            markEscaping(value2)
+            markEscaping(value3)
+            return super.ternaryOperation(insn, value1, value2, value3)
+        }
+
+        override fun naryOperation(insn: AbstractInsnNode, values: List<BasicValue>): BasicValue? {
+            val receiver = values.singleOrNull()
+            val isRefInit = insn is MethodInsnNode && insn.opcode == Opcodes.INVOKESPECIAL && insn.name == "<init>" && insn.desc == "()V" &&
+                            receiver is CapturedRefValue && receiver.type.internalName == insn.owner
+            if (!isRefInit) {
+                values.forEach { markEscaping(it) }
+            }
+            return super.naryOperation(insn, values)
+        }
+
+        override fun returnOperation(insn: AbstractInsnNode, value: BasicValue, expected: BasicValue) {
+            markEscaping(value)
+            super.returnOperation(insn, value, expected)
+        }
+
+        override fun merge(v: BasicValue, w: BasicValue): BasicValue {
+            val refs = v.mergedRefs() + w.mergedRefs()
+            return when {
+                refs.isEmpty() -> super.merge(v, w)
+                v === w -> v
+                else -> mergedValues.getOrPut(refs) { MergedRefsValue(refs) }
+            }
+        }
+
+        /**
+         * The instructions which copy or discard values without passing them to the interpreter can't be rewritten
+         * if a ref is involved, and the merged values can't be removed at all
+         */
+        fun checkStackManipulation(insn: AbstractInsnNode, frame: Frame<BasicValue>) {
+            when (insn.opcode) {
+                Opcodes.POP -> markTopWords(frame, 1)
+                Opcodes.POP2, Opcodes.DUP_X1, Opcodes.DUP2, Opcodes.SWAP -> markTopWords(frame, 2)
+                Opcodes.DUP_X2, Opcodes.DUP2_X1 -> markTopWords(frame, 3)
+                Opcodes.DUP2_X2 -> markTopWords(frame, 4)
+                Opcodes.DUP, Opcodes.ASTORE -> {
+                    val value = frame.peek(0)
+                    if (value is MergedRefsValue) markEscaping(value)
+                }
+                Opcodes.ALOAD -> {
+                    val value = frame.getLocal((insn as VarInsnNode).`var`)
+                    if (value is MergedRefsValue) markEscaping(value)
+                }
+            }
+        }
+
+        // Marks the values occupying the given number of words on top of the stack, i.e. the ones moved by the instruction
+        private fun markTopWords(frame: Frame<BasicValue>, words: Int) {
+            var depth = 0
+            var marked = 0
+            while (marked < words && depth < frame.stackSize) {
+                val value = frame.peek(depth++)
+                markEscaping(value)
+                marked += value.size
+            }
+        }
+
+        private fun FieldInsnNode.isElementOf(value: CapturedRefValue): Boolean =
+                name == "element" && owner == value.type.internalName
+
+        private fun BasicValue.mergedRefs(): Set<CapturedRef> =
+                when (this) {
+                    is CapturedRefValue -> setOf(ref)
+                    is MergedRefsValue -> refs
+                    else -> emptySet()
+                }
+
+        private fun markEscaping(value: BasicValue?) {
+            when (value) {
+                is CapturedRefValue -> value.ref.isSafe = false
+                is MergedRefsValue -> value.refs.forEach { it.isSafe = false }
+            }
+        }
+    }
+}
+
+private fun Frame<BasicValue>.peek(depth: Int): BasicValue = getStack(stackSize - 1 - depth)
@@ -52,7 +52,7 @@ class BuilderFactoryForDuplicateSignatureDiagnostics(
 
     // Avoid errors when some classes are not loaded for some reason
     private val typeMapper = JetTypeMapper(bindingContext, ClassBuilderMode.LIGHT_CLASSES, fileClassesProvider, incrementalCache,
-                                           IncompatibleClassTracker.DoNothing, moduleName)
+                                           IncompatibleClassTracker.DoNothing, moduleName, /* memoizeMappings = */ true)
     private val reportDiagnosticsTasks = ArrayList<() -> Unit>()
 
     fun reportDiagnostics() {
@@ -67,7 +67,12 @@ class GenerationState @JvmOverloads constructor(
         val outDirectory: File? = null,
         val incrementalCompilationComponents: IncrementalCompilationComponents? = null,
         val generateOpenMultifileClasses: Boolean = false,
-        val progress: Progress = Progress.DEAF
+        val progress: Progress = Progress.DEAF,
+        val jvmTarget: JvmTarget = JvmTarget.DEFAULT,
+        // compile interface members with bodies to Java 8 default methods delegating to DefaultImpls
+        val generateDefaultMethods: Boolean = false,
+        // generate non-capturing lambdas with invokedynamic, see LambdaMetafactoryCodegen
+        val generateIndyLambdas: Boolean = false
 ) {
     abstract class GenerateClassFilter {
         abstract fun shouldAnnotateClass(processingClassOrObject: KtClassOrObject): Boolean
@@ -111,7 +116,7 @@ class GenerationState @JvmOverloads constructor(
     val bindingContext: BindingContext = bindingTrace.bindingContext
     val typeMapper: JetTypeMapper = JetTypeMapper(
             this.bindingContext, classBuilderMode, fileClassesProvider, getIncrementalCacheForThisTarget(),
-            IncompatibleClassTrackerImpl(extraJvmDiagnosticsTrace), this.moduleName
+            IncompatibleClassTrackerImpl(extraJvmDiagnosticsTrace), this.moduleName, /* memoizeMappings = */ true
     )
     val intrinsics: IntrinsicMethods = IntrinsicMethods()
     val samWrapperClasses: SamWrapperClasses = SamWrapperClasses(this)
@@ -138,6 +143,8 @@ class GenerationState @JvmOverloads constructor(
     val isParamAssertionsEnabled: Boolean = !disableParamAssertions
         @JvmName("isParamAssertionsEnabled") get
 
+    val classFileVersion: Int = jvmTarget.bytecodeVersion
+
     val isInlineEnabled: Boolean = !disableInline
         @JvmName("isInlineEnabled") get
 
@@ -79,6 +79,8 @@ import org.jetbrains.org.objectweb.asm.commons.Method;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.jetbrains.kotlin.builtins.KotlinBuiltIns.isUnit;
 import static org.jetbrains.kotlin.codegen.AsmUtil.*;
@@ -100,6 +102,11 @@ public class JetTypeMapper {
     private final IncompatibleClassTracker incompatibleClassTracker;
     private final String moduleName;
 
+    // Signatures and types are requested for each call site, so they may be memoized for the lifetime of this mapper.
+    // Only mappers which don't outlive a single GenerationState should do this, otherwise descriptors are leaked
+    private final ConcurrentMap<Pair<FunctionDescriptor, OwnerKind>, JvmMethodSignature> signatureCache;
+    private final ConcurrentMap<Pair<KotlinType, Integer>, Type> asmTypeCache;
+
     public JetTypeMapper(
             @NotNull BindingContext bindingContext,
             @NotNull ClassBuilderMode classBuilderMode,
@@ -107,6 +114,18 @@ public class JetTypeMapper {
             @Nullable IncrementalCache incrementalCache,
             @NotNull IncompatibleClassTracker incompatibleClassTracker,
             @NotNull String moduleName
+    ) {
+        this(bindingContext, classBuilderMode, fileClassesProvider, incrementalCache, incompatibleClassTracker, moduleName, false);
+    }
+
+    public JetTypeMapper(
+            @NotNull BindingContext bindingContext,
+            @NotNull ClassBuilderMode classBuilderMode,
+            @NotNull JvmFileClassesProvider fileClassesProvider,
+            @Nullable IncrementalCache incrementalCache,
+            @NotNull IncompatibleClassTracker incompatibleClassTracker,
+            @NotNull String moduleName,
+            boolean memoizeMappings
     ) {
         this.bindingContext = bindingContext;
         this.classBuilderMode = classBuilderMode;
@@ -114,6 +133,8 @@ public class JetTypeMapper {
         this.incrementalCache = incrementalCache;
         this.incompatibleClassTracker = incompatibleClassTracker;
         this.moduleName = moduleName;
+        this.signatureCache = memoizeMappings ? new ConcurrentHashMap<Pair<FunctionDescriptor, OwnerKind>, JvmMethodSignature>() : null;
+        this.asmTypeCache = memoizeMappings ? new ConcurrentHashMap<Pair<KotlinType, Integer>, Type>() : null;
     }
 
     @NotNull
@@ -410,6 +431,35 @@ public class JetTypeMapper {
             @NotNull KotlinType jetType,
             @Nullable BothSignatureWriter signatureVisitor,
             @NotNull TypeMappingMode mode
+    ) {
+        if (asmTypeCache == null || signatureVisitor != null || isLocalClassifierType(jetType)) {
+            return doMapType(jetType, signatureVisitor, mode);
+        }
+
+        // Without a signature writer the resulting type depends only on these two properties of the mode
+        int modeKey = (mode.getNeedPrimitiveBoxing() ? 1 : 0) | (mode.isForAnnotationParameter() ? 2 : 0);
+        Pair<KotlinType, Integer> key = new Pair<KotlinType, Integer>(jetType, modeKey);
+        Type cached = asmTypeCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Type asmType = doMapType(jetType, null, mode);
+        asmTypeCache.putIfAbsent(key, asmType);
+        return asmType;
+    }
+
+    // Names of local classes are recorded to the binding context during code generation, so their types are not memoized
+    private static boolean isLocalClassifierType(@NotNull KotlinType type) {
+        ClassifierDescriptor classifier = type.getConstructor().getDeclarationDescriptor();
+        return classifier == null || isLocal(classifier);
+    }
+
+    @NotNull
+    private Type doMapType(
+            @NotNull KotlinType jetType,
+            @Nullable BothSignatureWriter signatureVisitor,
+            @NotNull TypeMappingMode mode
     ) {
         Type builtinType = mapBuiltinType(jetType);
 
@@ -979,6 +1029,25 @@ public class JetTypeMapper {
 
     @NotNull
     public JvmMethodSignature mapSignature(@NotNull FunctionDescriptor f, @NotNull OwnerKind kind) {
+        // Signatures of constructors depend on the variables captured by the class, which are only known after its body is generated.
+        // Accessors are created anew for each access, so there's no point in caching them
+        if (signatureCache == null || f instanceof ConstructorDescriptor || f instanceof AccessorForCallableDescriptor<?> || isLocal(f)) {
+            return doMapSignature(f, kind);
+        }
+
+        Pair<FunctionDescriptor, OwnerKind> key = new Pair<FunctionDescriptor, OwnerKind>(f, kind);
+        JvmMethodSignature cached = signatureCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        JvmMethodSignature signature = doMapSignature(f, kind);
+        signatureCache.putIfAbsent(key, signature);
+        return signature;
+    }
+
+    @NotNull
+    private JvmMethodSignature doMapSignature(@NotNull FunctionDescriptor f, @NotNull OwnerKind kind) {
         if (f.getInitialSignatureDescriptor() != null && f != f.getInitialSignatureDescriptor()) {
             // Overrides of special builtin in Kotlin classes always have special signature
             if (SpecialBuiltinMembers.getOverriddenBuiltinReflectingJvmDescriptor(f) == null ||
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.codegen.when;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.kotlin.codegen.ExpressionCodegen;
+import org.jetbrains.kotlin.codegen.state.JetTypeMapper;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
+import org.jetbrains.kotlin.descriptors.DeclarationDescriptor;
+import org.jetbrains.kotlin.descriptors.Modality;
+import org.jetbrains.kotlin.psi.*;
+import org.jetbrains.kotlin.resolve.BindingContext;
+import org.jetbrains.kotlin.resolve.DescriptorToSourceUtils;
+import org.jetbrains.kotlin.resolve.DescriptorUtils;
+import org.jetbrains.kotlin.resolve.constants.ConstantValue;
+import org.jetbrains.kotlin.resolve.constants.NullValue;
+import org.jetbrains.kotlin.types.KotlinType;
+import org.jetbrains.kotlin.types.TypeUtils;
+import org.jetbrains.org.objectweb.asm.Label;
+import org.jetbrains.org.objectweb.asm.Type;
+
+import java.util.*;
+
+/**
+ * Generates 'when' over a sealed class with 'is' checks for its subclasses as a switch by the tag of the subclass.
+ * Each direct subclass of a sealed class overrides the synthetic tag method returning its index in {@link #getSealedSubclasses},
+ * so the dispatch doesn't depend on the number of branches as the chain of INSTANCEOF checks does.
+ */
+public class SealedClassSwitchCodegen extends SwitchCodegen {
+    // With fewer type checks the INSTANCEOF chain is at least as fast as the virtual call of the tag method
+    public static final int MIN_TYPE_CHECKS_FOR_SWITCH = 4;
+
+    private static final String TAG_METHOD_PREFIX = "$sealedTag$";
+    public static final String TAG_METHOD_DESCRIPTOR = Type.getMethodDescriptor(Type.INT_TYPE);
+
+    private final ClassDescriptor sealedClass;
+    private final List<ClassDescriptor> subclasses;
+
+    public SealedClassSwitchCodegen(
+            @NotNull KtWhenExpression expression,
+            boolean isStatement,
+            boolean isExhaustive,
+            @NotNull ExpressionCodegen codegen,
+            @NotNull ClassDescriptor sealedClass
+    ) {
+        super(expression, isStatement, isExhaustive, codegen);
+        this.sealedClass = sealedClass;
+        this.subclasses = getSealedSubclasses(sealedClass);
+    }
+
+    @Override
+    protected void generateSubject() {
+        super.generateSubject();
+        generateNullCheckIfNeeded();
+
+        JetTypeMapper typeMapper = codegen.getState().getTypeMapper();
+        v.invokevirtual(typeMapper.mapClass(sealedClass).getInternalName(), getTagMethodName(sealedClass, typeMapper),
+                        TAG_METHOD_DESCRIPTOR, false);
+    }
+
+    @Override
+    protected void processEntry(@NotNull KtWhenEntry entry, @NotNull Label entryLabel) {
+        for (KtWhenCondition condition : entry.getConditions()) {
+            if (!(condition instanceof KtWhenConditionIsPattern)) continue;
+
+            ClassDescriptor checkedClass = getCheckedClass((KtWhenConditionIsPattern) condition, bindingContext);
+            assert checkedClass != null : "guaranteed by getSealedClassForSwitch";
+
+            // a direct subclass of the sealed class can't extend another one, so only its own tag matches
+            putTransitionOnce(subclasses.indexOf(checkedClass), entryLabel);
+        }
+    }
+
+    @Override
+    protected void processConstant(@NotNull ConstantValue<?> constant, @NotNull Label entryLabel) {
+        throw new IllegalStateException("Only null constants are expected in when by sealed class: " + constant);
+    }
+
+    /**
+     * Direct subclasses of the sealed class in the order of their tags.
+     * Subclasses are sorted by name, so the tags change only when the set of subclasses changes
+     */
+    @NotNull
+    public static List<ClassDescriptor> getSealedSubclasses(@NotNull ClassDescriptor sealedClass) {
+        List<ClassDescriptor> result = new ArrayList<ClassDescriptor>();
+        collectNestedSubclasses(sealedClass, sealedClass, result);
+        Collections.sort(result, new Comparator<ClassDescriptor>() {
+            @Override
+            public int compare(ClassDescriptor o1, ClassDescriptor o2) {
+                return DescriptorUtils.getFqName(o1).asString().compareTo(DescriptorUtils.getFqName(o2).asString());
+            }
+        });
+        return result;
+    }
+
+    private static void collectNestedSubclasses(
+            @NotNull ClassDescriptor sealedClass,
+            @NotNull ClassDescriptor currentClass,
+            @NotNull List<ClassDescriptor> result
+    ) {
+        for (DeclarationDescriptor descriptor : DescriptorUtils.getAllDescriptors(currentClass.getUnsubstitutedInnerClassesScope())) {
+            if (descriptor instanceof ClassDescriptor) {
+                ClassDescriptor classDescriptor = (ClassDescriptor) descriptor;
+                if (DescriptorUtils.isDirectSubclass(classDescriptor, sealedClass)) {
+                    result.add(classDescriptor);
+                }
+                collectNestedSubclasses(sealedClass, classDescriptor, result);
+            }
+        }
+    }
+
+    /**
+     * Tag methods of a class and of its sealed superclasses have different names, since each sealed class in the hierarchy
+     * is nested in the previous one
+     */
+    @NotNull
+    public static String getTagMethodName(@NotNull ClassDescriptor sealedClass, @NotNull JetTypeMapper typeMapper) {
+        String internalName = typeMapper.mapClass(sealedClass).getInternalName();
+        return TAG_METHOD_PREFIX + internalName.substring(internalName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Returns the sealed class if 'when' consists of enough 'is' checks for its direct subclasses and maybe a null check.
+     * Sealed classes from binaries aren't supported, because they may have been compiled without the tag methods
+     */
+    @Nullable
+    public static ClassDescriptor getSealedClassForSwitch(
+            @NotNull KtWhenExpression expression,
+            @NotNull BindingContext bindingContext
+    ) {
+        KtExpression subjectExpression = expression.getSubjectExpression();
+        if (subjectExpression == null) return null;
+
+        KotlinType subjectType = bindingContext.getType(subjectExpression);
+        if (subjectType == null) return null;
+
+        ClassDescriptor sealedClass = TypeUtils.getClassDescriptor(subjectType);
+        if (sealedClass == null || sealedClass.getModality() != Modality.SEALED ||
+            DescriptorToSourceUtils.descriptorToDeclaration(sealedClass) == null) {
+            return null;
+        }
+
+        int typeChecks = 0;
+        for (KtWhenEntry entry : expression.getEntries()) {
+            for (KtWhenCondition condition : entry.getConditions()) {
+                if (condition instanceof KtWhenConditionIsPattern) {
+                    KtWhenConditionIsPattern isPattern = (KtWhenConditionIsPattern) condition;
+                    ClassDescriptor checkedClass = getCheckedClass(isPattern, bindingContext);
+                    if (isPattern.isNegated() || checkedClass == null || !DescriptorUtils.isDirectSubclass(checkedClass, sealedClass)) {
+                        return null;
+                    }
+                    typeChecks++;
+                }
+                else if (condition instanceof KtWhenConditionWithExpression) {
+                    KtExpression patternExpression = ((KtWhenConditionWithExpression) condition).getExpression();
+                    if (patternExpression == null ||
+                        !(ExpressionCodegen.getCompileTimeConstant(patternExpression, bindingContext) instanceof NullValue)) {
+                        return null;
+                    }
+                }
+                else {
+                    return null;
+                }
+            }
+        }
+
+        return typeChecks >= MIN_TYPE_CHECKS_FOR_SWITCH ? sealedClass : null;
+    }
+
+    @Nullable
+    private static ClassDescriptor getCheckedClass(@NotNull KtWhenConditionIsPattern condition, @NotNull BindingContext bindingContext) {
+        KotlinType checkedType = bindingContext.get(BindingContext.TYPE, condition.getTypeReference());
+        // 'is A?' is true for null, which doesn't have a tag
+        return checkedType != null && !TypeUtils.isNullableType(checkedType) ? TypeUtils.getClassDescriptor(checkedType) : null;
+    }
+}
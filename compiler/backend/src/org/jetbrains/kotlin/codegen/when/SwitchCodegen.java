@@ -92,16 +92,13 @@ abstract public class SwitchCodegen {
 
     /**
      * Sets up transitionsTable and maybe something else needed in a special case
-     * Behaviour may be changed by overriding processConstant
+     * Behaviour may be changed by overriding processEntry or processConstant
      */
     private void prepareConfiguration() {
         for (KtWhenEntry entry : expression.getEntries()) {
             Label entryLabel = new Label();
 
-            for (ConstantValue<?> constant : SwitchCodegenUtil.getConstantsFromEntry(entry, bindingContext)) {
-                if (constant instanceof NullValue) continue;
-                processConstant(constant, entryLabel);
-            }
+            processEntry(entry, entryLabel);
 
             if (entry.isElse()) {
                 elseLabel = entryLabel;
@@ -111,6 +108,17 @@ abstract public class SwitchCodegen {
         }
     }
 
+    /**
+     * Puts the transitions for the conditions of the entry
+     * Default implementation processes its non-null constants
+     */
+    protected void processEntry(@NotNull KtWhenEntry entry, @NotNull Label entryLabel) {
+        for (ConstantValue<?> constant : SwitchCodegenUtil.getConstantsFromEntry(entry, bindingContext)) {
+            if (constant instanceof NullValue) continue;
+            processConstant(constant, entryLabel);
+        }
+    }
+
     abstract protected void processConstant(
             @NotNull ConstantValue<?> constant,
             @NotNull Label entryLabel
@@ -21,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.kotlin.codegen.ExpressionCodegen;
 import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
+import org.jetbrains.kotlin.descriptors.ClassDescriptor;
 import org.jetbrains.kotlin.psi.*;
 import org.jetbrains.kotlin.resolve.BindingContext;
 import org.jetbrains.kotlin.resolve.constants.ConstantValue;
@@ -106,6 +107,12 @@ public class SwitchCodegenUtil {
             @NotNull ExpressionCodegen codegen
     ) {
         BindingContext bindingContext = codegen.getBindingContext();
+
+        ClassDescriptor sealedClass = SealedClassSwitchCodegen.getSealedClassForSwitch(expression, bindingContext);
+        if (sealedClass != null) {
+            return new SealedClassSwitchCodegen(expression, isStatement, isExhaustive, codegen, sealedClass);
+        }
+
         if (!isThereConstantEntriesButNulls(expression, bindingContext)) {
             return null;
         }
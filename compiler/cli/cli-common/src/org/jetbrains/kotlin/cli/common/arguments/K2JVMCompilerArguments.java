@@ -51,6 +51,10 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "module-name", description = "Module name")
     public String moduleName;
 
+    @Argument(value = "jvm-target", description = "Target version of the generated JVM bytecode (1.6 or 1.8), default is 1.6")
+    @ValueDescription("<version>")
+    public String jvmTarget;
+
     // Advanced options
     @Argument(value = "Xno-call-assertions", description = "Don't generate not-null assertion after each invocation of method returning not-null")
     public boolean noCallAssertions;
@@ -70,6 +74,16 @@ public class K2JVMCompilerArguments extends CommonCompilerArguments {
     @Argument(value = "Xallow-kotlin-package", description = "Allow compiling code in package 'kotlin'")
     public boolean allowKotlinPackage;
 
+    @Argument(value = "Xmapped-sources", description = "Read source files through memory-mapped buffers instead of loading them into the heap")
+    public boolean mappedSources;
+
+    @Argument(value = "Xjvm-default-methods", description = "Compile interface members with bodies to Java 8 default methods, requires '-jvm-target 1.8'")
+    public boolean jvmDefaultMethods;
+
+    @Argument(value = "Xindy-lambdas", description = "Generate non-capturing lambdas with invokedynamic, such lambdas are not serializable " +
+                                                     "and not supported by reflect(), requires '-jvm-target 1.8'")
+    public boolean indyLambdas;
+
     @Argument(value = "Xskip-metadata-version-check", description = "Try loading binary incompatible classes, may cause crashes")
     public boolean skipMetadataVersionCheck;
 
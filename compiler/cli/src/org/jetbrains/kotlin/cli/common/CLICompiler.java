@@ -34,6 +34,7 @@ import org.jetbrains.kotlin.progress.CompilationCanceledException;
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
 
+import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.List;
 
@@ -69,6 +70,44 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> {
         return exec(errStream, Services.EMPTY, MessageRenderer.PLAIN_FULL_PATHS, args);
     }
 
+    /**
+     * Reports all messages, including the ones about malformed arguments, to the given collector instead of rendering them to a stream
+     */
+    @NotNull
+    public ExitCode execAndReportMessages(@NotNull MessageCollector messageCollector, @NotNull Services services, @NotNull String... args) {
+        K2JVMCompiler.Companion.resetInitStartTime();
+
+        A arguments;
+        try {
+            arguments = createArguments();
+            arguments.freeArgs = Args.parse(arguments, args);
+        }
+        catch (IllegalArgumentException e) {
+            messageCollector.report(CompilerMessageSeverity.ERROR, e.getMessage(), CompilerMessageLocation.NO_LOCATION);
+            return INTERNAL_ERROR;
+        }
+        catch (Throwable t) {
+            messageCollector.report(CompilerMessageSeverity.EXCEPTION, OutputMessageUtil.renderException(t), CompilerMessageLocation.NO_LOCATION);
+            return INTERNAL_ERROR;
+        }
+
+        if (arguments.help || arguments.extraHelp) {
+            ByteArrayOutputStream usage = new ByteArrayOutputStream();
+            PrintStream usageStream = new PrintStream(usage);
+            usage(usageStream, arguments.extraHelp);
+            usageStream.flush();
+            messageCollector.report(CompilerMessageSeverity.INFO, usage.toString(), CompilerMessageLocation.NO_LOCATION);
+            return OK;
+        }
+
+        // the same as PrintingMessageCollector does in the other modes, the logging is only reported with -verbose
+        if (!arguments.verbose) {
+            messageCollector = new FilteringMessageCollector(messageCollector, Predicates.equalTo(CompilerMessageSeverity.LOGGING));
+        }
+
+        return exec(messageCollector, services, arguments);
+    }
+
     @Nullable
     private A parseArguments(@NotNull PrintStream errStream, @NotNull MessageRenderer messageRenderer, @NotNull String[] args) {
         try {
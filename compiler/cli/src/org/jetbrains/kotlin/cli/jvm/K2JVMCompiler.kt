@@ -30,6 +30,7 @@ import org.jetbrains.kotlin.cli.jvm.config.addJavaSourceRoot
 import org.jetbrains.kotlin.cli.jvm.config.addJvmClasspathRoots
 import org.jetbrains.kotlin.cli.jvm.repl.ReplFromTerminal
 import org.jetbrains.kotlin.codegen.CompilationException
+import org.jetbrains.kotlin.codegen.JvmTarget
 import org.jetbrains.kotlin.compiler.plugin.CliOptionProcessingException
 import org.jetbrains.kotlin.compiler.plugin.PluginCliOptionProcessingException
 import org.jetbrains.kotlin.compiler.plugin.cliPluginUsageString
@@ -130,6 +131,32 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             JvmMetadataVersion.skipCheck = true
         }
 
+        if (arguments.jvmTarget != null) {
+            val jvmTarget = JvmTarget.fromString(arguments.jvmTarget)
+            if (jvmTarget == null) {
+                messageSeverityCollector.report(CompilerMessageSeverity.ERROR,
+                                                "Unknown JVM target version: ${arguments.jvmTarget}\n" +
+                                                "Supported versions: ${JvmTarget.values().joinToString { it.description }}",
+                                                CompilerMessageLocation.NO_LOCATION)
+                return INTERNAL_ERROR
+            }
+            configuration.put(JVMConfigurationKeys.JVM_TARGET, jvmTarget)
+        }
+
+        if (arguments.jvmDefaultMethods && configuration.get(JVMConfigurationKeys.JVM_TARGET, JvmTarget.DEFAULT) != JvmTarget.JVM_1_8) {
+            messageSeverityCollector.report(CompilerMessageSeverity.ERROR,
+                                            "Default methods in interfaces are only supported for the 1.8 target, please specify '-jvm-target 1.8'",
+                                            CompilerMessageLocation.NO_LOCATION)
+            return INTERNAL_ERROR
+        }
+
+        if (arguments.indyLambdas && configuration.get(JVMConfigurationKeys.JVM_TARGET, JvmTarget.DEFAULT) != JvmTarget.JVM_1_8) {
+            messageSeverityCollector.report(CompilerMessageSeverity.ERROR,
+                                            "Lambdas with invokedynamic are only supported for the 1.8 target, please specify '-jvm-target 1.8'",
+                                            CompilerMessageLocation.NO_LOCATION)
+            return INTERNAL_ERROR
+        }
+
         putAdvancedOptions(configuration, arguments)
 
         messageSeverityCollector.report(CompilerMessageSeverity.LOGGING, "Configuring the compilation environment", CompilerMessageLocation.NO_LOCATION)
@@ -280,6 +307,9 @@ open class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             configuration.put(JVMConfigurationKeys.DISABLE_INLINE, arguments.noInline)
             configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize)
             configuration.put(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, arguments.multifileFacadesOpen);
+            configuration.put(JVMConfigurationKeys.USE_MAPPED_SOURCES, arguments.mappedSources);
+            configuration.put(JVMConfigurationKeys.JVM_DEFAULT_METHODS, arguments.jvmDefaultMethods);
+            configuration.put(JVMConfigurationKeys.INDY_LAMBDAS, arguments.indyLambdas);
             configuration.put(CLIConfigurationKeys.ALLOW_KOTLIN_PACKAGE, arguments.allowKotlinPackage);
             configuration.put(CLIConfigurationKeys.REPORT_PERF, arguments.reportPerf);
         }
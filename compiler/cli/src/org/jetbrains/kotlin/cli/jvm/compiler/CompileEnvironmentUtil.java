@@ -150,6 +150,9 @@ public class CompileEnvironmentUtil {
     ) throws IOException {
         final VirtualFileSystem localFileSystem = VirtualFileManager.getInstance().getFileSystem(StandardFileSystems.FILE_PROTOCOL);
 
+        final MappedSourceFileManager mappedSourceFileManager =
+                configuration.get(JVMConfigurationKeys.USE_MAPPED_SOURCES, false) ? MappedSourceFileManager.getInstance(project) : null;
+
         final Set<VirtualFile> processedFiles = Sets.newHashSet();
         final List<KtFile> result = Lists.newArrayList();
 
@@ -185,7 +188,9 @@ public class CompileEnvironmentUtil {
                         VirtualFile virtualFile = localFileSystem.findFileByPath(file.getAbsolutePath());
                         if (virtualFile != null && !processedFiles.contains(virtualFile)) {
                             processedFiles.add(virtualFile);
-                            PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
+                            PsiFile psiFile = mappedSourceFileManager != null
+                                              ? mappedSourceFileManager.findFile(virtualFile)
+                                              : PsiManager.getInstance(project).findFile(virtualFile);
                             if (psiFile instanceof KtFile) {
                                 result.add((KtFile) psiFile);
                             }
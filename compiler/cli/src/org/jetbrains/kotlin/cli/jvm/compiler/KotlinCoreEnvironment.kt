@@ -91,9 +91,14 @@ import org.jetbrains.kotlin.resolve.jvm.extensions.PackageFragmentProviderExtens
 import org.jetbrains.kotlin.resolve.lazy.declarations.CliDeclarationProviderFactoryService
 import org.jetbrains.kotlin.resolve.lazy.declarations.DeclarationProviderFactoryService
 import org.jetbrains.kotlin.script.KotlinScriptDefinitionProvider
+import org.jetbrains.kotlin.util.PerformanceCounter
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
 import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
 
 class KotlinCoreEnvironment private constructor(
         parentDisposable: Disposable, 
@@ -122,6 +127,7 @@ class KotlinCoreEnvironment private constructor(
         val project = projectEnvironment.project
         project.registerService(DeclarationProviderFactoryService::class.java, CliDeclarationProviderFactoryService(sourceFiles))
         project.registerService(ModuleVisibilityManager::class.java, CliModuleVisibilityManagerImpl())
+        project.registerService(MappedSourceFileManager::class.java, MappedSourceFileManager(project))
 
         registerProjectServicesForCLI(projectEnvironment)
         registerProjectServices(projectEnvironment)
@@ -142,6 +148,8 @@ class KotlinCoreEnvironment private constructor(
         })
 
         KotlinScriptDefinitionProvider.getInstance(project).setScriptDefinitions(configuration.getList(CommonConfigurationKeys.SCRIPT_DEFINITIONS_KEY))
+        // the parser asks the script definitions whether a file is a script, so they should be set before
+        parseSourceFiles()
 
         project.registerService(JvmVirtualFileFinderFactory::class.java, JvmCliVirtualFileFinderFactory(index))
 
@@ -174,6 +182,35 @@ class KotlinCoreEnvironment private constructor(
                 StringUtil.getLineBreakCount(it.text) + (if (StringUtil.endsWithLineBreak(text)) 0 else 1)
             }
 
+    // Files are independent from each other, so their trees are built concurrently before the (sequential) analysis starts
+    private fun parseSourceFiles() = parseCounter.time {
+        val threadCount = Math.min(sourceFiles.size, Runtime.getRuntime().availableProcessors())
+        if (threadCount > 1) {
+            val executor = Executors.newFixedThreadPool(threadCount, ThreadFactory { runnable ->
+                val thread = Thread(runnable, "Kotlin source parser")
+                thread.isDaemon = true
+                thread
+            })
+            try {
+                val futures = sourceFiles.map { file -> executor.submit(Callable { file.node.firstChildNode }) }
+                for (future in futures) {
+                    try {
+                        future.get()
+                    }
+                    catch (e: ExecutionException) {
+                        throw e.cause ?: e
+                    }
+                }
+            }
+            finally {
+                executor.shutdownNow()
+            }
+        }
+        else {
+            sourceFiles.forEach { it.node.firstChildNode }
+        }
+    }
+
     private fun fillClasspath(configuration: CompilerConfiguration) {
         for (root in configuration.getList(CommonConfigurationKeys.CONTENT_ROOTS)) {
             val javaRoot = root as? JvmContentRoot ?: continue
@@ -254,6 +291,7 @@ class KotlinCoreEnvironment private constructor(
     }
 
     companion object {
+        private val parseCounter = PerformanceCounter.create("Parse source files")
 
         private val APPLICATION_LOCK = Object()
         private var ourApplicationEnvironment: JavaCoreApplicationEnvironment? = null
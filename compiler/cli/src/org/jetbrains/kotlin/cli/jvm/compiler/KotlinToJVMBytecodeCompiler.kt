@@ -111,6 +111,7 @@ object KotlinToJVMBytecodeCompiler {
         result.throwIfError()
 
         val generationStates = ArrayList<GenerationState>();
+        val generatedFiles = ArrayList<KtFile>()
 
         for (module in chunk) {
             ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
@@ -122,6 +123,7 @@ object KotlinToJVMBytecodeCompiler {
                                            module.getModuleName())
             outputFiles.put(module, generationState.factory)
             generationStates.add(generationState);
+            generatedFiles.addAll(ktFiles)
         }
 
         try {
@@ -129,6 +131,7 @@ object KotlinToJVMBytecodeCompiler {
                 ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
                 writeOutput(configuration, outputFiles[module]!!, File(module.getOutputDirectory()), jarPath, jarRuntime, null)
             }
+            MappedSourceFileManager.getInstance(environment.project).releaseText(generatedFiles)
             return true
         }
         finally {
@@ -197,6 +200,7 @@ object KotlinToJVMBytecodeCompiler {
 
         try {
             writeOutput(environment.configuration, generationState.factory, outputDir, jar, includeRuntime, mainClass)
+            MappedSourceFileManager.getInstance(environment.project).releaseText(environment.getSourceFiles())
             return true
         }
         finally {
@@ -368,7 +372,10 @@ object KotlinToJVMBytecodeCompiler {
                 moduleName,
                 outputDirectory,
                 incrementalCompilationComponents,
-                configuration.get(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, false))
+                configuration.get(JVMConfigurationKeys.MULTIFILE_FACADES_OPEN, false),
+                jvmTarget = configuration.get(JVMConfigurationKeys.JVM_TARGET, JvmTarget.DEFAULT),
+                generateDefaultMethods = configuration.get(JVMConfigurationKeys.JVM_DEFAULT_METHODS, false),
+                generateIndyLambdas = configuration.get(JVMConfigurationKeys.INDY_LAMBDAS, false))
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
 
         val generationStart = PerformanceCounter.currentTime()
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.cli.jvm.compiler
+
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.CharsetToolkit
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.PsiManager
+import com.intellij.psi.impl.PsiFileFactoryImpl
+import com.intellij.testFramework.LightVirtualFile
+import org.jetbrains.kotlin.idea.KotlinLanguage
+import org.jetbrains.kotlin.psi.KtFile
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Creates PSI for source files whose text is a view over a memory-mapped file instead of a heap copy.
+ * Only pure ASCII files without '\r' are mapped: for them offsets in the file and in the text coincide,
+ * all other files are loaded the usual way through [PsiManager].
+ */
+class MappedSourceFileManager(private val project: Project) {
+    private val files = ConcurrentHashMap<String, KtFile>()
+    private val texts = ConcurrentHashMap<String, MappedSourceText>()
+
+    fun findFile(virtualFile: VirtualFile): PsiFile? {
+        val path = virtualFile.path
+        files[path]?.let { return it }
+
+        val text = MappedSourceText.map(File(path)) ?: return PsiManager.getInstance(project).findFile(virtualFile)
+
+        val lightVirtualFile = object : LightVirtualFile(virtualFile.name, KotlinLanguage.INSTANCE, text) {
+            override fun getPath(): String = path
+        }
+        lightVirtualFile.charset = CharsetToolkit.UTF8_CHARSET
+
+        val factory = PsiFileFactory.getInstance(project) as PsiFileFactoryImpl
+        val ktFile = factory.trySetupPsiForFile(lightVirtualFile, KotlinLanguage.INSTANCE, true, false) as? KtFile ?: return null
+
+        val existing = files.putIfAbsent(path, ktFile)
+        if (existing != null) return existing
+
+        texts[path] = text
+        return ktFile
+    }
+
+    /**
+     * Drops the mapped buffers of [ktFiles]. Must be called only when nothing is going to read the text of these files anymore,
+     * i.e. after they were analyzed and their output was generated.
+     */
+    fun releaseText(ktFiles: Collection<KtFile>) {
+        for (ktFile in ktFiles) {
+            texts.remove(ktFile.virtualFile.path)?.release()
+        }
+    }
+
+    companion object {
+        @JvmStatic fun getInstance(project: Project): MappedSourceFileManager =
+                ServiceManager.getService(project, MappedSourceFileManager::class.java)
+    }
+}
+
+class MappedSourceText private constructor(
+        private val content: MappedContent,
+        private val start: Int,
+        private val end: Int
+) : CharSequence {
+    override val length: Int
+        get() = end - start
+
+    override fun get(index: Int): Char {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, length: $length")
+        return content.buffer.get(start + index).toChar()
+    }
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+        if (startIndex < 0 || endIndex > length || startIndex > endIndex) {
+            throw IndexOutOfBoundsException("Range: [$startIndex, $endIndex), length: $length")
+        }
+        return MappedSourceText(content, start + startIndex, start + endIndex)
+    }
+
+    override fun toString(): String = StringBuilder(length).append(this).toString()
+
+    fun release() {
+        content.release()
+    }
+
+    private class MappedContent(private val path: String, buffer: ByteBuffer) {
+        @Volatile private var mappedBuffer: ByteBuffer? = buffer
+
+        val buffer: ByteBuffer
+            get() = mappedBuffer ?: throw IllegalStateException("Source text of $path has already been released")
+
+        fun release() {
+            mappedBuffer = null
+        }
+    }
+
+    companion object {
+        private val UTF8_BOM = byteArrayOf(0xEF.toByte(), 0xBB.toByte(), 0xBF.toByte())
+
+        /**
+         * Returns null if the file can't be represented as a plain byte-per-char view: it contains non-ASCII characters
+         * (which need decoding) or '\r' (which is normalized when the text is loaded into the heap).
+         */
+        fun map(file: File): MappedSourceText? {
+            val buffer = RandomAccessFile(file, "r").use { randomAccessFile ->
+                val channel = randomAccessFile.channel
+                if (channel.size() > Int.MAX_VALUE) return null
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            }
+
+            val size = buffer.limit()
+            val start = if (size >= UTF8_BOM.size && UTF8_BOM.indices.all { buffer.get(it) == UTF8_BOM[it] }) UTF8_BOM.size else 0
+
+            for (i in start..size - 1) {
+                val byte = buffer.get(i).toInt()
+                if (byte < 0 || byte == '\r'.toInt()) return null
+            }
+
+            return MappedSourceText(MappedContent(file.path, buffer), start, size)
+        }
+    }
+}
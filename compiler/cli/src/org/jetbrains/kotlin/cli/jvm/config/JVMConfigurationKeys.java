@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.cli.jvm.config;
 
 import org.jetbrains.kotlin.cli.jvm.compiler.CompilerJarLocator;
+import org.jetbrains.kotlin.codegen.JvmTarget;
 import org.jetbrains.kotlin.config.CompilerConfigurationKey;
 import org.jetbrains.kotlin.load.kotlin.incremental.components.IncrementalCompilationComponents;
 import org.jetbrains.kotlin.modules.Module;
@@ -37,6 +38,14 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("disable optimization");
     public static final CompilerConfigurationKey<Boolean> MULTIFILE_FACADES_OPEN =
             CompilerConfigurationKey.create("compile multifile facade classes as open");
+    public static final CompilerConfigurationKey<Boolean> USE_MAPPED_SOURCES =
+            CompilerConfigurationKey.create("read source files through memory-mapped buffers");
+    public static final CompilerConfigurationKey<JvmTarget> JVM_TARGET =
+            CompilerConfigurationKey.create("target version of the generated bytecode");
+    public static final CompilerConfigurationKey<Boolean> JVM_DEFAULT_METHODS =
+            CompilerConfigurationKey.create("compile interface members with bodies to default methods");
+    public static final CompilerConfigurationKey<Boolean> INDY_LAMBDAS =
+            CompilerConfigurationKey.create("generate non-capturing lambdas with invokedynamic");
 
     public static final CompilerConfigurationKey<IncrementalCompilationComponents> INCREMENTAL_COMPILATION_COMPONENTS =
             CompilerConfigurationKey.create("incremental cache provider");
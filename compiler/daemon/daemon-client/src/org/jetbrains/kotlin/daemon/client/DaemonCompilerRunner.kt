@@ -0,0 +1,225 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon.client
+
+import org.jetbrains.kotlin.cli.common.ExitCode
+import org.jetbrains.kotlin.cli.common.arguments.CommonCompilerArguments
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.compilerRunner.ArgumentUtils
+import org.jetbrains.kotlin.daemon.common.*
+import org.jetbrains.kotlin.utils.addToStdlib.check
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.OutputStream
+import java.rmi.RemoteException
+import java.rmi.server.UnicastRemoteObject
+import java.util.*
+import java.util.concurrent.LinkedBlockingQueue
+import kotlin.concurrent.thread
+
+/**
+ * Runs compilations of the build tool plugins (Gradle, Maven) on a compile daemon shared between builds,
+ * instead of running the compiler in the build tool process and paying for its class loading and JIT warm-up on every build.
+ *
+ * The daemon is started for the compiler jar the plugin itself is loaded from. The connection is kept for the lifetime
+ * of the build tool process, and is dropped if the daemon becomes unavailable.
+ */
+object DaemonCompilerRunner {
+    private var connection: CompileService? = null
+
+    /**
+     * Compiles with the given [arguments] on the daemon and reports the compiler messages to [messageCollector].
+     * Returns null if the daemon can't be used, in which case the caller is expected to compile in-process.
+     */
+    @JvmStatic
+    fun compile(
+            targetPlatform: CompileService.TargetPlatform,
+            arguments: CommonCompilerArguments,
+            messageCollector: MessageCollector
+    ): ExitCode? {
+        val daemon = getOrConnect(messageCollector) ?: return null
+        val argsArray = ArgumentUtils.convertArgumentsToStringList(arguments).toTypedArray()
+
+        // the messages are reported from a thread of the client, so the daemon doesn't wait for the build tool's console
+        val messages = QueuedMessageCollector(messageCollector)
+        val result = try {
+            try {
+                remoteCompile(daemon, targetPlatform, argsArray, messages)
+            }
+            finally {
+                // all the messages of the compilation are reported before its result
+                messages.close()
+            }
+        }
+        catch (e: RemoteException) {
+            // e.g. the daemon was shut down or has died since the previous build
+            reportFallback(messageCollector, e.toString())
+            dropConnection(daemon)
+            return null
+        }
+
+        if (!result.isGood) {
+            reportFallback(messageCollector, "daemon responded with $result")
+            dropConnection(daemon)
+            return null
+        }
+
+        val exitCode = result.get()
+        return ExitCode.values().firstOrNull { it.code == exitCode } ?: ExitCode.INTERNAL_ERROR
+    }
+
+    private fun remoteCompile(
+            daemon: CompileService,
+            targetPlatform: CompileService.TargetPlatform,
+            argsArray: Array<String>,
+            messageCollector: MessageCollector
+    ): CompileService.CallResult<Int> {
+        // messages are decoded as they arrive, in batches of the daemon's output buffer
+        val compilerOut = CompilerMessageFrameReader(messageCollector)
+        val daemonOut = LineReportingOutputStream(messageCollector)
+        val servicesFacade = CompilerCallbackServicesFacadeServer()
+        val compilerOutServer = RemoteOutputStreamServer(compilerOut)
+        val daemonOutServer = RemoteOutputStreamServer(daemonOut)
+
+        try {
+            val result = daemon.remoteCompile(CompileService.NO_SESSION, targetPlatform, argsArray, servicesFacade,
+                                              compilerOutServer, CompileService.OutputFormat.MESSAGES, daemonOutServer, null)
+            if (result.isGood) {
+                compilerOut.close()
+            }
+            return result
+        }
+        finally {
+            daemonOut.flush()
+            // forcing RMI to unregister all objects
+            UnicastRemoteObject.unexportObject(servicesFacade, true)
+            UnicastRemoteObject.unexportObject(compilerOutServer, true)
+            UnicastRemoteObject.unexportObject(daemonOutServer, true)
+        }
+    }
+
+    @Synchronized
+    private fun getOrConnect(messageCollector: MessageCollector): CompileService? {
+        connection?.let { return it }
+
+        val compilerJar = findCompilerJar()
+        if (compilerJar == null) {
+            reportFallback(messageCollector, "cannot find the compiler jar")
+            return null
+        }
+
+        val compilerId = CompilerId.makeCompilerId(compilerJar)
+        val daemonOptions = configureDaemonOptions()
+        val daemonJVMOptions = configureDaemonJVMOptions(inheritMemoryLimits = true, inheritAdditionalProperties = true)
+        val daemonReportMessages = ArrayList<DaemonReportMessage>()
+
+        val daemon = KotlinCompilerClient.connectToCompileService(compilerId, daemonJVMOptions, daemonOptions,
+                                                                  DaemonReportingTargets(null, daemonReportMessages),
+                                                                  autostart = true, checkId = true)
+
+        for (msg in daemonReportMessages) {
+            if (msg.category == DaemonReportCategory.EXCEPTION && daemon == null) {
+                reportFallback(messageCollector, msg.message)
+            }
+            else {
+                messageCollector.report(CompilerMessageSeverity.LOGGING, msg.message, CompilerMessageLocation.NO_LOCATION)
+            }
+        }
+        if (daemon != null) {
+            messageCollector.report(CompilerMessageSeverity.INFO, "Connected to the compile daemon", CompilerMessageLocation.NO_LOCATION)
+        }
+
+        connection = daemon
+        return daemon
+    }
+
+    @Synchronized
+    private fun dropConnection(daemon: CompileService) {
+        if (connection === daemon) {
+            connection = null
+        }
+    }
+
+    private fun findCompilerJar(): File? =
+            CompileService::class.java.protectionDomain?.codeSource?.location
+                    ?.let { File(it.toURI()) }
+                    ?.check { it.isFile }
+
+    private fun reportFallback(messageCollector: MessageCollector, reason: String) {
+        messageCollector.report(CompilerMessageSeverity.INFO,
+                                "Falling back to compilation without daemon due to error: $reason",
+                                CompilerMessageLocation.NO_LOCATION)
+    }
+
+    /**
+     * Passes the messages to [delegate] from its own thread, so the remote calls writing the compiler output return
+     * as soon as the messages are decoded. [close] waits until all the queued messages are reported.
+     */
+    private class QueuedMessageCollector(private val delegate: MessageCollector) : MessageCollector {
+        private class Message(val severity: CompilerMessageSeverity, val message: String, val location: CompilerMessageLocation)
+
+        private val queue = LinkedBlockingQueue<Message>()
+        private val end = Message(CompilerMessageSeverity.LOGGING, "", CompilerMessageLocation.NO_LOCATION)
+        private var closed = false
+
+        private val reporter = thread(isDaemon = true, name = "Kotlin compile daemon messages") {
+            while (true) {
+                val message = queue.take()
+                if (message === end) break
+                delegate.report(message.severity, message.message, message.location)
+            }
+        }
+
+        override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+            queue.put(Message(severity, message, location))
+        }
+
+        @Synchronized
+        fun close() {
+            if (closed) return
+            closed = true
+            queue.put(end)
+            reporter.join()
+        }
+    }
+
+    // daemon messages (e.g. performance reports) are passed to the build log as soon as each line is complete
+    private class LineReportingOutputStream(private val messageCollector: MessageCollector) : OutputStream() {
+        private val line = ByteArrayOutputStream()
+
+        @Synchronized
+        override fun write(b: Int) {
+            if (b == '\n'.toInt()) {
+                flush()
+            }
+            else {
+                line.write(b)
+            }
+        }
+
+        @Synchronized
+        override fun flush() {
+            val text = line.toString().trimEnd('\r')
+            line.reset()
+            if (text.isNotEmpty()) {
+                messageCollector.report(CompilerMessageSeverity.INFO, text, CompilerMessageLocation.NO_LOCATION)
+            }
+        }
+    }
+}
@@ -24,7 +24,9 @@ interface CompileService : Remote {
 
     enum class OutputFormat : Serializable {
         PLAIN,
-        XML
+        XML,
+        // binary frames of structured messages, see CompilerMessageFrameWriter
+        MESSAGES
     }
 
     enum class TargetPlatform : Serializable {
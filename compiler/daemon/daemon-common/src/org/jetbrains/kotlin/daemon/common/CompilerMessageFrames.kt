@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon.common
+
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import java.io.*
+
+// frame: length (int), severity (byte), message, path, line (int), column (int), line content
+// strings are written as a length (int, -1 for null) followed by the UTF-8 bytes, so long messages are not limited as with writeUTF
+val COMPILER_MESSAGE_FRAME_HEADER_SIZE: Int = 4
+
+/**
+ * Encodes the reported compiler messages into binary frames written to [out], for the [CompileService.OutputFormat.MESSAGES] output format.
+ * Frames are small, so the stream is expected to be buffered: the buffer is what batches the messages into a few remote calls.
+ */
+class CompilerMessageFrameWriter(private val out: OutputStream) : MessageCollector {
+    private val frame = ByteArrayOutputStream()
+    private val frameData = DataOutputStream(frame)
+
+    @Synchronized
+    override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+        frame.reset()
+        frameData.writeByte(severity.ordinal)
+        frameData.writeNullableString(message)
+        frameData.writeNullableString(location.path)
+        frameData.writeInt(location.line)
+        frameData.writeInt(location.column)
+        frameData.writeNullableString(location.lineContent)
+        frameData.flush()
+
+        DataOutputStream(out).writeInt(frame.size())
+        frame.writeTo(out)
+    }
+
+    private fun DataOutputStream.writeNullableString(s: String?) {
+        if (s == null) {
+            writeInt(-1)
+        }
+        else {
+            val bytes = s.toByteArray(Charsets.UTF_8)
+            writeInt(bytes.size)
+            write(bytes)
+        }
+    }
+}
+
+/**
+ * Decodes the frames written by [CompilerMessageFrameWriter] and reports the messages to [messageCollector] as soon as
+ * each frame is complete. Frames may be split between writes arbitrarily.
+ */
+class CompilerMessageFrameReader(private val messageCollector: MessageCollector) : OutputStream() {
+    private var buffer = ByteArray(8192)
+    private var size = 0
+
+    @Synchronized
+    override fun write(b: Int) {
+        ensureCapacity(size + 1)
+        buffer[size++] = b.toByte()
+        reportCompleteFrames()
+    }
+
+    @Synchronized
+    override fun write(data: ByteArray, offset: Int, length: Int) {
+        ensureCapacity(size + length)
+        System.arraycopy(data, offset, buffer, size, length)
+        size += length
+        reportCompleteFrames()
+    }
+
+    @Synchronized
+    override fun close() {
+        if (size != 0) {
+            messageCollector.report(CompilerMessageSeverity.EXCEPTION, "Compiler output ended in the middle of a message ($size bytes left)",
+                                    CompilerMessageLocation.NO_LOCATION)
+            size = 0
+        }
+    }
+
+    private fun reportCompleteFrames() {
+        var position = 0
+        while (size - position >= COMPILER_MESSAGE_FRAME_HEADER_SIZE) {
+            val frameSize = DataInputStream(ByteArrayInputStream(buffer, position, COMPILER_MESSAGE_FRAME_HEADER_SIZE)).readInt()
+            if (size - position - COMPILER_MESSAGE_FRAME_HEADER_SIZE < frameSize) break
+
+            reportFrame(DataInputStream(ByteArrayInputStream(buffer, position + COMPILER_MESSAGE_FRAME_HEADER_SIZE, frameSize)))
+            position += COMPILER_MESSAGE_FRAME_HEADER_SIZE + frameSize
+        }
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, size - position)
+            size -= position
+        }
+    }
+
+    private fun reportFrame(input: DataInputStream) {
+        val severity = CompilerMessageSeverity.values()[input.readByte().toInt()]
+        val message = input.readNullableString() ?: ""
+        val path = input.readNullableString()
+        val line = input.readInt()
+        val column = input.readInt()
+        val lineContent = input.readNullableString()
+        messageCollector.report(severity, message, CompilerMessageLocation.create(path, line, column, lineContent))
+    }
+
+    private fun DataInputStream.readNullableString(): String? {
+        val length = readInt()
+        if (length < 0) return null
+        val bytes = ByteArray(length)
+        readFully(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (capacity > buffer.size) {
+            buffer = buffer.copyOf(Math.max(capacity, buffer.size * 2))
+        }
+    }
+}
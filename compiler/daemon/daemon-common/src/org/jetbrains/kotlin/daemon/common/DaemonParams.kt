@@ -38,6 +38,7 @@ val COMPILE_DAEMON_CLIENT_ALIVE_PATH_PROPERTY: String = "kotlin.daemon.client.al
 val COMPILE_DAEMON_LOG_PATH_PROPERTY: String = "kotlin.daemon.log.path"
 val COMPILE_DAEMON_REPORT_PERF_PROPERTY: String = "kotlin.daemon.perf"
 val COMPILE_DAEMON_VERBOSE_REPORT_PROPERTY: String = "kotlin.daemon.verbose"
+val COMPILE_DAEMON_WARMUP_PROPERTY: String = "kotlin.daemon.warmup"
 val COMPILE_DAEMON_CMDLINE_OPTIONS_PREFIX: String = "--daemon-"
 val COMPILE_DAEMON_STARTUP_TIMEOUT_PROPERTY: String = "kotlin.daemon.startup.timeout"
 val COMPILE_DAEMON_DEFAULT_FILES_PREFIX: String = "kotlin-daemon"
@@ -207,7 +208,8 @@ data class DaemonOptions(
         var shutdownDelayMilliseconds: Long = COMPILE_DAEMON_DEFAULT_SHUTDOWN_DELAY_MS,
         var forceShutdownTimeoutMilliseconds: Long = COMPILE_DAEMON_FORCE_SHUTDOWN_DEFAULT_TIMEOUT_MS,
         var verbose: Boolean = false,
-        var reportPerf: Boolean = false
+        var reportPerf: Boolean = false,
+        var warmup: Boolean = false
 ) : OptionsGroup {
 
     override val mappers: List<PropMapper<*, *, *>>
@@ -219,7 +221,8 @@ data class DaemonOptions(
                        PropMapper(this, DaemonOptions::shutdownDelayMilliseconds, fromString = { it.toLong() }, skipIf = { it == COMPILE_DAEMON_DEFAULT_SHUTDOWN_DELAY_MS }, mergeDelimiter = "="),
                        PropMapper(this, DaemonOptions::forceShutdownTimeoutMilliseconds, fromString = { it.toLong() }, skipIf = { it == COMPILE_DAEMON_FORCE_SHUTDOWN_DEFAULT_TIMEOUT_MS }, mergeDelimiter = "="),
                        BoolPropMapper(this, DaemonOptions::verbose),
-                       BoolPropMapper(this, DaemonOptions::reportPerf))
+                       BoolPropMapper(this, DaemonOptions::reportPerf),
+                       BoolPropMapper(this, DaemonOptions::warmup))
 }
 
 // TODO: consider implementing generic approach to it or may be replace getters with ones returning default if necessary
@@ -303,6 +306,7 @@ fun configureDaemonOptions(opts: DaemonOptions): DaemonOptions {
     }
     System.getProperty(COMPILE_DAEMON_VERBOSE_REPORT_PROPERTY)?.let { opts.verbose = true }
     System.getProperty(COMPILE_DAEMON_REPORT_PERF_PROPERTY)?.let { opts.reportPerf = true }
+    System.getProperty(COMPILE_DAEMON_WARMUP_PROPERTY)?.let { opts.warmup = true }
     return opts
 }
 
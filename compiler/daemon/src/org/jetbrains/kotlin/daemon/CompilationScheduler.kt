@@ -0,0 +1,166 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import com.sampullara.cli.Argument
+import org.jetbrains.kotlin.cli.common.arguments.K2JSCompilerArguments
+import org.jetbrains.kotlin.cli.common.arguments.K2JVMCompilerArguments
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryType
+import java.util.*
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import java.util.logging.Logger
+import kotlin.concurrent.withLock
+
+val COMPILE_DAEMON_HEAP_ADMISSION_RATIO: Double = 0.8
+val COMPILE_DAEMON_ADMISSION_RECHECK_INTERVAL_MS: Long = 500L
+
+private val COMPILATION_BASE_HEAP_COST: Long = 64L * 1024 * 1024
+private val COMPILATION_HEAP_COST_PER_SOURCE: Long = 512L * 1024
+private val COMPILATION_HEAP_COST_PER_CLASSPATH_ENTRY: Long = 2L * 1024 * 1024
+private val COMPILATION_SOURCES_PER_DIRECTORY_GUESS: Int = 50
+
+/**
+ * Admits compilations one by one in the order of arrival, as long as the live heap plus the estimated cost of
+ * all running compilations and of the next one fits into [heapLimit]. A single compilation is always admitted
+ * when nothing else is running, so that a request bigger than the limit is not starved.
+ * Low priority compilations (e.g. the warm-up) wait behind all other queued ones.
+ */
+class CompilationScheduler(private val heapLimit: Long, private val log: Logger) {
+
+    class Admission(val waitNanos: Long, val queuedAhead: Int, val estimatedCost: Long)
+
+    private val lock = ReentrantLock()
+    private val stateChanged = lock.newCondition()
+    private class Ticket(val lowPriority: Boolean)
+
+    private val queue = LinkedList<Ticket>()
+    private var running = 0
+    private var reservedMemory = 0L
+
+    val queueDepth: Int get() = lock.withLock { queue.size }
+
+    fun <R> schedule(estimatedCost: Long, lowPriority: Boolean = false, body: (Admission) -> R): R {
+        val ticket = Ticket(lowPriority)
+        val startTime = System.nanoTime()
+        val queuedAhead = lock.withLock {
+            val firstLowPriority = queue.indexOfFirst { it.lowPriority }
+            val ahead = if (lowPriority || firstLowPriority < 0) queue.size else firstLowPriority
+            queue.add(ahead, ticket)
+            try {
+                while (queue.peekFirst() !== ticket || !canAdmit(estimatedCost)) {
+                    if (queue.peekFirst() === ticket) {
+                        log.fine("Compilation is waiting for memory: ${reservedMemory / 1024} kb reserved by $running running compilation(s)")
+                    }
+                    // memory may become available without any compilation finishing (e.g. after GC), so re-check periodically
+                    stateChanged.await(COMPILE_DAEMON_ADMISSION_RECHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)
+                }
+            }
+            finally {
+                queue.remove(ticket)
+                stateChanged.signalAll()
+            }
+            running++
+            reservedMemory += estimatedCost
+            ahead
+        }
+        try {
+            return body(Admission(System.nanoTime() - startTime, queuedAhead, estimatedCost))
+        }
+        finally {
+            lock.withLock {
+                running--
+                reservedMemory -= estimatedCost
+                stateChanged.signalAll()
+            }
+        }
+    }
+
+    // memory already allocated by the running compilations is counted twice here (in the live heap and in the reservation),
+    // which is deliberate: running out of heap costs a daemon restart, while waiting a bit longer costs only throughput
+    private fun canAdmit(estimatedCost: Long): Boolean =
+            running == 0 || liveHeapAfterLastGC() + reservedMemory + estimatedCost <= heapLimit
+
+    companion object {
+        /**
+         * The heap occupied after the last collection of each pool. Unlike the current usage it doesn't count the garbage,
+         * so the reclaimable memory isn't taken for exhausted; a pool which doesn't support it contributes its current usage
+         */
+        fun liveHeapAfterLastGC(): Long =
+                ManagementFactory.getMemoryPoolMXBeans()
+                        .filter { it.type == MemoryType.HEAP && it.isValid }
+                        .fold(0L) { total, pool -> total + (pool.collectionUsage ?: pool.usage).used }
+
+        fun forCurrentRuntime(log: Logger): CompilationScheduler =
+                CompilationScheduler((Runtime.getRuntime().maxMemory() * COMPILE_DAEMON_HEAP_ADMISSION_RATIO).toLong(), log)
+    }
+}
+
+// the options of the compilers followed by a separate value argument, i.e. all options except the boolean flags
+private val OPTIONS_WITH_VALUE: Set<String> by lazy {
+    listOf(K2JVMCompilerArguments::class.java, K2JSCompilerArguments::class.java).flatMap { argumentsClass ->
+        generateSequence<Class<*>>(argumentsClass) { it.superclass }
+                .flatMap { it.declaredFields.asSequence() }
+                .filter { it.type != java.lang.Boolean.TYPE }
+                .mapNotNull { it.getAnnotation(Argument::class.java) }
+                .flatMap { argument -> sequenceOf(argument.value, argument.alias).filter { it.isNotEmpty() }.map { argument.prefix + it } }
+                .toList()
+    }.toSet()
+}
+
+/**
+ * A rough guess of the heap a compilation with the given command line is going to need,
+ * based on the number of source files and classpath entries.
+ */
+fun estimateCompilationHeapCost(args: Array<out String>): Long {
+    var sources = 0
+    var classpathEntries = 0
+    var i = 0
+    while (i < args.size) {
+        val arg = args[i]
+        when {
+            (arg == "-classpath" || arg == "-cp") && i + 1 < args.size -> {
+                classpathEntries += args[++i].split(File.pathSeparatorChar).count { it.isNotEmpty() }
+            }
+            arg == "-module" && i + 1 < args.size -> {
+                sources += countModuleSources(File(args[++i]))
+            }
+            arg in OPTIONS_WITH_VALUE -> {
+                // e.g. the output directory after -d, which is not a source root
+                i++
+            }
+            !arg.startsWith("-") -> {
+                val file = File(arg)
+                sources += if (file.isDirectory) COMPILATION_SOURCES_PER_DIRECTORY_GUESS else 1
+            }
+        }
+        i++
+    }
+    return COMPILATION_BASE_HEAP_COST +
+           sources * COMPILATION_HEAP_COST_PER_SOURCE +
+           classpathEntries * COMPILATION_HEAP_COST_PER_CLASSPATH_ENTRY
+}
+
+private fun countModuleSources(moduleFile: File): Int =
+        try {
+            moduleFile.useLines { lines -> lines.count { it.contains("<sources ") } }
+        }
+        catch (e: Exception) {
+            COMPILATION_SOURCES_PER_DIRECTORY_GUESS
+        }
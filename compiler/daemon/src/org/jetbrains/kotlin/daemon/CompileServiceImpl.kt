@@ -46,6 +46,9 @@ import kotlin.concurrent.write
 
 fun nowSeconds() = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime())
 
+// every flush of the compiler messages buffer is a remote call to the client, so builds with many warnings need a large one
+val COMPILER_MESSAGES_BUFFER_SIZE: Int = 64 * 1024
+
 interface CompilerSelector {
     operator fun get(targetPlatform: CompileService.TargetPlatform): CLICompiler<*>
 }
@@ -117,6 +120,10 @@ class CompileServiceImpl(
 
     private val rwlock = ReentrantReadWriteLock()
 
+    private val scheduler by lazy { CompilationScheduler.forCurrentRuntime(log) }
+
+    private val warmup = DaemonWarmup(compiler, scheduler, Logger.getLogger("warmup"))
+
     private var runFile: File
 
     init {
@@ -228,6 +235,7 @@ class CompileServiceImpl(
                 when (outputFormat) {
                     CompileService.OutputFormat.PLAIN -> compiler[targetPlatform].exec(printStream, *args)
                     CompileService.OutputFormat.XML -> compiler[targetPlatform].execAndOutputXml(printStream, createCompileServices(servicesFacade, eventManager, profiler), *args)
+                    CompileService.OutputFormat.MESSAGES -> compiler[targetPlatform].execAndReportMessages(CompilerMessageFrameWriter(printStream), createCompileServices(servicesFacade, eventManager, profiler), *args)
                 }
             }
 
@@ -242,8 +250,9 @@ class CompileServiceImpl(
     ): CompileService.CallResult<Int> =
             doCompile(sessionId, args, compilerOutputStream, serviceOutputStream, operationsTracer) { printStream, eventManager, profiler ->
                 when (compilerOutputFormat) {
-                    CompileService.OutputFormat.PLAIN -> throw NotImplementedError("Only XML output is supported in remote incremental compilation")
+                    CompileService.OutputFormat.PLAIN -> throw NotImplementedError("Only XML and MESSAGES output is supported in remote incremental compilation")
                     CompileService.OutputFormat.XML -> compiler[targetPlatform].execAndOutputXml(printStream, createCompileServices(servicesFacade, eventManager, profiler), *args)
+                    CompileService.OutputFormat.MESSAGES -> compiler[targetPlatform].execAndReportMessages(CompilerMessageFrameWriter(printStream), createCompileServices(servicesFacade, eventManager, profiler), *args)
                 }
             }
 
@@ -275,6 +284,10 @@ class CompileServiceImpl(
         val stub = UnicastRemoteObject.exportObject(this, port, LoopbackNetworkInterface.clientLoopbackSocketFactory, LoopbackNetworkInterface.serverLoopbackSocketFactory) as CompileService
         registry.rebind (COMPILER_SERVICE_RMI_NAME, stub);
 
+        if (daemonOptions.warmup) {
+            warmup.start()
+        }
+
         timer.schedule(0) {
             initiateElections()
         }
@@ -372,6 +385,7 @@ class CompileServiceImpl(
 
     private fun shutdownImpl() {
         log.info("Shutdown started")
+        warmup.cancel()
         state.alive.set(Aliveness.Dying.ordinal)
         UnicastRemoteObject.unexportObject(this, true)
         log.info("Shutdown complete")
@@ -411,22 +425,24 @@ class CompileServiceImpl(
 
                 operationsTracer?.before("compile")
                 compilationsCounter.incrementAndGet()
-                val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else DummyProfiler()
-                val eventManger = EventMangerImpl()
-                val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), 4096))
-                val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
-                try {
-                    checkedCompile(args, serviceOutputStream, rpcProfiler) {
-                        val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
-                        _lastUsedSeconds = nowSeconds()
-                        res
+                scheduler.schedule(estimateCompilationHeapCost(args)) { admission ->
+                    val rpcProfiler = if (daemonOptions.reportPerf) WallAndThreadTotalProfiler() else DummyProfiler()
+                    val eventManger = EventMangerImpl()
+                    val compilerMessagesStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(compilerMessagesStreamProxy, rpcProfiler), COMPILER_MESSAGES_BUFFER_SIZE))
+                    val serviceOutputStream = PrintStream(BufferedOutputStream(RemoteOutputStreamClient(serviceOutputStreamProxy, rpcProfiler), 4096))
+                    try {
+                        checkedCompile(args, serviceOutputStream, rpcProfiler, admission) {
+                            val res = body(compilerMessagesStream, eventManger, rpcProfiler).code
+                            _lastUsedSeconds = nowSeconds()
+                            res
+                        }
+                    }
+                    finally {
+                        serviceOutputStream.flush()
+                        compilerMessagesStream.flush()
+                        eventManger.fireCompilationFinished()
+                        operationsTracer?.after("compile")
                     }
-                }
-                finally {
-                    serviceOutputStream.flush()
-                    compilerMessagesStream.flush()
-                    eventManger.fireCompilationFinished()
-                    operationsTracer?.after("compile")
                 }
             }
 
@@ -442,7 +458,7 @@ class CompileServiceImpl(
     }
 
 
-    private fun<R> checkedCompile(args: Array<out String>, serviceOut: PrintStream, rpcProfiler: Profiler, body: () -> R): R {
+    private fun<R> checkedCompile(args: Array<out String>, serviceOut: PrintStream, rpcProfiler: Profiler, admission: CompilationScheduler.Admission, body: () -> R): R {
         try {
             if (args.none())
                 throw IllegalArgumentException("Error: empty arguments list.")
@@ -467,6 +483,11 @@ class CompileServiceImpl(
                     log.info(it)
                 }
 
+                "PERF: Compile queue: waited ${admission.waitNanos.ms()} ms behind ${admission.queuedAhead} request(s), ${scheduler.queueDepth} request(s) waiting now; estimated heap cost: ${admission.estimatedCost.kb()} kb".let {
+                    serviceOut.println(it)
+                    log.info(it)
+                }
+
                 // this will only be reported if if appropriate (e.g. ByClass) profiler is used
                 for ((obj, counters) in rpcProfiler.getCounters()) {
                     "PERF: rpc by $obj: ${counters.count} calls, ${counters.time.ms()} ms, thread ${counters.threadTime.ms()} ms".let {
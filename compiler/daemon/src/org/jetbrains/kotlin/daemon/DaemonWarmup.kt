@@ -0,0 +1,182 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import org.jetbrains.kotlin.cli.common.ExitCode
+import org.jetbrains.kotlin.daemon.common.CompileService
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.PrintStream
+import java.util.concurrent.TimeUnit
+import java.util.logging.Level
+import java.util.logging.Logger
+import kotlin.concurrent.thread
+
+val COMPILE_DAEMON_WARMUP_ROUNDS: Int = 3
+
+/**
+ * Compiles a small representative workload in a low priority background thread, so that the compiler code gets JIT-compiled
+ * and its classes get loaded before the first real compilation arrives.
+ *
+ * The warm-up compilations go through the [scheduler] with low priority, so their heap is accounted for when a request arrives,
+ * and a waiting request is admitted before the next warm-up compilation. The warm-up holds no other daemon locks.
+ * Cancellation takes effect between compilations: the compiler's cancellation status is global for the whole daemon,
+ * so it can't be used to stop the warm-up without affecting the real compilations running concurrently.
+ */
+class DaemonWarmup(private val compiler: CompilerSelector, private val scheduler: CompilationScheduler, private val log: Logger) {
+
+    @Volatile private var canceled = false
+
+    fun start() {
+        thread(isDaemon = true, name = "kotlin-daemon-warmup", priority = Thread.MIN_PRIORITY) {
+            try {
+                run()
+            }
+            catch (e: Throwable) {
+                log.log(Level.INFO, "Warm-up failed", e)
+            }
+        }
+    }
+
+    // the thread is deliberately not interrupted: an interrupt in the middle of I/O closes channels that may be shared with other compilations
+    fun cancel() {
+        canceled = true
+    }
+
+    private fun run() {
+        val workDir = createTempDir("kotlin-daemon-warmup")
+        try {
+            val jvmSource = File(workDir, "warmup.kt").apply { writeText(JVM_WORKLOAD) }
+            val jsSource = File(workDir, "warmupJs.kt").apply { writeText(JS_WORKLOAD) }
+            val jvmArgs = arrayOf(jvmSource.absolutePath, "-d", File(workDir, "jvm").absolutePath)
+            val jsArgs = arrayOf("-output", File(workDir, "js/warmup.js").absolutePath, jsSource.absolutePath)
+
+            log.info("Warm-up started")
+            val roundTimes = arrayListOf<Long>()
+            for (round in 1..COMPILE_DAEMON_WARMUP_ROUNDS) {
+                val jvmTime = compile(CompileService.TargetPlatform.JVM, jvmArgs) ?: break
+                val jsTime = compile(CompileService.TargetPlatform.JS, jsArgs) ?: break
+                log.info("Warm-up round $round: JVM ${jvmTime.ms()} ms, JS ${jsTime.ms()} ms")
+                roundTimes.add(jvmTime + jsTime)
+            }
+
+            when {
+                canceled -> log.info("Warm-up canceled after ${roundTimes.size} round(s)")
+                roundTimes.size > 1 -> log.info("Warm-up done: first round ${roundTimes.first().ms()} ms, last round ${roundTimes.last().ms()} ms " +
+                                                "(${"%.1f".format(roundTimes.first().toDouble() / Math.max(roundTimes.last(), 1L))}x faster)")
+                else -> log.info("Warm-up done")
+            }
+        }
+        finally {
+            workDir.deleteRecursively()
+        }
+    }
+
+    // returns compilation time in nanoseconds, or null if the warm-up should stop
+    private fun compile(targetPlatform: CompileService.TargetPlatform, args: Array<String>): Long? {
+        if (canceled) return null
+        val messages = ByteArrayOutputStream()
+        var time = 0L
+        val exitCode = scheduler.schedule(estimateCompilationHeapCost(args), lowPriority = true) {
+            // the daemon may have been shut down while the warm-up was waiting for admission
+            if (canceled) null
+            else {
+                val startTime = System.nanoTime()
+                val result = compiler[targetPlatform].exec(PrintStream(messages), *args)
+                time = System.nanoTime() - startTime
+                result
+            }
+        } ?: return null
+        if (exitCode != ExitCode.OK) {
+            log.info("Warm-up compilation for $targetPlatform failed with $exitCode:\n$messages")
+            return null
+        }
+        return time
+    }
+
+    private fun Long.ms() = TimeUnit.NANOSECONDS.toMillis(this)
+}
+
+// touches resolution of overloads and generics, type inference of lambdas, inlining and codegen of classes and when
+private val JVM_WORKLOAD = """
+package warmup
+
+interface Shape {
+    fun area(): Double
+}
+
+data class Rect(val width: Double, val height: Double) : Shape {
+    override fun area() = width * height
+}
+
+class Circle(val radius: Double) : Shape {
+    override fun area() = Math.PI * radius * radius
+}
+
+sealed class Expr {
+    class Num(val value: Int) : Expr()
+    class Sum(val left: Expr, val right: Expr) : Expr()
+    class Mul(val left: Expr, val right: Expr) : Expr()
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Num -> e.value
+    is Expr.Sum -> eval(e.left) + eval(e.right)
+    is Expr.Mul -> eval(e.left) * eval(e.right)
+}
+
+inline fun <T, R> T.transform(f: (T) -> R): R = f(this)
+
+fun <T : Comparable<T>> largest(items: List<T>): T? = items.fold(null as T?) { acc, item -> if (acc == null || item > acc) item else acc }
+
+fun main(args: Array<String>) {
+    val shapes = listOf(Rect(1.0, 2.0), Circle(3.0), Rect(4.0, 0.5))
+    val areas = shapes.map { it.area() }.filter { it > 1.0 }.sorted()
+    val byType = shapes.groupBy { it.javaClass.simpleName }.mapValues { it.value.size }
+    val expr = Expr.Sum(Expr.Num(args.size), Expr.Mul(Expr.Num(2), Expr.Num(3)))
+    val text = StringBuilder().apply {
+        for ((name, count) in byType) append(name).append('=').append(count).append(';')
+    }.toString()
+    val result = eval(expr).transform { "${'$'}text ${'$'}it ${'$'}{largest(areas)}" }
+    println(result.length)
+}
+"""
+
+private val JS_WORKLOAD = """
+package warmup.js
+
+open class Node(val name: String) {
+    open fun describe(): String = "node ${'$'}name"
+}
+
+class Leaf(name: String, val weight: Int) : Node(name) {
+    override fun describe() = "leaf ${'$'}name (${'$'}weight)"
+}
+
+inline fun <T> Iterable<T>.sumOf(selector: (T) -> Int): Int {
+    var sum = 0
+    for (element in this) sum += selector(element)
+    return sum
+}
+
+fun main(args: Array<String>) {
+    val nodes = listOf(Node("root"), Leaf("a", 1), Leaf("b", 2))
+    val weight = nodes.filterIsInstance<Leaf>().sumOf { it.weight }
+    val descriptions = nodes.map { it.describe() }.joinToString()
+    println("${'$'}descriptions: ${'$'}weight")
+}
+"""
@@ -18,6 +18,8 @@ package org.jetbrains.kotlin.daemon
 
 import java.io.File
 import java.io.IOException
+import java.nio.file.*
+import java.nio.file.attribute.BasicFileAttributes
 import java.security.DigestInputStream
 import java.security.MessageDigest
 import java.util.*
@@ -36,18 +38,25 @@ val DEFAULT_CLASSPATH_DIGEST_WATCH_PERIOD_MS = 300000L // 5 min
 
 
 /**
- * Class for lazy (on demand) check if any relevant file in the classpath is changed
- * poor-man watcher in the absence of NIO
- * TODO: replace with NIO watching when switching to java 7+
+ * Class for lazy (on demand) check if any relevant file in the classpath is changed.
+ * Directories containing the classpath files are watched with NIO [WatchService], so while no events arrive the check doesn't touch
+ * the file system at all; the files named in the events are hashed. If watching is not available (or [useWatchService] is false),
+ * the files are polled at most once per [checkPeriod]: the cheap metadata (size, modification time and file key, i.e. inode where supported)
+ * is compared, and only the files with changed metadata are hashed, except once per [digestCheckPeriod] when all files are hashed
+ * to catch the rewrites which keep the metadata.
  */
 class LazyClasspathWatcher(classpath: Iterable<String>,
                            val checkPeriod: Long = DEFAULT_CLASSPATH_WATCH_PERIOD_MS,
-                           val digestCheckPeriod: Long = DEFAULT_CLASSPATH_DIGEST_WATCH_PERIOD_MS) {
+                           val digestCheckPeriod: Long = DEFAULT_CLASSPATH_DIGEST_WATCH_PERIOD_MS,
+                           useWatchService: Boolean = true) {
 
-    private data class FileId(val file: File, val lastModified: Long, val digest: ByteArray)
+    private class FileId(val file: File, val size: Long, val lastModified: Long, val fileKey: Any?, val digest: ByteArray) {
+        fun sameMetadata(other: FileId) = size == other.size && lastModified == other.lastModified && fileKey == other.fileKey
+    }
 
     private val fileIdsLock = Semaphore(1) // a barrier for ensuring ids are initialized, using semaphore to allow modifications from another thread
-    private var fileIds: List<FileId>? = null
+    private var fileIds: Array<FileId>? = null
+    @Volatile private var watchService: ClasspathWatchService? = null
     private val lastChangedStatus = AtomicBoolean(false)
     private val lastUpdate = AtomicLong(0)
     private val lastDigestUpdate = AtomicLong(0)
@@ -58,15 +67,18 @@ class LazyClasspathWatcher(classpath: Iterable<String>,
         fileIdsLock.acquire()
         thread(isDaemon = true, start = true) {
             try {
-                fileIds = classpath
+                val files = classpath
                         .map { File(it) }
                         .asSequence()
                         .flatMap { it.walk().filter(::isClasspathFile) }
-                        .map { FileId(it, it.lastModified(), it.md5Digest()) }
                         .toList()
-                val nowMs = TimeUnit.MILLISECONDS.toMillis(System.nanoTime())
-                lastUpdate.set(nowMs)
-                lastDigestUpdate.set(nowMs)
+                // starting to watch before taking the snapshot, so no change could slip in between
+                if (useWatchService) {
+                    watchService = createWatchService(files.mapTo(LinkedHashSet()) { it.absoluteFile.parentFile })
+                }
+                fileIds = files.map { makeFileId(it.absoluteFile, watchService != null) }.toTypedArray()
+                lastUpdate.set(nowMillis())
+                lastDigestUpdate.set(lastUpdate.get())
             }
             catch (e: IOException) {
                 log.log(Level.WARNING, "Error on walking classpath", e)
@@ -80,41 +92,168 @@ class LazyClasspathWatcher(classpath: Iterable<String>,
 
     val isChanged: Boolean get() {
         if (lastChangedStatus.get()) return true
-        val nowMs = TimeUnit.MILLISECONDS.toMillis(System.nanoTime())
-        if (nowMs - lastUpdate.get() < checkPeriod) return false
 
-        val checkDigest = nowMs - lastDigestUpdate.get() > digestCheckPeriod
+        val watcher = watchService
+        val mustHash: (File) -> Boolean
+        if (watcher != null) {
+            val changes = watcher.takeChanges() ?: return false
+            mustHash = { changes.all || it in changes.files }
+        }
+        else {
+            val now = nowMillis()
+            if (now - lastUpdate.get() < checkPeriod) return false
+            val checkDigest = now - lastDigestUpdate.get() >= digestCheckPeriod
+            if (checkDigest) lastDigestUpdate.set(now)
+            mustHash = { checkDigest }
+        }
+
         // making sure that fieldIds are initialized
         fileIdsLock.acquire()
-        fileIdsLock.release()
-        val changed =
-            fileIds?.find {
-                try {
-                    if (!it.file.exists()) {
-                        log.info("cp changed: ${it.file} doesn't exist any more")
-                        true
+        try {
+            val ids = fileIds ?: return false
+            val changed = ids.indices.any { isFileChanged(ids, it, mustHash(ids[it].file)) }
+            if (changed) {
+                lastChangedStatus.set(true)
+            }
+            lastUpdate.set(nowMillis())
+            return changed
+        }
+        finally {
+            fileIdsLock.release()
+        }
+    }
+
+    private fun isFileChanged(ids: Array<FileId>, index: Int, forceDigest: Boolean): Boolean {
+        val id = ids[index]
+        try {
+            if (!id.file.exists()) {
+                log.info("cp changed: ${id.file} doesn't exist any more")
+                return true
+            }
+            val current = makeFileId(id.file, watchService != null, digest = null)
+            if (!forceDigest && current.sameMetadata(id)) return false
+
+            // metadata changed or the file was touched - checking the digest, and remembering the new metadata if the content is the same, so the file isn't hashed again
+            val digest = id.file.md5Digest()
+            if (!Arrays.equals(id.digest, digest)) {
+                log.info("cp changed: ${id.file} digests differ")
+                return true
+            }
+            ids[index] = FileId(id.file, current.size, current.lastModified, current.fileKey, digest)
+            return false
+        }
+        catch (e: IOException) {
+            log.log(Level.INFO, "cp changed: ${id.file} access throws the exception", e)
+            return true // io error considered as change
+        }
+    }
+
+    private fun makeFileId(file: File, withFileKey: Boolean, digest: ByteArray? = file.md5Digest()): FileId =
+            FileId(file, file.length(), file.lastModified(), if (withFileKey) ClasspathWatchService.fileKey(file) else null, digest ?: ByteArray(0))
+
+    private fun createWatchService(directories: Collection<File>): ClasspathWatchService? =
+            try {
+                ClasspathWatchService(directories)
+            }
+            catch (e: IOException) {
+                log.log(Level.INFO, "Unable to watch classpath directories, falling back to polling", e)
+                null
+            }
+            catch (e: UnsupportedOperationException) {
+                log.log(Level.INFO, "Unable to watch classpath directories, falling back to polling", e)
+                null
+            }
+            catch (e: LinkageError) {
+                // java.nio.file is not available on java 6
+                log.info("Unable to watch classpath directories, falling back to polling: $e")
+                null
+            }
+}
+
+
+/**
+ * All the [java.nio.file] usages are kept in this class, so it is loaded only if NIO is available.
+ */
+private class ClasspathWatchService(directories: Collection<File>) {
+    /** Absolute paths of the classpath files named in the events, [all] if it's not known which files have changed. */
+    class Changes(val files: Set<File>, val all: Boolean)
+
+    private val watchService = FileSystems.getDefault().newWatchService()
+    private val changedFiles = HashSet<File>()
+    private var allChanged = false
+
+    init {
+        try {
+            for (directory in directories) {
+                directory.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY)
+            }
+        }
+        catch (e: IOException) {
+            watchService.close()
+            throw e
+        }
+        thread(isDaemon = true, start = true, name = "classpath watch service") {
+            watchEvents()
+        }
+    }
+
+    fun takeChanges(): Changes? = synchronized(this) {
+        if (!allChanged && changedFiles.isEmpty()) return null
+        val changes = Changes(HashSet(changedFiles), allChanged)
+        changedFiles.clear()
+        allChanged = false
+        changes
+    }
+
+    private fun watchEvents() {
+        while (true) {
+            val key = try {
+                watchService.take()
+            }
+            catch (e: ClosedWatchServiceException) {
+                return
+            }
+            catch (e: InterruptedException) {
+                return
+            }
+            val directory = key.watchable() as Path
+            val events = key.pollEvents()
+            // invalid key means that the directory itself is gone
+            val valid = key.reset()
+            synchronized(this) {
+                for (event in events) {
+                    val name = event.context() as? Path
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || name == null) {
+                        allChanged = true
                     }
-                    // if last modified changed or if enforced by param - checking the digest
-                    else if ((it.file.lastModified() != it.lastModified || checkDigest) && !Arrays.equals(it.digest, it.file.md5Digest())) {
-                        log.info("cp changed: ${it.file} digests differ")
-                        true
+                    else if (isClasspathFileName(name.toString())) {
+                        changedFiles.add(directory.resolve(name).toFile())
                     }
-                    else false
                 }
-                catch (e: IOException) {
-                    log.log(Level.INFO, "cp changed: ${it.file} access throws the exception", e)
-                    true // io error considered as change
+                if (!valid) {
+                    allChanged = true
                 }
-            } != null
-        lastUpdate.set(TimeUnit.MILLISECONDS.toMillis(System.nanoTime()))
-        if (checkDigest) lastDigestUpdate.set(lastUpdate.get())
+            }
+        }
+    }
 
-        return changed
+    companion object {
+        fun fileKey(file: File): Any? =
+                try {
+                    Files.readAttributes(file.toPath(), BasicFileAttributes::class.java).fileKey()
+                }
+                catch (e: IOException) {
+                    null
+                }
     }
 }
 
 
-fun isClasspathFile(file: File): Boolean = file.isFile && listOf("class", "jar").contains(file.extension.toLowerCase())
+private fun nowMillis() = TimeUnit.NANOSECONDS.toMillis(System.nanoTime())
+
+private fun isClasspathFileName(name: String): Boolean = listOf("class", "jar").contains(name.substringAfterLast('.', "").toLowerCase())
+
+fun isClasspathFile(file: File): Boolean = file.isFile && isClasspathFileName(file.name)
 
 fun File.md5Digest(): ByteArray {
     val md = MessageDigest.getInstance(CLASSPATH_FILE_ID_DIGEST)
@@ -125,4 +264,3 @@ fun File.md5Digest(): ByteArray {
     }
     return md.digest()
 }
-
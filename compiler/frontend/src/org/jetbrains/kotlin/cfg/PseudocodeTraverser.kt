@@ -152,13 +152,17 @@ private fun <I : ControlFlowInfo<*>> Pseudocode.collectDataFromSubgraph(
         }
         val previousDataValue = edgesMap.get(instruction)
 
-        val incomingEdgesData = HashSet<I>()
+        // Infos are shared between instructions whenever possible, so duplicates are filtered by identity:
+        // merging is idempotent, and hashing the whole info for each edge is too costly for large declarations
+        val incomingEdgesData = ArrayList<I>(previousInstructions.size)
 
         for (previousInstruction in previousInstructions) {
             val previousData = edgesMap.get(previousInstruction)
             if (previousData != null) {
-                incomingEdgesData.add(updateEdge(
-                        previousInstruction, instruction, previousData.outgoing))
+                val edgeData = updateEdge(previousInstruction, instruction, previousData.outgoing)
+                if (incomingEdgesData.none { it === edgeData }) {
+                    incomingEdgesData.add(edgeData)
+                }
             }
         }
         val mergedData = mergeEdges(instruction, incomingEdgesData)
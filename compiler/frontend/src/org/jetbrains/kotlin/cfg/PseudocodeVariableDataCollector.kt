@@ -60,13 +60,17 @@ class PseudocodeVariableDataCollector(
 
         // Variables declared in an inner (deeper) scope can't be accessed from an outer scope.
         // Thus they can be filtered out upon leaving the inner scope.
-        @Suppress("UNCHECKED_CAST")
-        return info.copy().retainAll { variable ->
+        val isVisible = { variable: VariableDescriptor ->
             val lexicalScope = lexicalScopeVariableInfo.declaredIn[variable]
             // '-1' for variables declared outside this pseudocode
             val depth = lexicalScope?.depth ?: -1
             depth <= toDepth
-        } as I
+        }
+        // Don't copy the info if there's nothing to filter out, the same instance is then shared between edges
+        if (info.keys.all(isVisible)) return info
+
+        @Suppress("UNCHECKED_CAST")
+        return info.copy().retainAll(isVisible) as I
     }
 
     fun computeLexicalScopeVariableInfo(pseudocode: Pseudocode): LexicalScopeVariableInfo {
@@ -150,19 +150,16 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
 
     // variable use
 
-    val variableUseStatusData: Map<Instruction, Edges<UseControlFlowInfo>>
-        get() = pseudocodeVariableDataCollector.collectData(
+    val variableUseStatusData: Map<Instruction, Edges<UseControlFlowInfo>> by lazy {
+        computeVariableUseStatusData()
+    }
+
+    private fun computeVariableUseStatusData(): Map<Instruction, Edges<UseControlFlowInfo>> {
+        return pseudocodeVariableDataCollector.collectData(
                 TraversalOrder.BACKWARD, true, UseControlFlowInfo()
         ) {
             instruction: Instruction, incomingEdgesData: Collection<UseControlFlowInfo> ->
-            val enterResult = UseControlFlowInfo()
-            for (edgeData in incomingEdgesData) {
-                for (entry in edgeData.entries) {
-                    val variableDescriptor = entry.key
-                    val variableUseState = entry.value
-                    enterResult.put(variableDescriptor, variableUseState.merge(enterResult[variableDescriptor]))
-                }
-            }
+            val enterResult = mergeIncomingEdgesDataForUseStatus(incomingEdgesData)
             val variableDescriptor = PseudocodeUtil.extractVariableDescriptorIfAny(instruction, true, bindingContext)
             if (variableDescriptor == null || instruction !is ReadValueInstruction && instruction !is WriteValueInstruction) {
                 Edges(enterResult, enterResult)
@@ -187,6 +184,7 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
                 Edges(enterResult, exitResult)
             }
         }
+    }
 
     companion object {
 
@@ -204,9 +202,13 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
             return VariableControlFlowState.create(/*initState=*/declaredOutsideThisDeclaration)
         }
 
+        // Merging data of a single edge gives the same data, so the instance is shared instead of being copied:
+        // otherwise each instruction holds its own map of all visible variables
         private fun mergeIncomingEdgesDataForInitializers(
                 incomingEdgesData: Collection<InitControlFlowInfo>
         ): InitControlFlowInfo {
+            if (incomingEdgesData.size == 1) return incomingEdgesData.first()
+
             val variablesInScope = Sets.newHashSet<VariableDescriptor>()
             for (edgeData in incomingEdgesData) {
                 variablesInScope.addAll(edgeData.keys)
@@ -232,5 +234,21 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
             }
             return enterInstructionData
         }
+
+        private fun mergeIncomingEdgesDataForUseStatus(
+                incomingEdgesData: Collection<UseControlFlowInfo>
+        ): UseControlFlowInfo {
+            if (incomingEdgesData.size == 1) return incomingEdgesData.first()
+
+            val enterResult = UseControlFlowInfo()
+            for (edgeData in incomingEdgesData) {
+                for (entry in edgeData.entries) {
+                    val variableDescriptor = entry.key
+                    val variableUseState = entry.value
+                    enterResult.put(variableDescriptor, variableUseState.merge(enterResult[variableDescriptor]))
+                }
+            }
+            return enterResult
+        }
     }
 }
@@ -48,6 +48,8 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
     }
 
     internal val allTypeParameterBounds = LinkedHashMap<TypeVariable, TypeBoundsImpl>()
+    // index for getMyTypeVariable, which is called for each type constructor met in the constraining types
+    private val typeVariablesByFreshParameter = HashMap<TypeParameterDescriptor, TypeVariable>()
     internal val usedInBounds = HashMap<TypeVariable, MutableList<TypeBounds.Bound>>()
     internal val errors = ArrayList<ConstraintError>()
     internal val initialConstraints = ArrayList<Constraint>()
@@ -83,8 +85,8 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             }
         }
 
-        for ((descriptor, typeVariable) in typeParameters.zip(typeVariables)) {
-            allTypeParameterBounds.put(typeVariable, TypeBoundsImpl(typeVariable))
+        for (typeVariable in typeVariables) {
+            putTypeBounds(typeVariable, TypeBoundsImpl(typeVariable))
         }
 
         for ((typeVariable, typeBounds) in allTypeParameterBounds) {
@@ -246,7 +248,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
         val bound = Bound(typeVariable, constrainingType, kind, constraintContext.position,
                           constrainingType.isProper(), constraintContext.derivedFrom ?: emptySet())
         val typeBounds = getTypeBounds(typeVariable)
-        if (typeBounds.bounds.contains(bound)) return
+        if (typeBounds.containsBound(bound)) return
 
         typeBounds.addBound(bound)
 
@@ -324,6 +326,11 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
         addBound(typeVariable, capturedType, EXACT_BOUND, constraintContext)
     }
 
+    internal fun putTypeBounds(variable: TypeVariable, typeBounds: TypeBoundsImpl) {
+        allTypeParameterBounds.put(variable, typeBounds)
+        typeVariablesByFreshParameter.getOrPut(variable.freshTypeParameter) { variable }
+    }
+
     internal fun getTypeBounds(variable: TypeVariable): TypeBoundsImpl {
         return allTypeParameterBounds[variable] ?:
                throw IllegalArgumentException("TypeParameterDescriptor is not a type variable for constraint system: $variable")
@@ -340,7 +347,7 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
     }
 
     private fun getMyTypeVariable(typeParameter: TypeParameterDescriptor): TypeVariable? =
-            allTypeParameterBounds.keys.find { it.freshTypeParameter == typeParameter }
+            typeVariablesByFreshParameter[typeParameter]
 
     private fun storeInitialConstraint(constraintKind: ConstraintKind, subType: KotlinType, superType: KotlinType, position: ConstraintPosition) {
         initialConstraints.add(Constraint(constraintKind, subType, superType, position))
@@ -376,7 +383,9 @@ class ConstraintSystemBuilderImpl : ConstraintSystem.Builder {
             )
         }
 
-        allTypeParameterBounds.putAll(other.allTypeParameterBounds)
+        for ((typeVariable, typeBounds) in other.allTypeParameterBounds) {
+            putTypeBounds(typeVariable, typeBounds)
+        }
         usedInBounds.putAll(other.usedInBounds)
         errors.addAll(other.errors)
         initialConstraints.addAll(other.initialConstraints)
@@ -177,7 +177,7 @@ internal class ConstraintSystemImpl(
     override fun toBuilder(filterConstraintPosition: (ConstraintPosition) -> Boolean): ConstraintSystem.Builder {
         val result = ConstraintSystemBuilderImpl()
         for ((typeParameter, typeBounds) in allTypeParameterBounds) {
-            result.allTypeParameterBounds.put(typeParameter, typeBounds.filter(filterConstraintPosition))
+            result.putTypeBounds(typeParameter, typeBounds.filter(filterConstraintPosition))
         }
         result.usedInBounds.putAll(usedInBounds.map {
             val (variable, bounds) = it
@@ -26,10 +26,20 @@ import org.jetbrains.kotlin.types.checker.KotlinTypeChecker
 import org.jetbrains.kotlin.utils.addIfNotNull
 import java.util.*
 
-class TypeBoundsImpl(override val typeVariable: TypeVariable) : TypeBounds {
-    override val bounds = ArrayList<Bound>()
+class TypeBoundsImpl private constructor(
+        override val typeVariable: TypeVariable,
+        bounds: List<Bound>,
+        private var resultValues: Collection<KotlinType>?
+) : TypeBounds {
+    constructor(typeVariable: TypeVariable) : this(typeVariable, emptyList(), null)
 
-    private var resultValues: Collection<KotlinType>? = null
+    // Bounds are shared between copies of a constraint system until one of them adds a new bound
+    private var boundsList: List<Bound> = bounds
+    private var boundsSet: Set<Bound>? = null
+    private var isShared = true
+
+    override val bounds: List<Bound>
+        get() = boundsList
 
     var isFixed: Boolean = false
         private set
@@ -43,7 +53,21 @@ class TypeBoundsImpl(override val typeVariable: TypeVariable) : TypeBounds {
         assert(bound.typeVariable == typeVariable) {
             "$bound is added for incorrect type variable ${bound.typeVariable.name}. Expected: ${typeVariable.name}"
         }
-        bounds.add(bound)
+        if (isShared) {
+            boundsList = ArrayList(boundsList)
+            boundsSet = null
+            isShared = false
+        }
+        (boundsList as MutableList<Bound>).add(bound)
+        boundsSet?.let { (it as MutableSet<Bound>).add(bound) }
+    }
+
+    fun containsBound(bound: Bound): Boolean {
+        // a linear search is cheaper for the typical small number of bounds
+        if (boundsList.size < BOUNDS_SET_THRESHOLD) return boundsList.contains(bound)
+
+        val set = boundsSet ?: HashSet(boundsList).apply { boundsSet = this }
+        return set.contains(bound)
     }
 
     private fun filterBounds(bounds: Collection<Bound>, kind: BoundKind, errorValues: MutableCollection<KotlinType>? = null): Set<KotlinType> {
@@ -62,9 +86,12 @@ class TypeBoundsImpl(override val typeVariable: TypeVariable) : TypeBounds {
     }
 
     fun filter(condition: (ConstraintPosition) -> Boolean): TypeBoundsImpl {
-        val result = TypeBoundsImpl(typeVariable)
-        result.bounds.addAll(bounds.filter { condition(it.position) })
-        return result
+        if (boundsList.all { condition(it.position) }) {
+            // nothing is filtered out: share the bounds and the computed values with the copy
+            isShared = true
+            return TypeBoundsImpl(typeVariable, boundsList, resultValues)
+        }
+        return TypeBoundsImpl(typeVariable, boundsList.filter { condition(it.position) }, null)
     }
 
     override val values: Collection<KotlinType>
@@ -198,4 +225,8 @@ class TypeBoundsImpl(override val typeVariable: TypeVariable) : TypeBounds {
         }
         return upperBounds
     }
+
+    companion object {
+        private const val BOUNDS_SET_THRESHOLD = 8
+    }
 }
@@ -77,6 +77,12 @@ public class BlackBoxWithJava8CodegenTestGenerated extends AbstractBlackBoxCodeg
         doTestWithJava(fileName);
     }
 
+    @TestMetadata("jvmDefaultMethods")
+    public void testJvmDefaultMethods() throws Exception {
+        String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/jvmDefaultMethods/");
+        doTestWithJava(fileName);
+    }
+
     @TestMetadata("longChainOfKotlinExtendsFromJavaWithDefault")
     public void testLongChainOfKotlinExtendsFromJavaWithDefault() throws Exception {
         String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/longChainOfKotlinExtendsFromJavaWithDefault/");
@@ -89,6 +95,34 @@ public class BlackBoxWithJava8CodegenTestGenerated extends AbstractBlackBoxCodeg
         doTestWithJava(fileName);
     }
 
+    @TestMetadata("compiler/testData/codegen/java8/boxWithJava/lambdaMetafactory")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class LambdaMetafactory extends AbstractBlackBoxCodegenTest {
+        public void testAllFilesPresentInLambdaMetafactory() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/java8/boxWithJava/lambdaMetafactory"), Pattern.compile("^([^\\.]+)$"), true);
+        }
+
+        @TestMetadata("functionLiterals")
+        public void testFunctionLiterals() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/lambdaMetafactory/functionLiterals/");
+            doTestWithJava(fileName);
+        }
+
+        @TestMetadata("samConversions")
+        public void testSamConversions() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/lambdaMetafactory/samConversions/");
+            doTestWithJava(fileName);
+        }
+
+        @TestMetadata("serializableWithoutIndyLambdas")
+        public void testSerializableWithoutIndyLambdas() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/java8/boxWithJava/lambdaMetafactory/serializableWithoutIndyLambdas/");
+            doTestWithJava(fileName);
+        }
+
+    }
+
     @TestMetadata("compiler/testData/codegen/java8/boxWithJava/reflection")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -0,0 +1,12 @@
+interface Greeter {
+    val name: String
+        get() = "World"
+
+    fun greet(): String = "Hello, $name!"
+}
+
+class DefaultGreeter : Greeter
+
+fun main(args: Array<String>) {
+    println(DefaultGreeter().greet())
+}
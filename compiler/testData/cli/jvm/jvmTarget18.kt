@@ -0,0 +1,5 @@
+fun main(args: Array<String>) {
+    val square: (Int) -> Int = { it * it }
+    val runnable = Runnable { println(square(args.size)) }
+    runnable.run()
+}
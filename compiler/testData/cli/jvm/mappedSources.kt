@@ -0,0 +1,4 @@
+fun ascii(): String {
+    val unused = 42
+    return nonAscii()
+}
@@ -0,0 +1,4 @@
+fun nonAscii(): String {
+    val unused = "été"
+    return "OK"
+}
@@ -0,0 +1,47 @@
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun longCount(list: List<String>): Long {
+    var count = 0L
+    list.forEach { count++ }
+    return count
+}
+
+fun concat(list: List<String>): String {
+    var result: String? = null
+    list.forEach { result = (result ?: "") + it }
+    return result ?: "empty"
+}
+
+fun lastNonEmptyRound(rounds: List<List<Int>>): Int {
+    var last = -1
+    for ((index, round) in rounds.withIndex()) {
+        var found = false
+        round.forEach { found = true }
+        if (found) last = index
+    }
+    return last
+}
+
+fun counter(): () -> Int {
+    var count = 0
+    listOf(1, 2).forEach { count += it }
+    return { ++count }
+}
+
+fun box(): String {
+    if (sum(listOf(1, 2, 3)) != 6) return "Fail sum"
+    if (longCount(listOf("a", "b")) != 2L) return "Fail longCount"
+    if (concat(listOf("O", "K")) != "OK") return "Fail concat"
+    if (concat(emptyList()) != "empty") return "Fail concat empty"
+    if (lastNonEmptyRound(listOf(listOf(1), emptyList(), listOf(2), emptyList())) != 2) return "Fail lastNonEmptyRound"
+
+    val c = counter()
+    c()
+    if (c() != 5) return "Fail counter"
+
+    return "OK"
+}
@@ -0,0 +1,20 @@
+import java.util.concurrent.CopyOnWriteArrayList
+
+fun box(): String {
+    // the iterator of CopyOnWriteArrayList iterates a snapshot, so adding elements in the loop is allowed
+    val list = CopyOnWriteArrayList(listOf(1, 2, 3))
+    var sum = 0
+    for (i in list) {
+        sum += i
+        list.add(i)
+    }
+    if (sum != 6) return "Fail sum: $sum"
+    if (list.size != 6) return "Fail size: ${list.size}"
+
+    for (i in list) {
+        list.remove(i)
+    }
+    if (list.isNotEmpty()) return "Fail remove: $list"
+
+    return "OK"
+}
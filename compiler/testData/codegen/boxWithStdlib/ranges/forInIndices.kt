@@ -0,0 +1,25 @@
+fun box(): String {
+    var result = 0
+    for (i in listOf("a", "b", "c").indices) {
+        result += i
+    }
+    if (result != 3) return "Fail Collection: $result"
+
+    result = 0
+    for (i in intArrayOf(1, 2, 3, 4).indices) {
+        result += i
+    }
+    if (result != 6) return "Fail IntArray: $result"
+
+    result = 0
+    for (i in "abcde".indices) {
+        result += i
+    }
+    if (result != 10) return "Fail CharSequence: $result"
+
+    for (i in emptyList<String>().indices) {
+        return "Fail empty: $i"
+    }
+
+    return "OK"
+}
@@ -0,0 +1,33 @@
+import java.util.*
+
+fun sum(list: List<Int>): Int {
+    var result = 0
+    for (i in list) {
+        result += i
+    }
+    return result
+}
+
+fun box(): String {
+    if (sum(arrayListOf(1, 2, 3)) != 6) return "Fail ArrayList"
+    if (sum(LinkedList(listOf(1, 2, 3))) != 6) return "Fail LinkedList"
+    if (sum(emptyList()) != 0) return "Fail empty"
+
+    val strings = StringBuilder()
+    for ((key, value) in listOf("a" to 1, "b" to 2)) {
+        strings.append(key).append(value)
+    }
+    if (strings.toString() != "a1b2") return "Fail destructuring: $strings"
+
+    val list = arrayListOf(1, 2, 3)
+    try {
+        for (i in list) {
+            list.add(i)
+        }
+        return "Fail: no ConcurrentModificationException"
+    }
+    catch (e: ConcurrentModificationException) {
+    }
+
+    return "OK"
+}
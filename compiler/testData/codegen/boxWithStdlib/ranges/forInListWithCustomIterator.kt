@@ -0,0 +1,34 @@
+import java.util.*
+
+var log = ""
+
+class LoggingList(elements: Collection<String>) : ArrayList<String>(elements) {
+    override fun iterator(): MutableIterator<String> {
+        log += "iterator;"
+        return super.iterator()
+    }
+}
+
+class Letters : AbstractList<String>(), RandomAccess {
+    override val size: Int
+        get() = 2
+
+    override fun get(index: Int): String = "ab"[index].toString()
+
+    override fun iterator(): MutableIterator<String> = arrayListOf("O", "K").iterator()
+}
+
+fun box(): String {
+    val strings = StringBuilder()
+    for (s in LoggingList(listOf("a", "b"))) {
+        strings.append(s)
+    }
+    if (strings.toString() != "ab") return "Fail LoggingList: $strings"
+    if (log != "iterator;") return "Fail: the iterator of LoggingList is not used, log: $log"
+
+    var result = ""
+    for (s in Letters()) {
+        result += s
+    }
+    return result
+}
@@ -0,0 +1,40 @@
+fun box(): String {
+    var sum = 0
+    for (i in 1 until 5) {
+        sum += i
+    }
+    if (sum != 10) return "Fail Int: $sum"
+
+    var longSum = 0L
+    for (i in 1L until 5L) {
+        longSum += i
+    }
+    if (longSum != 10L) return "Fail Long: $longSum"
+
+    val chars = StringBuilder()
+    for (c in 'a' until 'e') {
+        chars.append(c)
+    }
+    if (chars.toString() != "abcd") return "Fail Char: $chars"
+
+    for (i in 5 until 5) {
+        return "Fail empty: $i"
+    }
+
+    var last = 0
+    for (i in (Int.MAX_VALUE - 2) until Int.MAX_VALUE) {
+        last = i
+    }
+    if (last != Int.MAX_VALUE - 1) return "Fail MAX_VALUE: $last"
+
+    try {
+        for (i in 0 until Int.MIN_VALUE) {
+            return "Fail MIN_VALUE: $i"
+        }
+        return "Fail MIN_VALUE: no exception"
+    }
+    catch (e: IllegalArgumentException) {
+    }
+
+    return "OK"
+}
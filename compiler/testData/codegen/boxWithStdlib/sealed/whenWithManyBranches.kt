@@ -0,0 +1,66 @@
+sealed class Node {
+    class A : Node()
+    open class B : Node()
+    class C : B()
+    object D : Node()
+    data class E(val value: Int) : Node()
+
+    sealed class Inner : Node() {
+        class F : Inner()
+        class G : Inner()
+        class H : Inner()
+        object I : Inner()
+    }
+}
+
+class Derived : Node.B()
+
+fun outer(node: Node?): String = when (node) {
+    is Node.A -> "A"
+    is Node.B -> "B"
+    is Node.D, is Node.E -> "DE"
+    null -> "null"
+    is Node.Inner -> "Inner"
+}
+
+// not a switch, since C is not a direct subclass of Node
+fun withIndirectSubclass(node: Node): String = when (node) {
+    is Node.A -> "A"
+    is Node.C -> "C"
+    is Node.B -> "B"
+    is Node.D -> "D"
+    else -> "else"
+}
+
+fun inner(node: Node.Inner): String = when (node) {
+    is Node.Inner.F -> "F"
+    is Node.Inner.G -> "G"
+    is Node.Inner.H -> "H"
+    is Node.Inner.I -> "I"
+}
+
+fun statement(node: Node): String {
+    var result = "none"
+    when (node) {
+        is Node.A -> result = "A"
+        is Node.B -> result = "B"
+        is Node.D -> result = "D"
+        is Node.E -> result = "E"
+    }
+    return result
+}
+
+fun box(): String {
+    val results = listOf(Node.A(), Node.B(), Node.C(), Derived(), Node.D, Node.E(1), Node.Inner.F(), null).map { outer(it) }
+    if (results != listOf("A", "B", "B", "B", "DE", "DE", "Inner", "null")) return "Fail outer: $results"
+
+    if (withIndirectSubclass(Node.C()) != "C" || withIndirectSubclass(Derived()) != "B") return "Fail withIndirectSubclass"
+
+    val innerResults = listOf(Node.Inner.F(), Node.Inner.G(), Node.Inner.H(), Node.Inner.I).map { inner(it) }
+    if (innerResults != listOf("F", "G", "H", "I")) return "Fail inner: $innerResults"
+
+    if (statement(Derived()) != "B") return "Fail statement B"
+    if (statement(Node.Inner.G()) != "none") return "Fail statement none"
+
+    return "OK"
+}
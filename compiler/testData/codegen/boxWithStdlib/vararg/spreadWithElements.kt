@@ -0,0 +1,31 @@
+var log = ""
+
+fun <T> logged(id: String, value: T): T {
+    log += id
+    return value
+}
+
+fun strings(vararg args: String) = args
+fun ints(vararg args: Int) = args
+fun booleans(vararg args: Boolean) = args
+fun longs(vararg args: Long) = args
+
+fun box(): String {
+    val ab = arrayOf("a", "b")
+    val result = strings(logged("1", "x"), *logged("2", ab), logged("3", "y"), *logged("4", arrayOf<String>()), *logged("5", ab))
+    if (result.joinToString("") != "xabyab") return "Fail strings: ${result.joinToString("")}"
+    if (log != "12345") return "Fail strings order: $log"
+    if (result.javaClass != Array<String>::class.java) return "Fail array class: ${result.javaClass}"
+
+    val ns = intArrayOf(2, 3)
+    val intResult = ints(1, *ns, 4, *ns)
+    if (intResult.joinToString() != "1, 2, 3, 4, 2, 3") return "Fail ints: ${intResult.joinToString()}"
+
+    ns[0] = 0
+    if (intResult[1] != 2) return "Fail copy"
+
+    if (booleans(true, *booleanArrayOf(false), true).joinToString() != "true, false, true") return "Fail booleans"
+    if (longs(*longArrayOf(1L), *longArrayOf(), *longArrayOf(2L, 3L)).sum() != 6L) return "Fail longs"
+
+    return "OK"
+}
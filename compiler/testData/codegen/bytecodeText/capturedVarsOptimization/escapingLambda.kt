@@ -0,0 +1,14 @@
+fun counter(): () -> Int {
+    var count = 0
+    return { ++count }
+}
+
+fun mixed(list: List<Int>): () -> Int {
+    var sum = 0
+    list.forEach { sum += it }
+    var captured = 0
+    list.forEach { captured += it }
+    return { captured }
+}
+
+// 2 NEW kotlin/jvm/internal/Ref\$IntRef
@@ -0,0 +1,24 @@
+fun sum(list: List<Int>): Int {
+    var sum = 0
+    list.forEach { sum += it }
+    return sum
+}
+
+fun joinAndCount(list: List<String>): String {
+    var result = ""
+    var count = 0L
+    for (i in 1..3) {
+        var flag = false
+        list.forEach {
+            result += it
+            count++
+            flag = true
+        }
+        if (!flag) break
+    }
+    return "$result$count"
+}
+
+// 0 NEW kotlin/jvm/internal/Ref
+// 0 GETFIELD kotlin/jvm/internal/Ref
+// 0 PUTFIELD kotlin/jvm/internal/Ref
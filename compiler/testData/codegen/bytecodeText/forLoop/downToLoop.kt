@@ -0,0 +1,14 @@
+fun f(a: Int, b: Long) {
+    for (i in a downTo 0) {
+    }
+    for (i in b downTo 0L) {
+    }
+    for (i in 5 downTo 1) {
+    }
+}
+
+// 0 iterator
+// 0 downTo
+// 0 getFirst
+// 0 getLast
+// 0 getStep
\ No newline at end of file
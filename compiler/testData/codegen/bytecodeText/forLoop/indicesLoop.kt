@@ -0,0 +1,16 @@
+fun f(c: Collection<String>, a: IntArray, s: CharSequence) {
+    for (i in c.indices) {
+    }
+    for (i in a.indices) {
+    }
+    for (i in s.indices) {
+    }
+}
+
+// 0 iterator
+// 0 getIndices
+// 0 getFirst
+// 0 getLast
+// 1 INVOKEINTERFACE java/util/Collection.size \(\)I
+// 1 ARRAYLENGTH
+// 1 INVOKEINTERFACE java/lang/CharSequence.length \(\)I
\ No newline at end of file
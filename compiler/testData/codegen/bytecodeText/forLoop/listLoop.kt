@@ -0,0 +1,11 @@
+fun f(list: List<String>) {
+    for (s in list) {
+    }
+}
+
+// 0 INSTANCEOF java/util/RandomAccess
+// 1 INVOKEVIRTUAL java/lang/Object.getClass \(\)Ljava/lang/Class;
+// 1 LDC Ljava/util/ArrayList;.class
+// 1 INVOKEINTERFACE java/util/List.get \(I\)Ljava/lang/Object;
+// 1 INVOKEINTERFACE java/util/List.iterator \(\)Ljava/util/Iterator;
+// 1 NEW java/util/ConcurrentModificationException
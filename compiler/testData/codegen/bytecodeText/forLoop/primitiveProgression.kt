@@ -6,6 +6,6 @@ fun f() {
 }
 
 // 0 iterator
-// 2 getFirst
-// 2 getLast
-// 2 getStep
\ No newline at end of file
+// 1 getFirst
+// 1 getLast
+// 1 getStep
\ No newline at end of file
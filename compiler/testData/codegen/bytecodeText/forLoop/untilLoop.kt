@@ -0,0 +1,14 @@
+fun f(a: Int, b: Long, c: Char) {
+    for (i in 0 until a) {
+    }
+    for (i in 0L until b) {
+    }
+    for (i in 'a' until c) {
+    }
+}
+
+// 0 iterator
+// 0 until
+// 0 getFirst
+// 0 getLast
+// 0 NEW kotlin/ranges
\ No newline at end of file
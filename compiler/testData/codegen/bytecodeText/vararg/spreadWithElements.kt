@@ -0,0 +1,13 @@
+fun log(message: String, vararg args: Any?) = message + args.size
+
+fun ints(vararg args: Int) = args.size
+
+fun test(args: Array<Any?>, ns: IntArray) {
+    log("single spread", *args)
+    log("spread and elements", "first", *args, 42)
+    ints(1, *ns, *ns)
+}
+
+// 0 SpreadBuilder
+// 1 INVOKESTATIC java/util/Arrays.copyOf
+// 3 INVOKESTATIC java/lang/System.arraycopy
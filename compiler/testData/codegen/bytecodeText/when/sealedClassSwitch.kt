@@ -0,0 +1,34 @@
+sealed class Expr {
+    class Const(val value: Int) : Expr()
+    class Neg(val arg: Expr) : Expr()
+    class Plus(val left: Expr, val right: Expr) : Expr()
+    class Times(val left: Expr, val right: Expr) : Expr()
+    object Zero : Expr()
+}
+
+fun eval(e: Expr): Int = when (e) {
+    is Expr.Const -> e.value
+    is Expr.Neg -> -eval(e.arg)
+    is Expr.Plus -> eval(e.left) + eval(e.right)
+    is Expr.Times -> eval(e.left) * eval(e.right)
+    is Expr.Zero -> 0
+}
+
+fun isLeaf(e: Expr?): Boolean = when (e) {
+    null -> false
+    is Expr.Const, is Expr.Zero -> true
+    is Expr.Neg -> false
+    is Expr.Plus -> false
+    else -> false
+}
+
+fun box(): String {
+    val e = Expr.Plus(Expr.Const(2), Expr.Times(Expr.Neg(Expr.Const(3)), Expr.Zero))
+    if (eval(e) != 2) return "Fail eval"
+    if (isLeaf(e) || !isLeaf(Expr.Zero) || isLeaf(null)) return "Fail isLeaf"
+    return "OK"
+}
+
+// 2 TABLESWITCH
+// 0 INSTANCEOF
+// 2 INVOKEVIRTUAL Expr.\$sealedTag\$Expr \(\)I
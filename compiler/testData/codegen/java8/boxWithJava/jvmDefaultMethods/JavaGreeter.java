@@ -0,0 +1,27 @@
+import java.lang.reflect.Method;
+
+class JavaGreeter implements Greeter {
+    @Override
+    public String getName() {
+        return "Java";
+    }
+
+    static String greetFromJava(Greeter greeter) {
+        greeter.setLastGreeted("");
+        return greeter.greet();
+    }
+
+    static boolean isDefault(Class<?> klass, String name) {
+        for (Method method : klass.getDeclaredMethods()) {
+            if (method.getName().equals(name)) return method.isDefault();
+        }
+        return false;
+    }
+
+    static boolean isDeclared(Class<?> klass, String name) {
+        for (Method method : klass.getDeclaredMethods()) {
+            if (method.getName().equals(name)) return true;
+        }
+        return false;
+    }
+}
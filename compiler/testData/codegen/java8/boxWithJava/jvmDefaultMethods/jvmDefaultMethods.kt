@@ -0,0 +1,47 @@
+// JVM_TARGET: 1.8
+// JVM_DEFAULT_METHODS
+
+var log = ""
+
+interface Greeter {
+    val name: String
+
+    val greeting: String
+        get() = "Hello, $name"
+
+    var lastGreeted: String
+        get() = log
+        set(value) {
+            log = value
+        }
+
+    fun greet(): String {
+        lastGreeted = name
+        return "$greeting!"
+    }
+}
+
+class KotlinGreeter : Greeter {
+    override val name: String
+        get() = "Kotlin"
+}
+
+fun box(): String {
+    val kotlinGreeter = KotlinGreeter()
+    if (kotlinGreeter.greet() != "Hello, Kotlin!") return "fail Kotlin greet: ${kotlinGreeter.greet()}"
+    if (kotlinGreeter.lastGreeted != "Kotlin") return "fail Kotlin lastGreeted: ${kotlinGreeter.lastGreeted}"
+
+    // JavaGreeter compiles only if the members with bodies are default methods
+    val javaGreeter = JavaGreeter()
+    if (javaGreeter.greet() != "Hello, Java!") return "fail Java greet: ${javaGreeter.greet()}"
+    if (javaGreeter.lastGreeted != "Java") return "fail Java lastGreeted: ${javaGreeter.lastGreeted}"
+    if (JavaGreeter.greetFromJava(javaGreeter) != "Hello, Java!") return "fail greet from Java"
+    if (JavaGreeter.greetFromJava(kotlinGreeter) != "Hello, Kotlin!") return "fail greet Kotlin from Java"
+
+    for (method in arrayOf("greet", "getGreeting", "getLastGreeted", "setLastGreeted")) {
+        if (!JavaGreeter.isDefault(Greeter::class.java, method)) return "fail: $method is not a default method"
+        if (JavaGreeter.isDeclared(KotlinGreeter::class.java, method)) return "fail: $method is delegated in KotlinGreeter"
+    }
+
+    return "OK"
+}
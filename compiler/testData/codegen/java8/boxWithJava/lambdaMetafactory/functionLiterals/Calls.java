@@ -0,0 +1,12 @@
+import kotlin.jvm.functions.Function2;
+
+class Calls {
+    // the classes spun by LambdaMetafactory are synthetic and named after the class of the lambda method
+    static boolean isLambdaMetafactory(Object o) {
+        return o.getClass().isSynthetic() && o.getClass().getName().contains("$$Lambda$");
+    }
+
+    static Object invoke(Function2<Integer, Integer, Integer> f, int a, int b) {
+        return f.invoke(a, b);
+    }
+}
@@ -0,0 +1,33 @@
+// JVM_TARGET: 1.8
+// INDY_LAMBDAS
+
+var log = ""
+
+fun box(): String {
+    val concat: (String, String) -> String = { a, b -> a + b }
+    if (concat("O", "K") != "OK") return "fail concat: ${concat("O", "K")}"
+    if (!Calls.isLambdaMetafactory(concat)) return "fail: concat is generated as a class"
+
+    // the lambda method takes and returns primitives, the interface method takes and returns objects
+    val plus: (Int, Int) -> Int = { a, b -> a + b }
+    if (plus(40, 2) != 42) return "fail plus: ${plus(40, 2)}"
+    if (Calls.invoke(plus, 40, 2) != 42) return "fail plus from Java: ${Calls.invoke(plus, 40, 2)}"
+    if (!Calls.isLambdaMetafactory(plus)) return "fail: plus is generated as a class"
+
+    val isEven: (Long) -> Boolean = { it % 2 == 0L }
+    if (!isEven(4L) || isEven(3L)) return "fail isEven"
+
+    val half = fun(x: Double): Double = x / 2
+    if (half(3.0) != 1.5) return "fail half: ${half(3.0)}"
+    if (!Calls.isLambdaMetafactory(half)) return "fail: half is generated as a class"
+
+    // the lambda method returns void, the interface method returns Unit
+    val record: (String) -> Unit = { log += it }
+    record("O")
+    val result: Any = record("K")
+    if (result !== Unit) return "fail: $result is returned instead of Unit"
+    if (log != "OK") return "fail log: $log"
+    if (!Calls.isLambdaMetafactory(record)) return "fail: record is generated as a class"
+
+    return "OK"
+}
@@ -0,0 +1,32 @@
+import java.io.Serializable;
+
+class Sam {
+    interface IntOperation {
+        int apply(int a, int b);
+    }
+
+    interface Callback {
+        void call(String s);
+    }
+
+    interface SerializableSupplier extends Serializable {
+        String get();
+    }
+
+    static int apply(IntOperation operation, int a, int b) {
+        return operation.apply(a, b);
+    }
+
+    static void call(Callback callback, String s) {
+        callback.call(s);
+    }
+
+    static String get(SerializableSupplier supplier) {
+        return supplier.get();
+    }
+
+    // the classes spun by LambdaMetafactory are synthetic and named after the class of the lambda method
+    static boolean isLambdaMetafactory(Object o) {
+        return o.getClass().isSynthetic() && o.getClass().getName().contains("$$Lambda$");
+    }
+}
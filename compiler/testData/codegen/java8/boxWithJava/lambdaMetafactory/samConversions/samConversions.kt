@@ -0,0 +1,29 @@
+// JVM_TARGET: 1.8
+// INDY_LAMBDAS
+
+var log = ""
+
+fun box(): String {
+    // primitives are passed between the interface method and the lambda method as they are
+    val multiply = Sam.IntOperation { a, b -> a * b }
+    if (Sam.apply(multiply, 6, 7) != 42) return "fail multiply: ${Sam.apply(multiply, 6, 7)}"
+    if (!Sam.isLambdaMetafactory(multiply)) return "fail: multiply is generated as a class"
+    if (Sam.apply({ a, b -> a - b }, 50, 8) != 42) return "fail minus"
+
+    val callback = Sam.Callback { log += it }
+    Sam.call(callback, "O")
+    Sam.call({ log += it }, "K")
+    if (log != "OK") return "fail log: $log"
+    if (!Sam.isLambdaMetafactory(callback)) return "fail: callback is generated as a class"
+
+    val runnable = Runnable { log = "" }
+    runnable.run()
+    if (log != "") return "fail runnable: $log"
+    if (!Sam.isLambdaMetafactory(runnable)) return "fail: runnable is generated as a class"
+
+    // the instances produced by LambdaMetafactory can't be serialized
+    val supplier = Sam.SerializableSupplier { "OK" }
+    if (Sam.isLambdaMetafactory(supplier)) return "fail: serializable supplier is generated with invokedynamic"
+
+    return Sam.get(supplier)
+}
@@ -0,0 +1,16 @@
+import java.io.*;
+
+class Serialization {
+    static Object copy(Object o) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(o);
+        output.close();
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    // the classes spun by LambdaMetafactory are synthetic and named after the class of the lambda method
+    static boolean isLambdaMetafactory(Object o) {
+        return o.getClass().isSynthetic() && o.getClass().getName().contains("$$Lambda$");
+    }
+}
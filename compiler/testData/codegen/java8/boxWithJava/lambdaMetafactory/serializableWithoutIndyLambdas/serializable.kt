@@ -0,0 +1,17 @@
+// JVM_TARGET: 1.8
+
+// without -Xindy-lambdas the 1.8 target generates lambdas as classes, the same way as 1.6 does
+fun box(): String {
+    val ok = { "OK" }
+    if (Serialization.isLambdaMetafactory(ok)) return "fail: the lambda is generated with invokedynamic"
+    if (ok !is java.io.Serializable) return "fail: the lambda is not serializable"
+
+    val plus: (Int, Int) -> Int = { a, b -> a + b }
+    @Suppress("UNCHECKED_CAST")
+    val plusCopy = Serialization.copy(plus) as (Int, Int) -> Int
+    if (plusCopy(40, 2) != 42) return "fail plus: ${plusCopy(40, 2)}"
+
+    @Suppress("UNCHECKED_CAST")
+    val okCopy = Serialization.copy(ok) as () -> String
+    return okCopy()
+}
@@ -139,18 +139,54 @@ public class KotlincExecutableTestGenerated extends AbstractKotlincExecutableTes
             doJvmTest(fileName);
         }
 
+        @TestMetadata("indyLambdas.args")
+        public void testIndyLambdas() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/indyLambdas.args");
+            doJvmTest(fileName);
+        }
+
+        @TestMetadata("indyLambdasWithoutTarget.args")
+        public void testIndyLambdasWithoutTarget() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/indyLambdasWithoutTarget.args");
+            doJvmTest(fileName);
+        }
+
         @TestMetadata("inlineCycle.args")
         public void testInlineCycle() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/inlineCycle.args");
             doJvmTest(fileName);
         }
 
+        @TestMetadata("jvmDefaultMethods.args")
+        public void testJvmDefaultMethods() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/jvmDefaultMethods.args");
+            doJvmTest(fileName);
+        }
+
+        @TestMetadata("jvmDefaultMethodsWithoutTarget.args")
+        public void testJvmDefaultMethodsWithoutTarget() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/jvmDefaultMethodsWithoutTarget.args");
+            doJvmTest(fileName);
+        }
+
+        @TestMetadata("jvmTarget18.args")
+        public void testJvmTarget18() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/jvmTarget18.args");
+            doJvmTest(fileName);
+        }
+
         @TestMetadata("kotlinPackage.args")
         public void testKotlinPackage() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/kotlinPackage.args");
             doJvmTest(fileName);
         }
 
+        @TestMetadata("mappedSources.args")
+        public void testMappedSources() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/mappedSources.args");
+            doJvmTest(fileName);
+        }
+
         @TestMetadata("multipleTextRangesInDiagnosticsOrder.args")
         public void testMultipleTextRangesInDiagnosticsOrder() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/multipleTextRangesInDiagnosticsOrder.args");
@@ -271,6 +307,12 @@ public class KotlincExecutableTestGenerated extends AbstractKotlincExecutableTes
             doJvmTest(fileName);
         }
 
+        @TestMetadata("wrongJvmTarget.args")
+        public void testWrongJvmTarget() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/wrongJvmTarget.args");
+            doJvmTest(fileName);
+        }
+
         @TestMetadata("wrongScriptWithNoSource.args")
         public void testWrongScriptWithNoSource() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/cli/jvm/wrongScriptWithNoSource.args");
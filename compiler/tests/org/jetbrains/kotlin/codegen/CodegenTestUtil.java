@@ -28,7 +28,9 @@ import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
 import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.codegen.state.Progress;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
+import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil;
 import org.jetbrains.kotlin.test.KotlinTestUtils;
 import org.jetbrains.kotlin.utils.ExceptionUtilsKt;
@@ -65,7 +67,18 @@ public class CodegenTestUtil {
                 GenerationState.GenerateClassFilter.GENERATE_ALL,
                 configuration.get(JVMConfigurationKeys.DISABLE_INLINE, false),
                 configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false),
-                /* useTypeTableInSerializer = */ false
+                /* useTypeTableInSerializer = */ false,
+                /* packagesWithObsoleteParts = */ Collections.<FqName>emptySet(),
+                /* obsoleteMultifileClasses = */ Collections.<FqName>emptySet(),
+                /* targetId = */ null,
+                /* moduleName = */ null,
+                /* outDirectory = */ null,
+                /* incrementalCompilationComponents = */ null,
+                /* generateOpenMultifileClasses = */ false,
+                Progress.DEAF,
+                configuration.get(JVMConfigurationKeys.JVM_TARGET, JvmTarget.DEFAULT),
+                configuration.get(JVMConfigurationKeys.JVM_DEFAULT_METHODS, false),
+                configuration.get(JVMConfigurationKeys.INDY_LAMBDAS, false)
         );
         KotlinCodegenFacade.compileCorrectFiles(state, CompilationErrorHandler.THROW_EXCEPTION);
 
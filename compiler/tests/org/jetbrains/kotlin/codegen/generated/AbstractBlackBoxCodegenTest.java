@@ -25,14 +25,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.cli.common.output.outputUtils.OutputUtilsKt;
 import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles;
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment;
+import org.jetbrains.kotlin.cli.jvm.config.JVMConfigurationKeys;
 import org.jetbrains.kotlin.cli.jvm.config.JvmContentRootsKt;
 import org.jetbrains.kotlin.codegen.CodegenTestCase;
 import org.jetbrains.kotlin.codegen.GeneratedClassLoader;
-import org.jetbrains.kotlin.codegen.GenerationUtils;
+import org.jetbrains.kotlin.codegen.JvmTarget;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
 import org.jetbrains.kotlin.fileClasses.JvmFileClassUtil;
 import org.jetbrains.kotlin.psi.KtFile;
-import org.jetbrains.kotlin.cli.jvm.compiler.JvmPackagePartProvider;
 import org.jetbrains.kotlin.test.ConfigurationKind;
 import org.jetbrains.kotlin.test.InTextDirectivesUtils;
 import org.jetbrains.kotlin.test.KotlinTestUtils;
@@ -46,6 +46,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.jetbrains.kotlin.codegen.CodegenTestUtil.compileJava;
+import static org.jetbrains.kotlin.codegen.CodegenTestUtil.generateFiles;
 
 public abstract class AbstractBlackBoxCodegenTest extends CodegenTestCase {
     public void doTest(@NotNull String filename) {
@@ -133,12 +134,14 @@ public abstract class AbstractBlackBoxCodegenTest extends CodegenTestCase {
 
         final List<String> javaFilePaths = new ArrayList<String>();
         final List<String> ktFilePaths = new ArrayList<String>();
+        final List<String> ktFileTexts = new ArrayList<String>();
         FileUtil.processFilesRecursively(dirFile, new Processor<File>() {
             @Override
             public boolean process(File file) {
                 String path = relativePath(file);
                 if (path.endsWith(".kt")) {
                     ktFilePaths.add(path);
+                    ktFileTexts.add(FilesKt.readText(file, Charsets.UTF_8));
                 }
                 else if (path.endsWith(".java")) {
                     javaFilePaths.add(path);
@@ -151,11 +154,12 @@ public abstract class AbstractBlackBoxCodegenTest extends CodegenTestCase {
                 ConfigurationKind.ALL, TestJdkKind.MOCK_JDK, KotlinTestUtils.getAnnotationsJar()
         );
         JvmContentRootsKt.addJavaSourceRoot(configuration, dirFile);
+        for (String ktFileText : ktFileTexts) {
+            updateConfigurationByDirectives(ktFileText, configuration);
+        }
         myEnvironment = KotlinCoreEnvironment.createForTests(getTestRootDisposable(), configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
         loadFiles(ArrayUtil.toStringArray(ktFilePaths));
-        classFileFactory =
-                GenerationUtils.compileManyFilesGetGenerationStateForTest(myEnvironment.getProject(), myFiles.getPsiFiles(),
-                                                                          new JvmPackagePartProvider(myEnvironment)).getFactory();
+        classFileFactory = generateFiles(myEnvironment, myFiles);
         File kotlinOut = KotlinTestUtils.tmpDir(toString());
         OutputUtilsKt.writeAllTo(classFileFactory, kotlinOut);
 
@@ -171,6 +175,24 @@ public abstract class AbstractBlackBoxCodegenTest extends CodegenTestCase {
         blackBox();
     }
 
+    // e.g. "// JVM_TARGET: 1.8", "// JVM_DEFAULT_METHODS" and "// INDY_LAMBDAS" for -jvm-target, -Xjvm-default-methods and -Xindy-lambdas
+    private static void updateConfigurationByDirectives(@NotNull String fileText, @NotNull CompilerConfiguration configuration) {
+        String jvmTarget = InTextDirectivesUtils.findStringWithPrefixes(fileText, "// JVM_TARGET:");
+        if (jvmTarget != null) {
+            JvmTarget target = JvmTarget.fromString(jvmTarget);
+            assert target != null : "Unknown JVM target: " + jvmTarget;
+            configuration.put(JVMConfigurationKeys.JVM_TARGET, target);
+        }
+
+        if (InTextDirectivesUtils.isDirectiveDefined(fileText, "JVM_DEFAULT_METHODS")) {
+            configuration.put(JVMConfigurationKeys.JVM_DEFAULT_METHODS, true);
+        }
+
+        if (InTextDirectivesUtils.isDirectiveDefined(fileText, "INDY_LAMBDAS")) {
+            configuration.put(JVMConfigurationKeys.INDY_LAMBDAS, true);
+        }
+    }
+
     private void blackBoxFileByFullPath(@NotNull String filename) {
         loadFileByFullPath(filename);
         blackBox();
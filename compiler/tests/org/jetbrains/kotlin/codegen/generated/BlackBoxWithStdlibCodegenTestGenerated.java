@@ -1999,6 +1999,12 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/boxWithStdlib/inline"), Pattern.compile("^(.+)\\.kt$"), true);
         }
 
+        @TestMetadata("capturedVarsOptimization.kt")
+        public void testCapturedVarsOptimization() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/inline/capturedVarsOptimization.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("kt6895.kt")
         public void testKt6895() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/inline/kt6895.kt");
@@ -2737,6 +2743,36 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib(fileName);
         }
 
+        @TestMetadata("forInCopyOnWriteList.kt")
+        public void testForInCopyOnWriteList() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInCopyOnWriteList.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInIndices.kt")
+        public void testForInIndices() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInIndices.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInList.kt")
+        public void testForInList() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInList.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInListWithCustomIterator.kt")
+        public void testForInListWithCustomIterator() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInListWithCustomIterator.kt");
+            doTestWithStdlib(fileName);
+        }
+
+        @TestMetadata("forInUntil.kt")
+        public void testForInUntil() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forInUntil.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("forIntRange.kt")
         public void testForIntRange() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/ranges/forIntRange.kt");
@@ -4745,6 +4781,21 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/boxWithStdlib/sealed")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class Sealed extends AbstractBlackBoxCodegenTest {
+        public void testAllFilesPresentInSealed() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/boxWithStdlib/sealed"), Pattern.compile("^(.+)\\.kt$"), true);
+        }
+
+        @TestMetadata("whenWithManyBranches.kt")
+        public void testWhenWithManyBranches() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/sealed/whenWithManyBranches.kt");
+            doTestWithStdlib(fileName);
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/boxWithStdlib/storeStackBeforeInline")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -4945,6 +4996,12 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib(fileName);
         }
 
+        @TestMetadata("spreadWithElements.kt")
+        public void testSpreadWithElements() throws Exception {
+            String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/vararg/spreadWithElements.kt");
+            doTestWithStdlib(fileName);
+        }
+
         @TestMetadata("varargInFunParam.kt")
         public void testVarargInFunParam() throws Exception {
             String fileName = KotlinTestUtils.navigationMetadata("compiler/testData/codegen/boxWithStdlib/vararg/varargInFunParam.kt");
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import com.intellij.openapi.util.io.FileUtil
+import junit.framework.TestCase
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.logging.Logger
+import kotlin.concurrent.thread
+
+class CompilationSchedulerTest : TestCase() {
+    fun testOptionValuesAreNotCountedAsSources() {
+        val outputDir = FileUtil.createTempDirectory("compilationScheduler", "out")
+        try {
+            val oneSource = estimateCompilationHeapCost(arrayOf("a.kt"))
+            assertEquals(oneSource, estimateCompilationHeapCost(arrayOf("-d", outputDir.path, "-module-name", "test", "a.kt")))
+            assertEquals(oneSource, estimateCompilationHeapCost(arrayOf("-jvm-target", "1.8", "-no-stdlib", "a.kt")))
+            assertTrue(estimateCompilationHeapCost(arrayOf("a.kt", "b.kt")) > oneSource)
+            assertTrue(estimateCompilationHeapCost(arrayOf("-cp", "a.jar", "a.kt")) > oneSource)
+        }
+        finally {
+            FileUtil.delete(outputDir)
+        }
+    }
+
+    fun testLowPriorityCompilationWaitsBehindOthers() {
+        // with no heap to spare, a compilation is admitted only when nothing else is running
+        val scheduler = CompilationScheduler(0, Logger.getLogger("test"))
+        val order = Collections.synchronizedList(arrayListOf<String>())
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+
+        val running = thread {
+            scheduler.schedule(1) {
+                started.countDown()
+                release.await()
+                order.add("running")
+            }
+        }
+        started.await()
+        val lowPriority = thread { scheduler.schedule(1, lowPriority = true) { order.add("low priority") } }
+        waitForQueueDepth(scheduler, 1)
+        val normal = thread { scheduler.schedule(1) { admission -> assertEquals(0, admission.queuedAhead); order.add("normal") } }
+        waitForQueueDepth(scheduler, 2)
+
+        release.countDown()
+        listOf(running, lowPriority, normal).forEach { it.join() }
+        assertEquals(listOf("running", "normal", "low priority"), order)
+    }
+
+    private fun waitForQueueDepth(scheduler: CompilationScheduler, depth: Int) {
+        while (scheduler.queueDepth < depth) {
+            Thread.sleep(10)
+        }
+    }
+
+    fun testLiveHeapIsWithinMaxHeap() {
+        val liveHeap = CompilationScheduler.liveHeapAfterLastGC()
+        assertTrue(liveHeap > 0)
+        assertTrue(liveHeap <= Runtime.getRuntime().maxMemory())
+    }
+}
@@ -16,6 +16,11 @@
 
 package org.jetbrains.kotlin.daemon
 
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
+import org.jetbrains.kotlin.config.Services
 import org.jetbrains.kotlin.daemon.client.DaemonReportingTargets
 import org.jetbrains.kotlin.daemon.client.KotlinCompilerClient
 import org.jetbrains.kotlin.daemon.common.*
@@ -91,6 +96,7 @@ class CompilerDaemonTest : KotlinIntegrationTestBase() {
                     it.ifNotContainsSequence(LinePattern("Kotlin compiler daemon version"),
                                              LinePattern("Starting compilation with args: "),
                                              LinePattern("Compile on daemon: (\\d+) ms", { it.groups.get(1)?.value?.toLong()?.let { compileTime1 = it }; true }),
+                                             LinePattern("Compile queue: waited \\d+ ms behind 0 request\\(s\\)"),
                                              LinePattern("Starting compilation with args: "),
                                              LinePattern("Compile on daemon: (\\d+) ms", { it.groups.get(1)?.value?.toLong()?.let { compileTime2 = it }; true }),
                                              LinePattern("Shutdown complete"))
@@ -140,6 +146,51 @@ class CompilerDaemonTest : KotlinIntegrationTestBase() {
         }
     }
 
+    fun testCompilerMessageFrames() {
+        val location = CompilerMessageLocation.create("/src/a.kt", 3, 14, "val x = y")
+        val messages = listOf(
+                Triple(CompilerMessageSeverity.WARNING, "Variable 'x' is never used", location),
+                Triple(CompilerMessageSeverity.OUTPUT, "x".repeat(100000), CompilerMessageLocation.NO_LOCATION),
+                Triple(CompilerMessageSeverity.ERROR, "Unresolved reference: \u044f", location))
+
+        val encoded = ByteArrayOutputStream()
+        val writer = CompilerMessageFrameWriter(encoded)
+        messages.forEach { writer.report(it.first, it.second, it.third) }
+
+        val decoded = arrayListOf<Triple<CompilerMessageSeverity, String, CompilerMessageLocation>>()
+        val reader = CompilerMessageFrameReader(object : MessageCollector {
+            override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+                decoded.add(Triple(severity, message, location))
+            }
+        })
+        // frames split between writes are reported once complete
+        val bytes = encoded.toByteArray()
+        for (offset in 0..bytes.size - 1 step 7) {
+            reader.write(bytes, offset, Math.min(7, bytes.size - offset))
+        }
+        reader.close()
+
+        assertEquals(messages, decoded)
+    }
+
+    fun testReportedMessagesAreFiltered() {
+        fun compileAndCollect(vararg args: String): List<CompilerMessageSeverity> {
+            val severities = arrayListOf<CompilerMessageSeverity>()
+            K2JVMCompiler().execAndReportMessages(object : MessageCollector {
+                override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation) {
+                    severities.add(severity)
+                }
+            }, Services.EMPTY, *args)
+            return severities
+        }
+
+        val source = File(getHelloAppBaseDir(), "hello.kt").absolutePath
+        val destination = File(tmpdir, getTestName(true)).absolutePath
+        assertFalse(CompilerMessageSeverity.LOGGING in compileAndCollect(source, "-d", destination))
+        assertTrue(CompilerMessageSeverity.LOGGING in compileAndCollect("-verbose", source, "-d", destination))
+        assertEquals(listOf(CompilerMessageSeverity.INFO), compileAndCollect("-help"))
+    }
+
     fun testDaemonInstancesSimple() {
         withFlagFile(getTestName(true), ".alive") { flagFile ->
             val daemonOptions = DaemonOptions(runFilesPath = File(tmpdir, getTestName(true)).absolutePath)
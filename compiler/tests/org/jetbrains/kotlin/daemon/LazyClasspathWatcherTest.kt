@@ -0,0 +1,115 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.daemon
+
+import com.intellij.openapi.util.io.FileUtil
+import junit.framework.TestCase
+import java.io.File
+
+// the watch service may be backed by polling on some platforms, so its events can take a while
+private val CHANGE_DETECTION_TIMEOUT_MS = 30000L
+
+class LazyClasspathWatcherTest : TestCase() {
+    private lateinit var classpathDir: File
+    private lateinit var jarFile: File
+    private lateinit var classFile: File
+
+    override fun setUp() {
+        super.setUp()
+        classpathDir = FileUtil.createTempDirectory("classpathWatcher", null)
+        jarFile = File(classpathDir, "lib.jar").apply { writeBytes(byteArrayOf(1, 2, 3, 4)) }
+        classFile = File(classpathDir, "classes/A.class").apply { parentFile.mkdirs(); writeBytes(byteArrayOf(5, 6, 7, 8)) }
+        File(classpathDir, "notes.txt").writeText("not a classpath file")
+    }
+
+    override fun tearDown() {
+        FileUtil.delete(classpathDir)
+        super.tearDown()
+    }
+
+    fun testUnchangedWatching() = checkUnchanged(useWatchService = true)
+
+    fun testUnchangedPolling() = checkUnchanged(useWatchService = false)
+
+    fun testModifiedJarWatching() = checkChangeDetected(useWatchService = true) { jarFile.writeBytes(byteArrayOf(1, 2, 3, 4, 5)) }
+
+    fun testModifiedJarPolling() = checkChangeDetected(useWatchService = false) { jarFile.writeBytes(byteArrayOf(1, 2, 3, 4, 5)) }
+
+    fun testRewrittenClassWithSameMetadataWatching() = checkChangeDetected(useWatchService = true) { classFile.rewriteKeepingMetadata() }
+
+    fun testRewrittenClassWithSameMetadataPolling() = checkChangeDetected(useWatchService = false) { classFile.rewriteKeepingMetadata() }
+
+    fun testReplacedJarWatching() = checkChangeDetected(useWatchService = true) { jarFile.replaceWith(byteArrayOf(4, 3, 2, 1)) }
+
+    fun testReplacedJarPolling() = checkChangeDetected(useWatchService = false) { jarFile.replaceWith(byteArrayOf(4, 3, 2, 1)) }
+
+    fun testReplacedClassWatching() = checkChangeDetected(useWatchService = true) { classFile.replaceWith(byteArrayOf(8, 7, 6, 5)) }
+
+    fun testReplacedClassPolling() = checkChangeDetected(useWatchService = false) { classFile.replaceWith(byteArrayOf(8, 7, 6, 5)) }
+
+    fun testDeletedJarWatching() = checkChangeDetected(useWatchService = true) { assertTrue(jarFile.delete()) }
+
+    fun testDeletedJarPolling() = checkChangeDetected(useWatchService = false) { assertTrue(jarFile.delete()) }
+
+    fun testDeletedClassWatching() = checkChangeDetected(useWatchService = true) { assertTrue(classFile.delete()) }
+
+    fun testDeletedClassPolling() = checkChangeDetected(useWatchService = false) { assertTrue(classFile.delete()) }
+
+    private fun createWatcher(useWatchService: Boolean) =
+            // polling checks each time and hashes all files each time, so a rewrite keeping the metadata is detected too
+            LazyClasspathWatcher(listOf(classpathDir.path), checkPeriod = 0, digestCheckPeriod = 0, useWatchService = useWatchService)
+
+    private fun checkUnchanged(useWatchService: Boolean) {
+        val watcher = createWatcher(useWatchService)
+        assertFalse(watcher.isChanged)
+        File(classpathDir, "notes.txt").writeText("still not a classpath file")
+        classFile.setLastModified(classFile.lastModified())
+        Thread.sleep(100)
+        assertFalse(watcher.isChanged)
+    }
+
+    private fun checkChangeDetected(useWatchService: Boolean, change: () -> Unit) {
+        val watcher = createWatcher(useWatchService)
+        // the first check waits for the initial snapshot
+        assertFalse(watcher.isChanged)
+        change()
+        assertTrue("change is not detected", watcher.waitForChange())
+        // a detected change is sticky
+        assertTrue(watcher.isChanged)
+    }
+
+    private fun LazyClasspathWatcher.waitForChange(): Boolean {
+        val deadline = System.currentTimeMillis() + CHANGE_DETECTION_TIMEOUT_MS
+        while (System.currentTimeMillis() < deadline) {
+            if (isChanged) return true
+            Thread.sleep(10)
+        }
+        return false
+    }
+
+    private fun File.rewriteKeepingMetadata() {
+        val lastModified = lastModified()
+        writeBytes(readBytes().reversedArray())
+        assertTrue(setLastModified(lastModified))
+    }
+
+    private fun File.replaceWith(content: ByteArray) {
+        val newFile = File(parentFile, "$name.new").apply { writeBytes(content) }
+        assertTrue(delete())
+        assertTrue(newFile.renameTo(this))
+    }
+}
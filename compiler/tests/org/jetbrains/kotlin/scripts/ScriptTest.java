@@ -30,6 +30,7 @@ import org.jetbrains.kotlin.config.CommonConfigurationKeys;
 import org.jetbrains.kotlin.config.CompilerConfiguration;
 import org.jetbrains.kotlin.config.ContentRootsKt;
 import org.jetbrains.kotlin.name.Name;
+import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.jvm.platform.JvmPlatform;
 import org.jetbrains.kotlin.script.KotlinScriptDefinition;
 import org.jetbrains.kotlin.script.ScriptParameter;
@@ -66,6 +67,33 @@ public class ScriptTest {
         aClass.getConstructor(int.class).newInstance(4);
     }
 
+    @Test
+    public void testScriptDefinitionIsUsedWhenSourceFilesAreParsed() throws Exception {
+        Disposable rootDisposable = Disposer.newDisposable();
+        try {
+            CompilerConfiguration configuration =
+                    KotlinTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.FULL_JDK);
+            configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, PrintingMessageCollector.PLAIN_TEXT_TO_SYSTEM_ERR);
+            // several files, so that their trees are built by the parallel pre-parse of the environment
+            ContentRootsKt.addKotlinSourceRoot(configuration, "compiler/testData/script/fib.fib.kt");
+            ContentRootsKt.addKotlinSourceRoot(configuration, "compiler/testData/script/fib.kts");
+            ContentRootsKt.addKotlinSourceRoot(configuration, "compiler/testData/script/fib.pkg.kts");
+            configuration.add(CommonConfigurationKeys.SCRIPT_DEFINITIONS_KEY, new TestScriptDefinition(".fib.kt", numIntParam()));
+
+            KotlinCoreEnvironment environment =
+                    KotlinCoreEnvironment.createForProduction(rootDisposable, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES);
+
+            Assert.assertEquals(3, environment.getSourceFiles().size());
+            for (KtFile file : environment.getSourceFiles()) {
+                boolean expectedScript = file.getName().endsWith(".fib.kt");
+                Assert.assertEquals(file.getName(), expectedScript, file.isScriptByTree());
+            }
+        }
+        finally {
+            Disposer.dispose(rootDisposable);
+        }
+    }
+
     @Nullable
     private static Class<?> compileScript(
             @NotNull String scriptPath,
@@ -972,6 +972,10 @@ fun main(args: Array<String>) {
         testClass<AbstractAnnotationProcessorBoxTest>() {
             model("collectToFile", recursive = false, extension = null)
         }
+
+        testClass<AbstractAnnotationProcessorBoxTest>("AnnotationProcessorIncrementalTestGenerated") {
+            model("collectToFileIncremental", recursive = false, extension = null, testMethod = "doIncrementalTest")
+        }
     }
 
     testGroup("plugins/android-idea-plugin/tests", "plugins/android-idea-plugin/testData") {
@@ -73,6 +73,10 @@ import org.jetbrains.kotlin.utils.keysToMap
 import org.jetbrains.org.objectweb.asm.ClassReader
 import java.io.File
 import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 class KotlinBuilder : ModuleLevelBuilder(BuilderCategory.SOURCE_PROCESSOR) {
     companion object {
@@ -767,7 +771,10 @@ private fun CompilationResult.doProcessChangesUsingLookups(
     val dirtyLookupSymbols = HashSet<LookupSymbol>()
     val dirtyClassesFqNames = HashSet<FqName>()
     val lookupStorage = dataManager.getStorage(KotlinDataContainerTarget, JpsLookupStorageProvider)
-    val allCaches: Sequence<IncrementalCacheImpl<*>> = caches.asSequence().flatMap { it.dependentsWithThis }
+    // every cache of the chunk has the same dependents, so they should be visited only once
+    val allCaches: List<IncrementalCacheImpl<*>> = caches.asSequence().flatMap { it.dependentsWithThis }.distinct().toList()
+    val subtypes = SubtypesExpander(allCaches)
+    val start = System.nanoTime()
 
     KotlinBuilder.LOG.debug("Start processing changes")
 
@@ -775,7 +782,7 @@ private fun CompilationResult.doProcessChangesUsingLookups(
         KotlinBuilder.LOG.debug("Process $change")
 
         if (change is ChangeInfo.SignatureChanged) {
-            val fqNames = if (!change.areSubclassesAffected) listOf(change.fqName) else withSubtypes(change.fqName, allCaches)
+            val fqNames = if (!change.areSubclassesAffected) listOf(change.fqName) else subtypes.withSubtypes(change.fqName)
 
             for (classFqName in fqNames) {
                 assert(!classFqName.isRoot) { "classFqName is root when processing $change" }
@@ -786,7 +793,7 @@ private fun CompilationResult.doProcessChangesUsingLookups(
             }
         }
         else if (change is ChangeInfo.MembersChanged) {
-            val fqNames = withSubtypes(change.fqName, allCaches)
+            val fqNames = subtypes.withSubtypes(change.fqName)
             // need to recompile subtypes because changed member might break override
             dirtyClassesFqNames.addAll(fqNames)
 
@@ -798,8 +805,8 @@ private fun CompilationResult.doProcessChangesUsingLookups(
 
     val dirtyFiles = HashSet<File>()
 
-    for (lookup in dirtyLookupSymbols) {
-        val affectedFiles = lookupStorage.get(lookup).map(::File)
+    for ((lookup, paths) in lookupStorage.getAll(dirtyLookupSymbols)) {
+        val affectedFiles = paths.map(::File)
 
         KotlinBuilder.LOG.debug { "${lookup.scope}#${lookup.name} caused recompilation of: $affectedFiles" }
 
@@ -813,37 +820,73 @@ private fun CompilationResult.doProcessChangesUsingLookups(
         }
     }
 
+    KotlinBuilder.LOG.info("Computed ${dirtyFiles.size} dirty files from ${dirtyLookupSymbols.size} lookup symbols " +
+                           "and ${dirtyClassesFqNames.size} classes in ${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)} ms")
+
     fsOperations.markFiles(dirtyFiles.asIterable(), excludeFiles = compiledFiles)
     KotlinBuilder.LOG.debug("End of processing changes")
 }
 
+private val SUBTYPES_LOOKUP_EXECUTOR by lazy {
+    Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()) { runnable ->
+        Thread(runnable, "Kotlin subtypes lookup").apply { isDaemon = true }
+    }
+}
+
 /**
- * Returns type with its subtypes transitively
+ * Computes types with their subtypes transitively
  *
  * For example:
  *    open class A
  *    open class B : A()
  *    class C : B()
  * withSubtypes(A) will return [A, B, C]
+ *
+ * Direct subtypes are remembered, so a hierarchy shared by several changes is read from the caches once.
+ * The hierarchy is expanded level by level, and each level is looked up in all the caches in parallel.
  */
-private fun withSubtypes(
-        typeFqName: FqName,
-        caches: Sequence<IncrementalCacheImpl<*>>
-): Set<FqName> {
-    val types = LinkedList(listOf(typeFqName))
-    val subtypes = hashSetOf<FqName>()
+private class SubtypesExpander(private val caches: List<IncrementalCacheImpl<*>>) {
+    private val directSubtypes = HashMap<FqName, Set<FqName>>()
 
-    while (types.isNotEmpty()) {
-        val unprocessedType = types.pollFirst()
+    fun withSubtypes(typeFqName: FqName): Set<FqName> {
+        val subtypes = linkedSetOf(typeFqName)
+        var unprocessedTypes: Collection<FqName> = listOf(typeFqName)
 
-        caches.flatMap { it.getSubtypesOf(unprocessedType) }
-              .filter { it !in subtypes }
-              .forEach { types.addLast(it) }
+        while (unprocessedTypes.isNotEmpty()) {
+            loadDirectSubtypes(unprocessedTypes)
+            unprocessedTypes = unprocessedTypes.flatMap { directSubtypes[it]!! }.filter { subtypes.add(it) }
+        }
 
-        subtypes.add(unprocessedType)
+        return subtypes
+    }
+
+    private fun loadDirectSubtypes(types: Collection<FqName>) {
+        val unknownTypes = types.filter { it !in directSubtypes }
+        if (unknownTypes.isEmpty()) return
+
+        val subtypesByCache: List<List<Set<FqName>>> =
+                if (caches.size > 1) {
+                    caches.map { cache -> SUBTYPES_LOOKUP_EXECUTOR.submit(Callable { cache.getDirectSubtypes(unknownTypes) }) }
+                            .map { future ->
+                                try {
+                                    future.get()
+                                }
+                                catch (e: ExecutionException) {
+                                    throw e.cause ?: e
+                                }
+                            }
+                }
+                else {
+                    caches.map { it.getDirectSubtypes(unknownTypes) }
+                }
+
+        for ((i, type) in unknownTypes.withIndex()) {
+            directSubtypes[type] = subtypesByCache.flatMapTo(HashSet()) { it[i] }
+        }
     }
 
-    return subtypes
+    private fun IncrementalCacheImpl<*>.getDirectSubtypes(types: List<FqName>): List<Set<FqName>> =
+            types.map { getSubtypesOf(it).toSet() }
 }
 
 private fun getLookupTracker(project: JpsProject): LookupTracker {
@@ -0,0 +1,2023 @@
+@file:kotlin.jvm.JvmName("PrimitiveCollectionsKt")
+@file:kotlin.jvm.JvmVersion
+
+package kotlin.collections
+
+//
+// NOTE THIS FILE IS AUTO-GENERATED by the GenerateStandardLib.kt
+// See: https://github.com/JetBrains/kotlin/tree/master/libraries/stdlib
+//
+
+/**
+ * A growable list of `Int` values backed by a [IntArray], which stores the elements without boxing.
+ */
+public class IntList(initialCapacity: Int = 10) {
+    private var elements: IntArray
+
+    /**
+     * Returns the number of elements in this list.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        elements = IntArray(initialCapacity)
+    }
+
+    /**
+     * Returns the range of valid indices for this list.
+     */
+    public val indices: IntRange
+        get() = 0..size - 1
+
+    /**
+     * Returns `true` if this list is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this list is not empty.
+     */
+    public fun isNotEmpty(): Boolean = size != 0
+
+    /**
+     * Returns the element at the specified [index].
+     */
+    public operator fun get(index: Int): Int {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    /**
+     * Replaces the element at the specified [index] and returns the previous one.
+     */
+    public operator fun set(index: Int, element: Int): Int {
+        checkIndex(index)
+        val previous = elements[index]
+        elements[index] = element
+        return previous
+    }
+
+    /**
+     * Appends the [element] to the end of this list.
+     */
+    public fun add(element: Int) {
+        ensureCapacity(size + 1)
+        elements[size++] = element
+    }
+
+    /**
+     * Inserts the [element] at the specified [index], shifting the following elements.
+     */
+    public fun add(index: Int, element: Int) {
+        if (index < 0 || index > size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        ensureCapacity(size + 1)
+        System.arraycopy(elements, index, elements, index + 1, size - index)
+        elements[index] = element
+        size++
+    }
+
+    /**
+     * Appends all the [elements] to the end of this list.
+     */
+    public fun addAll(elements: IntArray) {
+        ensureCapacity(size + elements.size)
+        System.arraycopy(elements, 0, this.elements, size, elements.size)
+        size += elements.size
+    }
+
+    /**
+     * Appends all the elements of the [other] list to the end of this list.
+     */
+    public fun addAll(other: IntList) {
+        ensureCapacity(size + other.size)
+        System.arraycopy(other.elements, 0, elements, size, other.size)
+        size += other.size
+    }
+
+    /**
+     * Removes the element at the specified [index] and returns it.
+     */
+    public fun removeAt(index: Int): Int {
+        checkIndex(index)
+        val removed = elements[index]
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1)
+        size--
+        return removed
+    }
+
+    /**
+     * Removes all elements from this list, keeping its capacity.
+     */
+    public fun clear() {
+        size = 0
+    }
+
+    /**
+     * Returns `true` if the [element] is found in this list.
+     */
+    public operator fun contains(element: Int): Boolean = indexOf(element) >= 0
+
+    /**
+     * Returns the first index of the [element], or -1 if this list does not contain it.
+     */
+    public fun indexOf(element: Int): Int {
+        for (index in 0..size - 1) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Returns the last index of the [element], or -1 if this list does not contain it.
+     */
+    public fun lastIndexOf(element: Int): Int {
+        for (index in size - 1 downTo 0) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Sorts the elements of this list in place.
+     */
+    public fun sort() {
+        java.util.Arrays.sort(elements, 0, size)
+    }
+
+    /**
+     * Returns the sum of all elements in this list.
+     */
+    public fun sum(): Int {
+        var sum: Int = 0
+        for (index in 0..size - 1) {
+            sum += elements[index]
+        }
+        return sum
+    }
+
+    /**
+     * Returns an array containing all elements of this list.
+     */
+    public fun toArray(): IntArray = java.util.Arrays.copyOf(elements, size)
+
+    /**
+     * Makes sure this list can hold at least [minCapacity] elements without growing.
+     */
+    public fun ensureCapacity(minCapacity: Int) {
+        if (minCapacity > elements.size) {
+            elements = java.util.Arrays.copyOf(elements, Math.max(minCapacity, elements.size + (elements.size shr 1)))
+        }
+    }
+
+    /**
+     * Shrinks the capacity of this list to its size.
+     */
+    public fun trimToSize() {
+        if (size < elements.size) {
+            elements = java.util.Arrays.copyOf(elements, size)
+        }
+    }
+
+    /**
+     * Performs the given [action] on each element.
+     */
+    public inline fun forEach(action: (Int) -> Unit) {
+        for (index in 0..size - 1) action(get(index))
+    }
+
+    /**
+     * Performs the given [action] on each element, providing its index.
+     */
+    public inline fun forEachIndexed(action: (Int, Int) -> Unit) {
+        for (index in 0..size - 1) action(index, get(index))
+    }
+
+    /**
+     * Returns `true` if at least one element matches the given [predicate].
+     */
+    public inline fun any(predicate: (Int) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (predicate(get(index))) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all elements match the given [predicate].
+     */
+    public inline fun all(predicate: (Int) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (!predicate(get(index))) return false
+        return true
+    }
+
+    /**
+     * Returns the number of elements matching the given [predicate].
+     */
+    public inline fun count(predicate: (Int) -> Boolean): Int {
+        var count = 0
+        for (index in 0..size - 1) if (predicate(get(index))) count++
+        return count
+    }
+
+    /**
+     * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+     */
+    public inline fun <R> fold(initial: R, operation: (R, Int) -> R): R {
+        var accumulator = initial
+        for (index in 0..size - 1) accumulator = operation(accumulator, get(index))
+        return accumulator
+    }
+
+    /**
+     * Returns a list containing only elements matching the given [predicate].
+     */
+    public inline fun filter(predicate: (Int) -> Boolean): IntList {
+        val result = IntList()
+        for (index in 0..size - 1) {
+            val element = get(index)
+            if (predicate(element)) result.add(element)
+        }
+        return result
+    }
+
+    /**
+     * Returns a list containing the results of applying the given [transform] function to each element.
+     */
+    public inline fun map(transform: (Int) -> Int): IntList {
+        val result = IntList(size)
+        for (index in 0..size - 1) result.add(transform(get(index)))
+        return result
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is IntList || size != other.size) return false
+        for (index in 0..size - 1) {
+            if (!same(elements[index], other.elements[index])) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 1
+        for (index in 0..size - 1) {
+            result = 31 * result + hash(elements[index])
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (index in 0..size - 1) {
+            if (index > 0) builder.append(", ")
+            builder.append(elements[index])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+    }
+}
+
+/**
+ * Returns a new [IntList] with the given elements.
+ */
+public fun intListOf(vararg elements: Int): IntList = elements.toIntList()
+
+/**
+ * Returns a new [IntList] filled with all elements of this array.
+ */
+public fun IntArray.toIntList(): IntList {
+    val result = IntList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * A growable list of `Long` values backed by a [LongArray], which stores the elements without boxing.
+ */
+public class LongList(initialCapacity: Int = 10) {
+    private var elements: LongArray
+
+    /**
+     * Returns the number of elements in this list.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        elements = LongArray(initialCapacity)
+    }
+
+    /**
+     * Returns the range of valid indices for this list.
+     */
+    public val indices: IntRange
+        get() = 0..size - 1
+
+    /**
+     * Returns `true` if this list is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this list is not empty.
+     */
+    public fun isNotEmpty(): Boolean = size != 0
+
+    /**
+     * Returns the element at the specified [index].
+     */
+    public operator fun get(index: Int): Long {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    /**
+     * Replaces the element at the specified [index] and returns the previous one.
+     */
+    public operator fun set(index: Int, element: Long): Long {
+        checkIndex(index)
+        val previous = elements[index]
+        elements[index] = element
+        return previous
+    }
+
+    /**
+     * Appends the [element] to the end of this list.
+     */
+    public fun add(element: Long) {
+        ensureCapacity(size + 1)
+        elements[size++] = element
+    }
+
+    /**
+     * Inserts the [element] at the specified [index], shifting the following elements.
+     */
+    public fun add(index: Int, element: Long) {
+        if (index < 0 || index > size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        ensureCapacity(size + 1)
+        System.arraycopy(elements, index, elements, index + 1, size - index)
+        elements[index] = element
+        size++
+    }
+
+    /**
+     * Appends all the [elements] to the end of this list.
+     */
+    public fun addAll(elements: LongArray) {
+        ensureCapacity(size + elements.size)
+        System.arraycopy(elements, 0, this.elements, size, elements.size)
+        size += elements.size
+    }
+
+    /**
+     * Appends all the elements of the [other] list to the end of this list.
+     */
+    public fun addAll(other: LongList) {
+        ensureCapacity(size + other.size)
+        System.arraycopy(other.elements, 0, elements, size, other.size)
+        size += other.size
+    }
+
+    /**
+     * Removes the element at the specified [index] and returns it.
+     */
+    public fun removeAt(index: Int): Long {
+        checkIndex(index)
+        val removed = elements[index]
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1)
+        size--
+        return removed
+    }
+
+    /**
+     * Removes all elements from this list, keeping its capacity.
+     */
+    public fun clear() {
+        size = 0
+    }
+
+    /**
+     * Returns `true` if the [element] is found in this list.
+     */
+    public operator fun contains(element: Long): Boolean = indexOf(element) >= 0
+
+    /**
+     * Returns the first index of the [element], or -1 if this list does not contain it.
+     */
+    public fun indexOf(element: Long): Int {
+        for (index in 0..size - 1) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Returns the last index of the [element], or -1 if this list does not contain it.
+     */
+    public fun lastIndexOf(element: Long): Int {
+        for (index in size - 1 downTo 0) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Sorts the elements of this list in place.
+     */
+    public fun sort() {
+        java.util.Arrays.sort(elements, 0, size)
+    }
+
+    /**
+     * Returns the sum of all elements in this list.
+     */
+    public fun sum(): Long {
+        var sum: Long = 0L
+        for (index in 0..size - 1) {
+            sum += elements[index]
+        }
+        return sum
+    }
+
+    /**
+     * Returns an array containing all elements of this list.
+     */
+    public fun toArray(): LongArray = java.util.Arrays.copyOf(elements, size)
+
+    /**
+     * Makes sure this list can hold at least [minCapacity] elements without growing.
+     */
+    public fun ensureCapacity(minCapacity: Int) {
+        if (minCapacity > elements.size) {
+            elements = java.util.Arrays.copyOf(elements, Math.max(minCapacity, elements.size + (elements.size shr 1)))
+        }
+    }
+
+    /**
+     * Shrinks the capacity of this list to its size.
+     */
+    public fun trimToSize() {
+        if (size < elements.size) {
+            elements = java.util.Arrays.copyOf(elements, size)
+        }
+    }
+
+    /**
+     * Performs the given [action] on each element.
+     */
+    public inline fun forEach(action: (Long) -> Unit) {
+        for (index in 0..size - 1) action(get(index))
+    }
+
+    /**
+     * Performs the given [action] on each element, providing its index.
+     */
+    public inline fun forEachIndexed(action: (Int, Long) -> Unit) {
+        for (index in 0..size - 1) action(index, get(index))
+    }
+
+    /**
+     * Returns `true` if at least one element matches the given [predicate].
+     */
+    public inline fun any(predicate: (Long) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (predicate(get(index))) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all elements match the given [predicate].
+     */
+    public inline fun all(predicate: (Long) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (!predicate(get(index))) return false
+        return true
+    }
+
+    /**
+     * Returns the number of elements matching the given [predicate].
+     */
+    public inline fun count(predicate: (Long) -> Boolean): Int {
+        var count = 0
+        for (index in 0..size - 1) if (predicate(get(index))) count++
+        return count
+    }
+
+    /**
+     * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+     */
+    public inline fun <R> fold(initial: R, operation: (R, Long) -> R): R {
+        var accumulator = initial
+        for (index in 0..size - 1) accumulator = operation(accumulator, get(index))
+        return accumulator
+    }
+
+    /**
+     * Returns a list containing only elements matching the given [predicate].
+     */
+    public inline fun filter(predicate: (Long) -> Boolean): LongList {
+        val result = LongList()
+        for (index in 0..size - 1) {
+            val element = get(index)
+            if (predicate(element)) result.add(element)
+        }
+        return result
+    }
+
+    /**
+     * Returns a list containing the results of applying the given [transform] function to each element.
+     */
+    public inline fun map(transform: (Long) -> Long): LongList {
+        val result = LongList(size)
+        for (index in 0..size - 1) result.add(transform(get(index)))
+        return result
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is LongList || size != other.size) return false
+        for (index in 0..size - 1) {
+            if (!same(elements[index], other.elements[index])) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 1
+        for (index in 0..size - 1) {
+            result = 31 * result + hash(elements[index])
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (index in 0..size - 1) {
+            if (index > 0) builder.append(", ")
+            builder.append(elements[index])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+    }
+}
+
+/**
+ * Returns a new [LongList] with the given elements.
+ */
+public fun longListOf(vararg elements: Long): LongList = elements.toLongList()
+
+/**
+ * Returns a new [LongList] filled with all elements of this array.
+ */
+public fun LongArray.toLongList(): LongList {
+    val result = LongList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * A growable list of `Double` values backed by a [DoubleArray], which stores the elements without boxing.
+ */
+public class DoubleList(initialCapacity: Int = 10) {
+    private var elements: DoubleArray
+
+    /**
+     * Returns the number of elements in this list.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        elements = DoubleArray(initialCapacity)
+    }
+
+    /**
+     * Returns the range of valid indices for this list.
+     */
+    public val indices: IntRange
+        get() = 0..size - 1
+
+    /**
+     * Returns `true` if this list is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this list is not empty.
+     */
+    public fun isNotEmpty(): Boolean = size != 0
+
+    /**
+     * Returns the element at the specified [index].
+     */
+    public operator fun get(index: Int): Double {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    /**
+     * Replaces the element at the specified [index] and returns the previous one.
+     */
+    public operator fun set(index: Int, element: Double): Double {
+        checkIndex(index)
+        val previous = elements[index]
+        elements[index] = element
+        return previous
+    }
+
+    /**
+     * Appends the [element] to the end of this list.
+     */
+    public fun add(element: Double) {
+        ensureCapacity(size + 1)
+        elements[size++] = element
+    }
+
+    /**
+     * Inserts the [element] at the specified [index], shifting the following elements.
+     */
+    public fun add(index: Int, element: Double) {
+        if (index < 0 || index > size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        ensureCapacity(size + 1)
+        System.arraycopy(elements, index, elements, index + 1, size - index)
+        elements[index] = element
+        size++
+    }
+
+    /**
+     * Appends all the [elements] to the end of this list.
+     */
+    public fun addAll(elements: DoubleArray) {
+        ensureCapacity(size + elements.size)
+        System.arraycopy(elements, 0, this.elements, size, elements.size)
+        size += elements.size
+    }
+
+    /**
+     * Appends all the elements of the [other] list to the end of this list.
+     */
+    public fun addAll(other: DoubleList) {
+        ensureCapacity(size + other.size)
+        System.arraycopy(other.elements, 0, elements, size, other.size)
+        size += other.size
+    }
+
+    /**
+     * Removes the element at the specified [index] and returns it.
+     */
+    public fun removeAt(index: Int): Double {
+        checkIndex(index)
+        val removed = elements[index]
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1)
+        size--
+        return removed
+    }
+
+    /**
+     * Removes all elements from this list, keeping its capacity.
+     */
+    public fun clear() {
+        size = 0
+    }
+
+    /**
+     * Returns `true` if the [element] is found in this list.
+     */
+    public operator fun contains(element: Double): Boolean = indexOf(element) >= 0
+
+    /**
+     * Returns the first index of the [element], or -1 if this list does not contain it.
+     */
+    public fun indexOf(element: Double): Int {
+        for (index in 0..size - 1) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Returns the last index of the [element], or -1 if this list does not contain it.
+     */
+    public fun lastIndexOf(element: Double): Int {
+        for (index in size - 1 downTo 0) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Sorts the elements of this list in place.
+     */
+    public fun sort() {
+        java.util.Arrays.sort(elements, 0, size)
+    }
+
+    /**
+     * Returns the sum of all elements in this list.
+     */
+    public fun sum(): Double {
+        var sum: Double = 0.0
+        for (index in 0..size - 1) {
+            sum += elements[index]
+        }
+        return sum
+    }
+
+    /**
+     * Returns an array containing all elements of this list.
+     */
+    public fun toArray(): DoubleArray = java.util.Arrays.copyOf(elements, size)
+
+    /**
+     * Makes sure this list can hold at least [minCapacity] elements without growing.
+     */
+    public fun ensureCapacity(minCapacity: Int) {
+        if (minCapacity > elements.size) {
+            elements = java.util.Arrays.copyOf(elements, Math.max(minCapacity, elements.size + (elements.size shr 1)))
+        }
+    }
+
+    /**
+     * Shrinks the capacity of this list to its size.
+     */
+    public fun trimToSize() {
+        if (size < elements.size) {
+            elements = java.util.Arrays.copyOf(elements, size)
+        }
+    }
+
+    /**
+     * Performs the given [action] on each element.
+     */
+    public inline fun forEach(action: (Double) -> Unit) {
+        for (index in 0..size - 1) action(get(index))
+    }
+
+    /**
+     * Performs the given [action] on each element, providing its index.
+     */
+    public inline fun forEachIndexed(action: (Int, Double) -> Unit) {
+        for (index in 0..size - 1) action(index, get(index))
+    }
+
+    /**
+     * Returns `true` if at least one element matches the given [predicate].
+     */
+    public inline fun any(predicate: (Double) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (predicate(get(index))) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all elements match the given [predicate].
+     */
+    public inline fun all(predicate: (Double) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (!predicate(get(index))) return false
+        return true
+    }
+
+    /**
+     * Returns the number of elements matching the given [predicate].
+     */
+    public inline fun count(predicate: (Double) -> Boolean): Int {
+        var count = 0
+        for (index in 0..size - 1) if (predicate(get(index))) count++
+        return count
+    }
+
+    /**
+     * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+     */
+    public inline fun <R> fold(initial: R, operation: (R, Double) -> R): R {
+        var accumulator = initial
+        for (index in 0..size - 1) accumulator = operation(accumulator, get(index))
+        return accumulator
+    }
+
+    /**
+     * Returns a list containing only elements matching the given [predicate].
+     */
+    public inline fun filter(predicate: (Double) -> Boolean): DoubleList {
+        val result = DoubleList()
+        for (index in 0..size - 1) {
+            val element = get(index)
+            if (predicate(element)) result.add(element)
+        }
+        return result
+    }
+
+    /**
+     * Returns a list containing the results of applying the given [transform] function to each element.
+     */
+    public inline fun map(transform: (Double) -> Double): DoubleList {
+        val result = DoubleList(size)
+        for (index in 0..size - 1) result.add(transform(get(index)))
+        return result
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is DoubleList || size != other.size) return false
+        for (index in 0..size - 1) {
+            if (!same(elements[index], other.elements[index])) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 1
+        for (index in 0..size - 1) {
+            result = 31 * result + hash(elements[index])
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (index in 0..size - 1) {
+            if (index > 0) builder.append(", ")
+            builder.append(elements[index])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: $index, Size: $size")
+    }
+}
+
+/**
+ * Returns a new [DoubleList] with the given elements.
+ */
+public fun doubleListOf(vararg elements: Double): DoubleList = elements.toDoubleList()
+
+/**
+ * Returns a new [DoubleList] filled with all elements of this array.
+ */
+public fun DoubleArray.toDoubleList(): DoubleList {
+    val result = DoubleList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * A hash map from `Int` keys to `Int` values, which keeps the keys in a [IntArray] without boxing.
+ * Entries are placed with open addressing and linear probing.
+ */
+public class IntIntMap(initialCapacity: Int = 8) {
+    // 0 marks a free slot in [keys], so the value for the key 0 is kept in the extra last slot of [values]
+    private var keys: IntArray
+    private var values: IntArray
+    private var hasZeroKey: Boolean = false
+    private var threshold: Int = 0
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        val tableSize = primitiveMapTableSize(initialCapacity)
+        keys = IntArray(tableSize)
+        values = IntArray(tableSize + 1)
+        threshold = primitiveMapThreshold(tableSize)
+    }
+
+    /**
+     * Returns `true` if this map is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this map contains the given [key].
+     */
+    public fun containsKey(key: Int): Boolean = findSlot(key) >= 0
+
+    /**
+     * Returns the value for the given [key], or [defaultValue] if the key is missing in this map.
+     */
+    public fun getOrDefault(key: Int, defaultValue: Int): Int {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else defaultValue
+    }
+
+    /**
+     * Returns the value for the given [key] or throws an exception if the key is missing in this map.
+     */
+    public fun getValue(key: Int): Int {
+        val slot = findSlot(key)
+        if (slot < 0) throw NoSuchElementException("Key $key is missing in the map.")
+        return valueAt(slot)
+    }
+
+    /**
+     * Associates the [value] with the [key] in this map.
+     */
+    public operator fun set(key: Int, value: Int) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+            }
+            values[keys.size] = value
+            return
+        }
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == 0) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size >= threshold) rehash(keys.size * 2)
+                return
+            }
+            if (current == key) {
+                values[slot] = value
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Removes the [key] and its value from this map.
+     * @return `true` if the key was present in this map.
+     */
+    public fun remove(key: Int): Boolean {
+        val slot = findSlot(key)
+        if (slot < 0) return false
+
+        if (key == 0) {
+            hasZeroKey = false
+            values[keys.size] = 0
+        }
+        else {
+            // shift the following entries of the cluster back, so that lookups don't stop at the freed slot
+            val mask = keys.size - 1
+            var gap = slot
+            var next = (gap + 1) and mask
+            while (keys[next] != 0) {
+                val ideal = mix(keys[next]) and mask
+                if (((next - ideal) and mask) >= ((next - gap) and mask)) {
+                    keys[gap] = keys[next]
+                    values[gap] = values[next]
+                    gap = next
+                }
+                next = (next + 1) and mask
+            }
+            keys[gap] = 0
+            values[gap] = 0
+        }
+        size--
+        return true
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public fun clear() {
+        java.util.Arrays.fill(keys, 0)
+        java.util.Arrays.fill(values, 0)
+        hasZeroKey = false
+        size = 0
+    }
+
+    /**
+     * Returns an array containing all keys of this map.
+     */
+    public fun keysToArray(): IntArray {
+        val result = IntArray(size)
+        var index = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) result[index++] = cursor.key
+        return result
+    }
+
+    /**
+     * Returns a cursor over the entries of this map. The map should not be modified while the cursor is used.
+     */
+    public fun cursor(): Cursor = Cursor()
+
+    /**
+     * Performs the given [action] on each entry.
+     */
+    public inline fun forEach(action: (Int, Int) -> Unit) {
+        val cursor = cursor()
+        while (cursor.moveNext()) action(cursor.key, cursor.value)
+    }
+
+    /**
+     * Returns `true` if at least one entry matches the given [predicate].
+     */
+    public inline fun any(predicate: (Int, Int) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all entries match the given [predicate].
+     */
+    public inline fun all(predicate: (Int, Int) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (!predicate(cursor.key, cursor.value)) return false
+        return true
+    }
+
+    /**
+     * Returns the number of entries matching the given [predicate].
+     */
+    public inline fun count(predicate: (Int, Int) -> Boolean): Int {
+        var count = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) count++
+        return count
+    }
+
+    /**
+     * Iterates over the entries of the map without allocating an object per entry.
+     * [key] and [value] return the current entry after [moveNext] has returned `true`.
+     */
+    public inner class Cursor internal constructor() {
+        private var slot = -1
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public val key: Int
+            get() = if (slot == keys.size) 0 else keys[slot]
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public val value: Int
+            get() = valueAt(slot)
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return `false` if there are no more entries.
+         */
+        public fun moveNext(): Boolean {
+            while (++slot < keys.size) {
+                if (keys[slot] != 0) return true
+            }
+            return slot == keys.size && hasZeroKey
+        }
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is IntIntMap || size != other.size) return false
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            val slot = other.findSlot(cursor.key)
+            if (slot < 0 || !same(cursor.value, other.valueAt(slot))) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            result += hash(cursor.key) xor hash(cursor.value)
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        val cursor = cursor()
+        var first = true
+        while (cursor.moveNext()) {
+            if (!first) builder.append(", ")
+            builder.append(cursor.key).append('=').append(cursor.value)
+            first = false
+        }
+        return builder.append("}").toString()
+    }
+
+    private fun findSlot(key: Int): Int {
+        if (key == 0) return if (hasZeroKey) keys.size else -1
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == key) return slot
+            if (current == 0) return -1
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun valueAt(slot: Int): Int = values[slot]
+
+    private fun rehash(tableSize: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = IntArray(tableSize)
+        values = IntArray(tableSize + 1)
+        values[tableSize] = oldValues[oldKeys.size]
+        threshold = primitiveMapThreshold(tableSize)
+
+        val mask = tableSize - 1
+        for (oldSlot in oldKeys.indices) {
+            val key = oldKeys[oldSlot]
+            if (key == 0) continue
+            var slot = mix(key) and mask
+            while (keys[slot] != 0) slot = (slot + 1) and mask
+            keys[slot] = key
+            values[slot] = oldValues[oldSlot]
+        }
+    }
+}
+
+/**
+ * A hash map from `Int` keys to values of type [V], which keeps the keys in a [IntArray] without boxing.
+ * Entries are placed with open addressing and linear probing.
+ */
+public class IntObjectMap<V>(initialCapacity: Int = 8) {
+    // 0 marks a free slot in [keys], so the value for the key 0 is kept in the extra last slot of [values]
+    private var keys: IntArray
+    private var values: Array<Any?>
+    private var hasZeroKey: Boolean = false
+    private var threshold: Int = 0
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        val tableSize = primitiveMapTableSize(initialCapacity)
+        keys = IntArray(tableSize)
+        values = arrayOfNulls<Any?>(tableSize + 1)
+        threshold = primitiveMapThreshold(tableSize)
+    }
+
+    /**
+     * Returns `true` if this map is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this map contains the given [key].
+     */
+    public fun containsKey(key: Int): Boolean = findSlot(key) >= 0
+
+    /**
+     * Returns the value for the given [key], or `null` if the key is missing in this map.
+     */
+    public operator fun get(key: Int): V? {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else null
+    }
+
+    /**
+     * Returns the value for the given [key], or [defaultValue] if the key is missing in this map.
+     */
+    public fun getOrDefault(key: Int, defaultValue: V): V {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else defaultValue
+    }
+
+    /**
+     * Returns the value for the given [key] or throws an exception if the key is missing in this map.
+     */
+    public fun getValue(key: Int): V {
+        val slot = findSlot(key)
+        if (slot < 0) throw NoSuchElementException("Key $key is missing in the map.")
+        return valueAt(slot)
+    }
+
+    /**
+     * Associates the [value] with the [key] in this map.
+     */
+    public operator fun set(key: Int, value: V) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+            }
+            values[keys.size] = value
+            return
+        }
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == 0) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size >= threshold) rehash(keys.size * 2)
+                return
+            }
+            if (current == key) {
+                values[slot] = value
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Removes the [key] and its value from this map.
+     * @return `true` if the key was present in this map.
+     */
+    public fun remove(key: Int): Boolean {
+        val slot = findSlot(key)
+        if (slot < 0) return false
+
+        if (key == 0) {
+            hasZeroKey = false
+            values[keys.size] = null
+        }
+        else {
+            // shift the following entries of the cluster back, so that lookups don't stop at the freed slot
+            val mask = keys.size - 1
+            var gap = slot
+            var next = (gap + 1) and mask
+            while (keys[next] != 0) {
+                val ideal = mix(keys[next]) and mask
+                if (((next - ideal) and mask) >= ((next - gap) and mask)) {
+                    keys[gap] = keys[next]
+                    values[gap] = values[next]
+                    gap = next
+                }
+                next = (next + 1) and mask
+            }
+            keys[gap] = 0
+            values[gap] = null
+        }
+        size--
+        return true
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public fun clear() {
+        java.util.Arrays.fill(keys, 0)
+        java.util.Arrays.fill(values, null)
+        hasZeroKey = false
+        size = 0
+    }
+
+    /**
+     * Returns an array containing all keys of this map.
+     */
+    public fun keysToArray(): IntArray {
+        val result = IntArray(size)
+        var index = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) result[index++] = cursor.key
+        return result
+    }
+
+    /**
+     * Returns a cursor over the entries of this map. The map should not be modified while the cursor is used.
+     */
+    public fun cursor(): Cursor = Cursor()
+
+    /**
+     * Performs the given [action] on each entry.
+     */
+    public inline fun forEach(action: (Int, V) -> Unit) {
+        val cursor = cursor()
+        while (cursor.moveNext()) action(cursor.key, cursor.value)
+    }
+
+    /**
+     * Returns `true` if at least one entry matches the given [predicate].
+     */
+    public inline fun any(predicate: (Int, V) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all entries match the given [predicate].
+     */
+    public inline fun all(predicate: (Int, V) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (!predicate(cursor.key, cursor.value)) return false
+        return true
+    }
+
+    /**
+     * Returns the number of entries matching the given [predicate].
+     */
+    public inline fun count(predicate: (Int, V) -> Boolean): Int {
+        var count = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) count++
+        return count
+    }
+
+    /**
+     * Iterates over the entries of the map without allocating an object per entry.
+     * [key] and [value] return the current entry after [moveNext] has returned `true`.
+     */
+    public inner class Cursor internal constructor() {
+        private var slot = -1
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public val key: Int
+            get() = if (slot == keys.size) 0 else keys[slot]
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public val value: V
+            get() = valueAt(slot)
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return `false` if there are no more entries.
+         */
+        public fun moveNext(): Boolean {
+            while (++slot < keys.size) {
+                if (keys[slot] != 0) return true
+            }
+            return slot == keys.size && hasZeroKey
+        }
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is IntObjectMap<*> || size != other.size) return false
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            val slot = other.findSlot(cursor.key)
+            if (slot < 0 || !same(cursor.value, other.valueAt(slot))) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            result += hash(cursor.key) xor hash(cursor.value)
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        val cursor = cursor()
+        var first = true
+        while (cursor.moveNext()) {
+            if (!first) builder.append(", ")
+            builder.append(cursor.key).append('=').append(cursor.value)
+            first = false
+        }
+        return builder.append("}").toString()
+    }
+
+    private fun findSlot(key: Int): Int {
+        if (key == 0) return if (hasZeroKey) keys.size else -1
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == key) return slot
+            if (current == 0) return -1
+            slot = (slot + 1) and mask
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun valueAt(slot: Int): V = values[slot] as V
+
+    private fun rehash(tableSize: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = IntArray(tableSize)
+        values = arrayOfNulls<Any?>(tableSize + 1)
+        values[tableSize] = oldValues[oldKeys.size]
+        threshold = primitiveMapThreshold(tableSize)
+
+        val mask = tableSize - 1
+        for (oldSlot in oldKeys.indices) {
+            val key = oldKeys[oldSlot]
+            if (key == 0) continue
+            var slot = mix(key) and mask
+            while (keys[slot] != 0) slot = (slot + 1) and mask
+            keys[slot] = key
+            values[slot] = oldValues[oldSlot]
+        }
+    }
+}
+
+/**
+ * A hash map from `Long` keys to `Long` values, which keeps the keys in a [LongArray] without boxing.
+ * Entries are placed with open addressing and linear probing.
+ */
+public class LongLongMap(initialCapacity: Int = 8) {
+    // 0L marks a free slot in [keys], so the value for the key 0L is kept in the extra last slot of [values]
+    private var keys: LongArray
+    private var values: LongArray
+    private var hasZeroKey: Boolean = false
+    private var threshold: Int = 0
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        val tableSize = primitiveMapTableSize(initialCapacity)
+        keys = LongArray(tableSize)
+        values = LongArray(tableSize + 1)
+        threshold = primitiveMapThreshold(tableSize)
+    }
+
+    /**
+     * Returns `true` if this map is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this map contains the given [key].
+     */
+    public fun containsKey(key: Long): Boolean = findSlot(key) >= 0
+
+    /**
+     * Returns the value for the given [key], or [defaultValue] if the key is missing in this map.
+     */
+    public fun getOrDefault(key: Long, defaultValue: Long): Long {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else defaultValue
+    }
+
+    /**
+     * Returns the value for the given [key] or throws an exception if the key is missing in this map.
+     */
+    public fun getValue(key: Long): Long {
+        val slot = findSlot(key)
+        if (slot < 0) throw NoSuchElementException("Key $key is missing in the map.")
+        return valueAt(slot)
+    }
+
+    /**
+     * Associates the [value] with the [key] in this map.
+     */
+    public operator fun set(key: Long, value: Long) {
+        if (key == 0L) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+            }
+            values[keys.size] = value
+            return
+        }
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == 0L) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size >= threshold) rehash(keys.size * 2)
+                return
+            }
+            if (current == key) {
+                values[slot] = value
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Removes the [key] and its value from this map.
+     * @return `true` if the key was present in this map.
+     */
+    public fun remove(key: Long): Boolean {
+        val slot = findSlot(key)
+        if (slot < 0) return false
+
+        if (key == 0L) {
+            hasZeroKey = false
+            values[keys.size] = 0L
+        }
+        else {
+            // shift the following entries of the cluster back, so that lookups don't stop at the freed slot
+            val mask = keys.size - 1
+            var gap = slot
+            var next = (gap + 1) and mask
+            while (keys[next] != 0L) {
+                val ideal = mix(keys[next]) and mask
+                if (((next - ideal) and mask) >= ((next - gap) and mask)) {
+                    keys[gap] = keys[next]
+                    values[gap] = values[next]
+                    gap = next
+                }
+                next = (next + 1) and mask
+            }
+            keys[gap] = 0L
+            values[gap] = 0L
+        }
+        size--
+        return true
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public fun clear() {
+        java.util.Arrays.fill(keys, 0L)
+        java.util.Arrays.fill(values, 0L)
+        hasZeroKey = false
+        size = 0
+    }
+
+    /**
+     * Returns an array containing all keys of this map.
+     */
+    public fun keysToArray(): LongArray {
+        val result = LongArray(size)
+        var index = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) result[index++] = cursor.key
+        return result
+    }
+
+    /**
+     * Returns a cursor over the entries of this map. The map should not be modified while the cursor is used.
+     */
+    public fun cursor(): Cursor = Cursor()
+
+    /**
+     * Performs the given [action] on each entry.
+     */
+    public inline fun forEach(action: (Long, Long) -> Unit) {
+        val cursor = cursor()
+        while (cursor.moveNext()) action(cursor.key, cursor.value)
+    }
+
+    /**
+     * Returns `true` if at least one entry matches the given [predicate].
+     */
+    public inline fun any(predicate: (Long, Long) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all entries match the given [predicate].
+     */
+    public inline fun all(predicate: (Long, Long) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (!predicate(cursor.key, cursor.value)) return false
+        return true
+    }
+
+    /**
+     * Returns the number of entries matching the given [predicate].
+     */
+    public inline fun count(predicate: (Long, Long) -> Boolean): Int {
+        var count = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) count++
+        return count
+    }
+
+    /**
+     * Iterates over the entries of the map without allocating an object per entry.
+     * [key] and [value] return the current entry after [moveNext] has returned `true`.
+     */
+    public inner class Cursor internal constructor() {
+        private var slot = -1
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public val key: Long
+            get() = if (slot == keys.size) 0L else keys[slot]
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public val value: Long
+            get() = valueAt(slot)
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return `false` if there are no more entries.
+         */
+        public fun moveNext(): Boolean {
+            while (++slot < keys.size) {
+                if (keys[slot] != 0L) return true
+            }
+            return slot == keys.size && hasZeroKey
+        }
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is LongLongMap || size != other.size) return false
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            val slot = other.findSlot(cursor.key)
+            if (slot < 0 || !same(cursor.value, other.valueAt(slot))) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            result += hash(cursor.key) xor hash(cursor.value)
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        val cursor = cursor()
+        var first = true
+        while (cursor.moveNext()) {
+            if (!first) builder.append(", ")
+            builder.append(cursor.key).append('=').append(cursor.value)
+            first = false
+        }
+        return builder.append("}").toString()
+    }
+
+    private fun findSlot(key: Long): Int {
+        if (key == 0L) return if (hasZeroKey) keys.size else -1
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == key) return slot
+            if (current == 0L) return -1
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun valueAt(slot: Int): Long = values[slot]
+
+    private fun rehash(tableSize: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = LongArray(tableSize)
+        values = LongArray(tableSize + 1)
+        values[tableSize] = oldValues[oldKeys.size]
+        threshold = primitiveMapThreshold(tableSize)
+
+        val mask = tableSize - 1
+        for (oldSlot in oldKeys.indices) {
+            val key = oldKeys[oldSlot]
+            if (key == 0L) continue
+            var slot = mix(key) and mask
+            while (keys[slot] != 0L) slot = (slot + 1) and mask
+            keys[slot] = key
+            values[slot] = oldValues[oldSlot]
+        }
+    }
+}
+
+/**
+ * A hash map from `Long` keys to values of type [V], which keeps the keys in a [LongArray] without boxing.
+ * Entries are placed with open addressing and linear probing.
+ */
+public class LongObjectMap<V>(initialCapacity: Int = 8) {
+    // 0L marks a free slot in [keys], so the value for the key 0L is kept in the extra last slot of [values]
+    private var keys: LongArray
+    private var values: Array<Any?>
+    private var hasZeroKey: Boolean = false
+    private var threshold: Int = 0
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: $initialCapacity" }
+        val tableSize = primitiveMapTableSize(initialCapacity)
+        keys = LongArray(tableSize)
+        values = arrayOfNulls<Any?>(tableSize + 1)
+        threshold = primitiveMapThreshold(tableSize)
+    }
+
+    /**
+     * Returns `true` if this map is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this map contains the given [key].
+     */
+    public fun containsKey(key: Long): Boolean = findSlot(key) >= 0
+
+    /**
+     * Returns the value for the given [key], or `null` if the key is missing in this map.
+     */
+    public operator fun get(key: Long): V? {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else null
+    }
+
+    /**
+     * Returns the value for the given [key], or [defaultValue] if the key is missing in this map.
+     */
+    public fun getOrDefault(key: Long, defaultValue: V): V {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else defaultValue
+    }
+
+    /**
+     * Returns the value for the given [key] or throws an exception if the key is missing in this map.
+     */
+    public fun getValue(key: Long): V {
+        val slot = findSlot(key)
+        if (slot < 0) throw NoSuchElementException("Key $key is missing in the map.")
+        return valueAt(slot)
+    }
+
+    /**
+     * Associates the [value] with the [key] in this map.
+     */
+    public operator fun set(key: Long, value: V) {
+        if (key == 0L) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+            }
+            values[keys.size] = value
+            return
+        }
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == 0L) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size >= threshold) rehash(keys.size * 2)
+                return
+            }
+            if (current == key) {
+                values[slot] = value
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Removes the [key] and its value from this map.
+     * @return `true` if the key was present in this map.
+     */
+    public fun remove(key: Long): Boolean {
+        val slot = findSlot(key)
+        if (slot < 0) return false
+
+        if (key == 0L) {
+            hasZeroKey = false
+            values[keys.size] = null
+        }
+        else {
+            // shift the following entries of the cluster back, so that lookups don't stop at the freed slot
+            val mask = keys.size - 1
+            var gap = slot
+            var next = (gap + 1) and mask
+            while (keys[next] != 0L) {
+                val ideal = mix(keys[next]) and mask
+                if (((next - ideal) and mask) >= ((next - gap) and mask)) {
+                    keys[gap] = keys[next]
+                    values[gap] = values[next]
+                    gap = next
+                }
+                next = (next + 1) and mask
+            }
+            keys[gap] = 0L
+            values[gap] = null
+        }
+        size--
+        return true
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public fun clear() {
+        java.util.Arrays.fill(keys, 0L)
+        java.util.Arrays.fill(values, null)
+        hasZeroKey = false
+        size = 0
+    }
+
+    /**
+     * Returns an array containing all keys of this map.
+     */
+    public fun keysToArray(): LongArray {
+        val result = LongArray(size)
+        var index = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) result[index++] = cursor.key
+        return result
+    }
+
+    /**
+     * Returns a cursor over the entries of this map. The map should not be modified while the cursor is used.
+     */
+    public fun cursor(): Cursor = Cursor()
+
+    /**
+     * Performs the given [action] on each entry.
+     */
+    public inline fun forEach(action: (Long, V) -> Unit) {
+        val cursor = cursor()
+        while (cursor.moveNext()) action(cursor.key, cursor.value)
+    }
+
+    /**
+     * Returns `true` if at least one entry matches the given [predicate].
+     */
+    public inline fun any(predicate: (Long, V) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all entries match the given [predicate].
+     */
+    public inline fun all(predicate: (Long, V) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (!predicate(cursor.key, cursor.value)) return false
+        return true
+    }
+
+    /**
+     * Returns the number of entries matching the given [predicate].
+     */
+    public inline fun count(predicate: (Long, V) -> Boolean): Int {
+        var count = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) count++
+        return count
+    }
+
+    /**
+     * Iterates over the entries of the map without allocating an object per entry.
+     * [key] and [value] return the current entry after [moveNext] has returned `true`.
+     */
+    public inner class Cursor internal constructor() {
+        private var slot = -1
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public val key: Long
+            get() = if (slot == keys.size) 0L else keys[slot]
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public val value: V
+            get() = valueAt(slot)
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return `false` if there are no more entries.
+         */
+        public fun moveNext(): Boolean {
+            while (++slot < keys.size) {
+                if (keys[slot] != 0L) return true
+            }
+            return slot == keys.size && hasZeroKey
+        }
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is LongObjectMap<*> || size != other.size) return false
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            val slot = other.findSlot(cursor.key)
+            if (slot < 0 || !same(cursor.value, other.valueAt(slot))) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            result += hash(cursor.key) xor hash(cursor.value)
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        val cursor = cursor()
+        var first = true
+        while (cursor.moveNext()) {
+            if (!first) builder.append(", ")
+            builder.append(cursor.key).append('=').append(cursor.value)
+            first = false
+        }
+        return builder.append("}").toString()
+    }
+
+    private fun findSlot(key: Long): Int {
+        if (key == 0L) return if (hasZeroKey) keys.size else -1
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == key) return slot
+            if (current == 0L) return -1
+            slot = (slot + 1) and mask
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun valueAt(slot: Int): V = values[slot] as V
+
+    private fun rehash(tableSize: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = LongArray(tableSize)
+        values = arrayOfNulls<Any?>(tableSize + 1)
+        values[tableSize] = oldValues[oldKeys.size]
+        threshold = primitiveMapThreshold(tableSize)
+
+        val mask = tableSize - 1
+        for (oldSlot in oldKeys.indices) {
+            val key = oldKeys[oldSlot]
+            if (key == 0L) continue
+            var slot = mix(key) and mask
+            while (keys[slot] != 0L) slot = (slot + 1) and mask
+            keys[slot] = key
+            values[slot] = oldValues[oldSlot]
+        }
+    }
+}
+
+private fun primitiveMapTableSize(capacity: Int): Int {
+    var tableSize = 2
+    while (primitiveMapThreshold(tableSize) <= capacity && tableSize < (1 shl 30)) tableSize *= 2
+    return tableSize
+}
+
+private fun primitiveMapThreshold(tableSize: Int): Int = tableSize / 4 * 3 + (tableSize % 4) * 3 / 4
+
+private fun mix(key: Int): Int {
+    val h = key * -1640531527
+    return h xor (h ushr 16)
+}
+
+private fun mix(key: Long): Int {
+    val h = key * -7046029254386353131L
+    return (h xor (h ushr 32)).toInt()
+}
+
+private fun same(a: Int, b: Int): Boolean = a == b
+
+private fun same(a: Long, b: Long): Boolean = a == b
+
+private fun same(a: Double, b: Double): Boolean = java.lang.Double.doubleToLongBits(a) == java.lang.Double.doubleToLongBits(b)
+
+private fun same(a: Any?, b: Any?): Boolean = a == b
+
+private fun hash(value: Int): Int = value
+
+private fun hash(value: Long): Int = (value xor (value ushr 32)).toInt()
+
+private fun hash(value: Double): Int = hash(java.lang.Double.doubleToLongBits(value))
+
+private fun hash(value: Any?): Int = value?.hashCode() ?: 0
@@ -0,0 +1,254 @@
+@file:kotlin.jvm.JvmName("ParallelKt")
+@file:kotlin.jvm.JvmVersion
+
+package kotlin.collections
+
+import java.util.*
+import java.util.concurrent.*
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.comparisons.naturalOrder
+
+/**
+ * Provides parallel versions of the common operations over the elements of a random access list.
+ *
+ * The elements are split into chunks, which are processed by the tasks submitted to the [executor] together with the calling thread.
+ * Since the calling thread processes the chunks the tasks haven't taken yet, the operations may also be called
+ * from the tasks running in the same [executor].
+ *
+ * The functions passed to the operations are called concurrently from different threads.
+ * The resulting lists of [map], [filter] and [sortedWith] keep the order of the elements, and [reduce] combines the elements
+ * from left to right, so its operation only needs to be associative. [forEach] calls its action in no particular order.
+ */
+public class ParallelList<T> internal constructor(
+        private val source: List<T>,
+        /**
+         * The executor running the tasks which process the elements.
+         */
+        public val executor: Executor,
+        /**
+         * The maximum number of threads processing the elements at the same time, including the calling thread.
+         */
+        public val parallelism: Int
+) {
+    init {
+        require(parallelism >= 1) { "Parallelism should be positive: $parallelism" }
+    }
+
+    /**
+     * Returns a list containing the results of applying the given [transform] function to each element.
+     */
+    public fun <R> map(transform: (T) -> R): List<R> {
+        val chunks = processChunks { from, to ->
+            val result = ArrayList<R>(to - from)
+            for (index in from..to - 1) {
+                result.add(transform(source[index]))
+            }
+            result
+        }
+        return chunks.flatten()
+    }
+
+    /**
+     * Returns a list containing only elements matching the given [predicate].
+     */
+    public fun filter(predicate: (T) -> Boolean): List<T> {
+        val chunks = processChunks { from, to ->
+            val result = ArrayList<T>()
+            for (index in from..to - 1) {
+                val element = source[index]
+                if (predicate(element)) result.add(element)
+            }
+            result
+        }
+        return chunks.flatten()
+    }
+
+    /**
+     * Performs the given [action] on each element. The action is called concurrently and in no particular order.
+     */
+    public fun forEach(action: (T) -> Unit) {
+        processChunks { from, to ->
+            for (index in from..to - 1) {
+                action(source[index])
+            }
+        }
+    }
+
+    /**
+     * Accumulates the elements from left to right with the given associative [operation].
+     * The elements of each chunk are accumulated in parallel, then the results of the chunks are accumulated in order.
+     */
+    public fun reduce(operation: (T, T) -> T): T {
+        if (source.isEmpty()) throw UnsupportedOperationException("Empty collection can't be reduced.")
+
+        val chunks = processChunks { from, to ->
+            var accumulator = source[from]
+            for (index in from + 1..to - 1) {
+                accumulator = operation(accumulator, source[index])
+            }
+            accumulator
+        }
+        return chunks.reduce(operation)
+    }
+
+    /**
+     * Returns a list of all elements sorted according to the specified [comparator].
+     * The sort is stable: the chunks are sorted in parallel, then the sorted runs are merged pairwise in parallel.
+     */
+    public fun sortedWith(comparator: Comparator<in T>): List<T> {
+        @Suppress("UNCHECKED_CAST")
+        val comparatorOfAny = comparator as Comparator<Any?>
+        val elements = arrayOfNulls<Any?>(source.size)
+        for (index in source.indices) {
+            elements[index] = source[index]
+        }
+
+        var runStarts = processChunks { from, to ->
+            Arrays.sort(elements, from, to, comparatorOfAny)
+            from
+        }
+
+        var current = elements
+        var buffer = arrayOfNulls<Any?>(current.size)
+        while (runStarts.size > 1) {
+            val starts = runStarts
+            val from = current
+            val to = buffer
+            val pairs = (starts.size + 1) / 2
+            runStarts = parallelFor(pairs) { pair ->
+                val start = starts[2 * pair]
+                val middle = if (2 * pair + 1 < starts.size) starts[2 * pair + 1] else from.size
+                val end = if (2 * pair + 2 < starts.size) starts[2 * pair + 2] else from.size
+                merge(from, start, middle, end, to, comparatorOfAny)
+                start
+            }
+            buffer = current
+            current = to
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        return (current as Array<T>).asList()
+    }
+
+    private fun <R> processChunks(process: (Int, Int) -> R): List<R> {
+        val size = source.size
+        val chunkCount = Math.min(size, parallelism * CHUNKS_PER_THREAD)
+        if (chunkCount <= 1) return listOf(process(0, size))
+
+        return parallelFor(chunkCount) { chunk ->
+            process((size.toLong() * chunk / chunkCount).toInt(), (size.toLong() * (chunk + 1) / chunkCount).toInt())
+        }
+    }
+
+    private fun <R> parallelFor(taskCount: Int, task: (Int) -> R): List<R> {
+        if (parallelism == 1 || taskCount <= 1) {
+            return (0..taskCount - 1).map(task)
+        }
+
+        val results = arrayOfNulls<Any?>(taskCount)
+        val nextTask = AtomicInteger()
+        val remainingTasks = CountDownLatch(taskCount)
+        val failure = AtomicReference<Throwable?>()
+
+        val worker = Runnable {
+            while (true) {
+                val index = nextTask.getAndIncrement()
+                if (index >= taskCount) break
+                try {
+                    if (failure.get() == null) {
+                        results[index] = task(index)
+                    }
+                }
+                catch (e: Throwable) {
+                    failure.compareAndSet(null, e)
+                }
+                finally {
+                    remainingTasks.countDown()
+                }
+            }
+        }
+
+        try {
+            for (helper in 1..Math.min(parallelism, taskCount) - 1) {
+                executor.execute(worker)
+            }
+        }
+        catch (e: RejectedExecutionException) {
+            // the calling thread processes the rest of the tasks
+        }
+
+        worker.run()
+        remainingTasks.await()
+
+        val exception = failure.get()
+        if (exception != null) throw exception
+
+        @Suppress("UNCHECKED_CAST")
+        return results.asList() as List<R>
+    }
+
+    private companion object {
+        // more chunks than threads even out the load when the elements take different time to process
+        const val CHUNKS_PER_THREAD = 4
+
+        fun merge(from: Array<Any?>, start: Int, middle: Int, end: Int, to: Array<Any?>, comparator: Comparator<Any?>) {
+            var left = start
+            var right = middle
+            for (index in start..end - 1) {
+                if (right >= end || left < middle && comparator.compare(from[left], from[right]) <= 0) {
+                    to[index] = from[left++]
+                }
+                else {
+                    to[index] = from[right++]
+                }
+            }
+        }
+    }
+}
+
+/**
+ * Returns a list of all elements sorted according to their natural sort order, sorting them in parallel.
+ */
+public fun <T : Comparable<T>> ParallelList<T>.sorted(): List<T> = sortedWith(naturalOrder())
+
+/**
+ * Returns a [ParallelList] performing the operations over the elements of this collection in parallel.
+ * The elements are copied into a new list unless this collection is a random access list.
+ *
+ * @param executor the executor running the tasks. By default it's a shared pool of daemon threads,
+ * one less than the number of available processors, since the calling thread also processes the elements.
+ * @param parallelism the maximum number of threads processing the elements at the same time, including the calling thread.
+ */
+public fun <T> Iterable<T>.parallel(
+        executor: Executor = ParallelDefaults.executor,
+        parallelism: Int = ParallelDefaults.parallelism
+): ParallelList<T> {
+    val list = if (this is List<T> && this is RandomAccess) this else toList()
+    return ParallelList(list, executor, parallelism)
+}
+
+/**
+ * Returns a [ParallelList] performing the operations over the elements of this array in parallel.
+ *
+ * @param executor the executor running the tasks. By default it's a shared pool of daemon threads,
+ * one less than the number of available processors, since the calling thread also processes the elements.
+ * @param parallelism the maximum number of threads processing the elements at the same time, including the calling thread.
+ */
+public fun <T> Array<out T>.parallel(
+        executor: Executor = ParallelDefaults.executor,
+        parallelism: Int = ParallelDefaults.parallelism
+): ParallelList<T> = ParallelList(asList(), executor, parallelism)
+
+internal object ParallelDefaults {
+    val parallelism: Int = Runtime.getRuntime().availableProcessors()
+
+    val executor: Executor by lazy {
+        val threadCount = AtomicInteger()
+        Executors.newFixedThreadPool(Math.max(parallelism - 1, 1), ThreadFactory { runnable ->
+            val thread = Thread(runnable, "kotlin-parallel-" + threadCount.incrementAndGet())
+            thread.isDaemon = true
+            thread
+        })
+    }
+}
@@ -0,0 +1,20 @@
+@file:kotlin.jvm.JvmMultifileClass
+@file:kotlin.jvm.JvmName("SequencesKt")
+@file:kotlin.jvm.JvmVersion
+
+package kotlin.sequences
+
+import java.util.concurrent.Executor
+
+/**
+ * Returns a [ParallelList] performing the operations over the elements of this sequence in parallel.
+ * The elements are collected into a list first, so the sequence is iterated in the calling thread.
+ *
+ * @param executor the executor running the tasks. By default it's a shared pool of daemon threads,
+ * one less than the number of available processors, since the calling thread also processes the elements.
+ * @param parallelism the maximum number of threads processing the elements at the same time, including the calling thread.
+ */
+public fun <T> Sequence<T>.parallel(
+        executor: Executor = ParallelDefaults.executor,
+        parallelism: Int = ParallelDefaults.parallelism
+): ParallelList<T> = toList().parallel(executor, parallelism)
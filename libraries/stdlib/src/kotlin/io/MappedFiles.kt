@@ -0,0 +1,135 @@
+@file:JvmVersion
+@file:JvmMultifileClass
+@file:JvmName("FilesKt")
+package kotlin.io
+
+import java.io.*
+import java.nio.CharBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.Charset
+import java.nio.charset.CodingErrorAction
+
+// Large files are mapped by regions, since a single mapped buffer can't exceed Int.MAX_VALUE bytes
+private const val MAPPED_REGION_SIZE: Long = 64L * 1024 * 1024
+
+/**
+ * Maps the region of this file into memory for reading.
+ * The content of the file is read by the OS on demand and isn't copied to the heap.
+ *
+ * The returned buffer stays valid after the file is closed, and the changes made to the file by other programs
+ * may become visible through it.
+ *
+ * @param position the position in the file where the mapped region starts.
+ * @param size the size of the mapped region, the rest of the file by default. It must not be greater than [Int.MAX_VALUE].
+ * @return a read-only buffer with the content of the region.
+ */
+public fun File.mapReadOnly(position: Long = 0, size: Long = length() - position): MappedByteBuffer {
+    require(position >= 0 && size >= 0 && size <= Int.MAX_VALUE) { "Invalid region: position $position, size $size" }
+    return FileInputStream(this).use { it.channel.map(FileChannel.MapMode.READ_ONLY, position, size) }
+}
+
+/**
+ * Reads this file line by line using the specified [charset] and calls [action] for each line.
+ * The file is mapped into memory and decoded in chunks, so unlike [forEachLine] no strings are created for the lines.
+ *
+ * You may use this function on huge files.
+ *
+ * The character sequence passed to the [action] is reused for the next lines and is valid only during the call,
+ * so convert it with `toString()` to keep the line.
+ *
+ * @param charset character set to use.
+ * @param action function to process file lines.
+ */
+public fun File.forEachLineView(charset: Charset = Charsets.UTF_8, action: (line: CharSequence) -> Unit): Unit {
+    // the same replacement of malformed input as in the readers used by forEachLine
+    val decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+    val chars = CharBuffer.allocate(DEFAULT_BUFFER_SIZE)
+    val lines = LineSplitter(action)
+
+    FileInputStream(this).use { input ->
+        val channel = input.channel
+        val size = channel.size()
+        var position = 0L
+        do {
+            val regionSize = Math.min(size - position, MAPPED_REGION_SIZE)
+            val bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize)
+            val endOfInput = position + regionSize == size
+            do {
+                val result = decoder.decode(bytes, chars, endOfInput)
+                lines.append(chars)
+            } while (result.isOverflow)
+            // the bytes of a character split between the regions are decoded with the next region
+            position += bytes.position()
+        } while (!endOfInput)
+
+        while (decoder.flush(chars).isOverflow) {
+            lines.append(chars)
+        }
+        lines.append(chars)
+        lines.finish()
+    }
+}
+
+/**
+ * Splits the appended characters into lines the same way [BufferedReader.readLine] does,
+ * passing itself as the view of each line to the [action].
+ */
+private class LineSplitter(private val action: (CharSequence) -> Unit) : CharSequence {
+    private var line = CharArray(128)
+    private var skipLineFeed = false
+
+    override var length: Int = 0
+        private set
+
+    /** Consumes the characters written to the [buffer] and clears it. */
+    fun append(buffer: CharBuffer) {
+        buffer.flip()
+        while (buffer.hasRemaining()) {
+            val char = buffer.get()
+            if (skipLineFeed) {
+                skipLineFeed = false
+                if (char == '\n') continue
+            }
+            when (char) {
+                '\r' -> {
+                    skipLineFeed = true
+                    endLine()
+                }
+                '\n' -> endLine()
+                else -> {
+                    if (length == line.size) {
+                        line = line.copyOf(line.size * 2)
+                    }
+                    line[length++] = char
+                }
+            }
+        }
+        buffer.clear()
+    }
+
+    fun finish() {
+        if (length > 0) endLine()
+    }
+
+    private fun endLine() {
+        action(this)
+        length = 0
+    }
+
+    override fun get(index: Int): Char {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: $index, length: $length")
+        return line[index]
+    }
+
+    override fun subSequence(startIndex: Int, endIndex: Int): CharSequence {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > length) {
+            throw IndexOutOfBoundsException("startIndex: $startIndex, endIndex: $endIndex, length: $length")
+        }
+        return String(line, startIndex, endIndex - startIndex)
+    }
+
+    override fun toString(): String = String(line, 0, length)
+}
@@ -0,0 +1,122 @@
+@file:JvmVersion
+@file:JvmMultifileClass
+@file:JvmName("FilesKt")
+package kotlin.io
+
+import java.io.File
+import java.io.IOException
+import java.util.*
+import java.util.concurrent.Executor
+
+/**
+ * Copies this file with all its children to the specified destination [target] path.
+ * If some directories on the way to the destination are missing, then they will be created.
+ *
+ * Unlike [copyRecursively], the directories of each level of the tree are listed in parallel,
+ * and then the files are copied in parallel by the threads of the [executor] together with the calling thread.
+ * The first error terminates the copying and is rethrown.
+ *
+ * Note that if this function fails, then partial copying may have taken place.
+ *
+ * @param overwrite `true` if it is allowed to overwrite existing destination files.
+ * @param executor the executor running the tasks. By default it's a shared pool of daemon threads.
+ * @param parallelism the maximum number of threads processing the files at the same time, including the calling thread.
+ * @throws NoSuchFileException if this file doesn't exist.
+ * @throws FileAlreadyExistsException if a destination file already exists and [overwrite] argument is set to `false`.
+ * @throws AccessDeniedException if it's impossible to get the list of files of a directory.
+ * @throws IOException if any errors occur while copying.
+ */
+public fun File.parallelCopyRecursively(
+        target: File,
+        overwrite: Boolean = false,
+        executor: Executor = ParallelDefaults.executor,
+        parallelism: Int = ParallelDefaults.parallelism
+) {
+    if (!exists()) {
+        throw NoSuchFileException(file = this, reason = "The source file doesn't exist")
+    }
+    if (!isDirectory) {
+        copyTo(target, overwrite)
+        return
+    }
+
+    val tree = listTreeInParallel(executor, parallelism) { file, e -> throw e }
+    for (level in tree.directoryLevels) {
+        level.parallel(executor, parallelism).forEach { directory ->
+            val dstDir = File(target, directory.relativePath)
+            if (dstDir.exists() && !dstDir.isDirectory) {
+                if (!overwrite || !dstDir.delete()) {
+                    throw FileAlreadyExistsException(file = directory.file, other = dstDir, reason = "The destination file already exists")
+                }
+            }
+            if (!dstDir.isDirectory && !dstDir.mkdirs()) {
+                throw FileSystemException(file = directory.file, other = dstDir, reason = "Failed to create target directory")
+            }
+        }
+    }
+    tree.files.parallel(executor, parallelism).forEach { file ->
+        file.file.copyTo(File(target, file.relativePath), overwrite)
+    }
+}
+
+/**
+ * Delete this file with all its children.
+ * Note that if this operation fails then partial deletion may have taken place.
+ *
+ * Unlike [deleteRecursively], the directories of each level of the tree are listed in parallel, the files are deleted in parallel,
+ * and then the directories are deleted level by level, from the deepest one, in parallel
+ * by the threads of the [executor] together with the calling thread.
+ *
+ * @param executor the executor running the tasks. By default it's a shared pool of daemon threads.
+ * @param parallelism the maximum number of threads processing the files at the same time, including the calling thread.
+ * @return `true` if the file or directory is successfully deleted, `false` otherwise.
+ */
+public fun File.parallelDeleteRecursively(
+        executor: Executor = ParallelDefaults.executor,
+        parallelism: Int = ParallelDefaults.parallelism
+): Boolean {
+    if (!isDirectory) return delete() || !exists()
+
+    // a directory which can't be listed just fails to be deleted, as in deleteRecursively
+    val tree = listTreeInParallel(executor, parallelism) { file, e -> }
+    var result = tree.files.parallel(executor, parallelism).map { it.file.deleteOrAbsent() }.all { it }
+    for (level in tree.directoryLevels.asReversed()) {
+        result = level.parallel(executor, parallelism).map { it.file.deleteOrAbsent() }.all { it } && result
+    }
+    return result
+}
+
+private fun File.deleteOrAbsent(): Boolean = delete() || !exists()
+
+private class TreeEntry(val file: File, val relativePath: String) {
+    fun child(file: File): TreeEntry =
+            TreeEntry(file, if (relativePath.isEmpty()) file.name else relativePath + File.separatorChar + file.name)
+}
+
+/** Directories of the tree grouped by depth, starting from the root, and all other files. */
+private class TreeEntries(val directoryLevels: List<List<TreeEntry>>, val files: List<TreeEntry>)
+
+/**
+ * Lists this directory tree breadth-first. The directories of each level are listed in parallel,
+ * so the file system calls of different directories don't wait for each other.
+ */
+private fun File.listTreeInParallel(executor: Executor, parallelism: Int, onFail: (File, IOException) -> Unit): TreeEntries {
+    val directoryLevels = ArrayList<List<TreeEntry>>()
+    val files = ArrayList<TreeEntry>()
+
+    var level = listOf(TreeEntry(this, ""))
+    while (level.isNotEmpty()) {
+        directoryLevels.add(level)
+        val children = level.parallel(executor, parallelism).map { directory ->
+            val list = directory.file.listFiles()
+            if (list == null) {
+                onFail(directory.file, AccessDeniedException(file = directory.file, reason = "Cannot list files in a directory"))
+            }
+            (list ?: emptyArray<File>()).map { directory.child(it) }.partition { it.file.isDirectory }
+        }
+        level = children.flatMap { it.first }
+        children.flatMapTo(files) { it.second }
+    }
+
+    return TreeEntries(directoryLevels, files)
+}
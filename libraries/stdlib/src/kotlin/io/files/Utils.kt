@@ -170,7 +170,7 @@ private fun File.toRelativeStringOrNull(base: File): String? {
  * If you want to copy directory including its contents, use [copyRecursively].
  *
  * @param overwrite `true` if destination overwrite is allowed.
- * @param bufferSize the buffer size to use when copying.
+ * @param bufferSize the buffer size to use when copying the part of the content the file channel couldn't transfer directly.
  * @return the [target] file.
  * @throws NoSuchFileException if the source file doesn't exist.
  * @throws FileAlreadyExistsException if the destination file already exists and 'rewrite' argument is set to `false`.
@@ -199,6 +199,17 @@ public fun File.copyTo(target: File, overwrite: Boolean = false, bufferSize: Int
 
         this.inputStream().use { input ->
             target.outputStream().use { output ->
+                // the channel lets the OS copy the content without passing it through a buffer in the heap
+                val inputChannel = input.channel
+                val size = inputChannel.size()
+                var position = 0L
+                while (position < size) {
+                    val transferred = inputChannel.transferTo(position, size - position, output.channel)
+                    if (transferred <= 0) break
+                    position += transferred
+                }
+                // copy what the channel didn't transfer, including the content appended after the size was taken
+                inputChannel.position(position)
                 input.copyTo(output, bufferSize)
             }
         }
@@ -0,0 +1,63 @@
+package test.collections
+
+import java.util.*
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.comparisons.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFails
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class ParallelJVMTest {
+    @test fun mapAndFilterKeepOrder() {
+        val list = (1..10000).toList()
+        assertEquals(list.map { it * 2 }, list.parallel().map { it * 2 })
+        assertEquals(list.filter { it % 3 == 0 }, list.parallel().filter { it % 3 == 0 })
+        assertEquals(listOf("a", "b"), sequenceOf("a", "b").parallel().map { it })
+        assertEquals(emptyList<Int>(), emptyList<Int>().parallel().map { it })
+    }
+
+    @test fun reduce() {
+        val strings = (1..1000).map { it.toString() }
+        assertEquals(strings.joinToString(""), strings.parallel().reduce { a, b -> a + b })
+        assertEquals(500500L, (1L..1000L).parallel().reduce { a, b -> a + b })
+        assertFails { emptyList<Int>().parallel().reduce { a, b -> a + b } }
+    }
+
+    @test fun forEach() {
+        val counter = AtomicInteger()
+        arrayOf(1, 2, 3, 4, 5).parallel().forEach { counter.addAndGet(it) }
+        assertEquals(15, counter.get())
+    }
+
+    @test fun sortedIsStable() {
+        val random = Random(42)
+        val pairs = (1..10000).map { random.nextInt(100) to it }
+        val comparator = compareBy<Pair<Int, Int>> { it.first }
+        assertEquals(pairs.sortedWith(comparator), pairs.parallel().sortedWith(comparator))
+
+        val numbers = pairs.map { it.second % 1000 }
+        assertEquals(numbers.sorted(), numbers.parallel().sorted())
+    }
+
+    @test fun exceptionIsRethrown() {
+        val e = assertFails { (1..1000).toList().parallel().map { if (it == 500) throw IllegalStateException("500") else it } }
+        assertTrue(e is IllegalStateException)
+    }
+
+    @test fun customExecutor() {
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            val list = (1..100).toList()
+            // the nested operations run in the calling threads when the pool is busy
+            val sums = list.parallel(executor, 3).map { n -> (1..n).toList().parallel(executor, 3).reduce { a, b -> a + b } }
+            assertEquals(list.map { it * (it + 1) / 2 }, sums)
+            assertEquals(list, list.parallel(executor, parallelism = 1).map { it })
+            assertFails { list.parallel(executor, parallelism = 0) }
+        }
+        finally {
+            executor.shutdown()
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package test.collections
+
+import java.util.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFails
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+import org.junit.Test as test
+
+class PrimitiveCollectionsJVMTest {
+    @test fun intListBasics() {
+        val list = IntList(0)
+        assertTrue(list.isEmpty())
+        for (i in 1..100) list.add(i)
+        assertEquals(100, list.size)
+        assertEquals(5050, list.sum())
+        assertEquals(42, list[41])
+
+        list.add(0, -1)
+        assertEquals(-1, list[0])
+        assertEquals(100, list.removeAt(100))
+        assertEquals(100, list.size)
+        assertEquals(41, list.set(41, 0))
+        assertEquals(41, list.indexOf(0))
+
+        assertFails { list[100] }
+        assertFails { list.removeAt(-1) }
+    }
+
+    @test fun intListOperations() {
+        val list = intListOf(3, 1, 2, 3)
+        assertEquals(intListOf(3, 3), list.filter { it == 3 })
+        assertEquals(intListOf(6, 2, 4, 6), list.map { it * 2 })
+        assertEquals(2, list.count { it > 2 })
+        assertTrue(list.any { it == 2 })
+        assertFalse(list.all { it > 1 })
+        assertEquals(9, list.fold(0) { acc, e -> acc + e })
+        assertEquals(3, list.lastIndexOf(3))
+        assertFalse(4 in list)
+
+        list.sort()
+        assertEquals("[1, 2, 3, 3]", list.toString())
+        assertTrue(Arrays.equals(intArrayOf(1, 2, 3, 3), list.toArray()))
+
+        val indices = arrayListOf<Int>()
+        list.forEachIndexed { index, element -> if (element == 3) indices.add(index) }
+        assertEquals(listOf(2, 3), indices)
+    }
+
+    @test fun listEquality() {
+        assertEquals(longListOf(1L, 2L), longArrayOf(1L, 2L).toLongList())
+        assertEquals(longListOf(1L, 2L).hashCode(), longArrayOf(1L, 2L).toLongList().hashCode())
+        assertEquals(doubleListOf(Double.NaN), doubleListOf(Double.NaN))
+        assertFalse(doubleListOf(0.0) == doubleListOf(-0.0))
+
+        val list = doubleListOf(1.0, 2.0)
+        list.addAll(doubleListOf(3.0))
+        list.addAll(doubleArrayOf(4.0))
+        list.trimToSize()
+        assertEquals(10.0, list.sum())
+        list.clear()
+        assertTrue(list.isEmpty())
+    }
+
+    @test fun intIntMapBasics() {
+        val map = IntIntMap()
+        val expected = HashMap<Int, Int>()
+        val random = Random(42)
+        repeat(10000) {
+            val key = random.nextInt(2000) - 1000
+            when (random.nextInt(3)) {
+                0, 1 -> {
+                    map[key] = it
+                    expected[key] = it
+                }
+                else -> assertEquals(expected.remove(key) != null, map.remove(key))
+            }
+        }
+
+        assertEquals(expected.size, map.size)
+        for ((key, value) in expected) {
+            assertTrue(map.containsKey(key))
+            assertEquals(value, map.getValue(key))
+        }
+        for (key in -1000..1000) {
+            assertEquals(expected[key] ?: -1, map.getOrDefault(key, -1))
+        }
+
+        var visited = 0
+        map.forEach { key, value ->
+            assertEquals(expected[key], value)
+            visited++
+        }
+        assertEquals(expected.size, visited)
+        assertEquals(expected.keys.sorted(), map.keysToArray().sorted())
+
+        map.clear()
+        assertTrue(map.isEmpty())
+        assertFalse(map.containsKey(0))
+        assertFails { map.getValue(1) }
+    }
+
+    @test fun zeroKey() {
+        val map = LongLongMap(0)
+        assertFalse(map.containsKey(0L))
+        map[0L] = 10L
+        map[1L] = 11L
+        assertEquals(2, map.size)
+        assertEquals(10L, map.getValue(0L))
+        assertEquals(2, map.count { key, value -> value - key == 10L })
+        assertTrue(map.remove(0L))
+        assertFalse(map.remove(0L))
+        assertEquals(1, map.size)
+        assertEquals("{1=11}", map.toString())
+    }
+
+    @test fun objectMaps() {
+        val map = LongObjectMap<String>()
+        for (i in 0L..99L) map[i * 1000000007L] = "v$i"
+        assertEquals(100, map.size)
+        assertEquals("v5", map[5 * 1000000007L])
+        assertNull(map[1L])
+        assertEquals("none", map.getOrDefault(1L, "none"))
+        assertTrue(map.all { key, value -> value == "v${key / 1000000007L}" })
+
+        val other = LongObjectMap<String>(200)
+        map.forEach { key, value -> other[key] = value }
+        assertEquals(map, other)
+        assertEquals(map.hashCode(), other.hashCode())
+
+        other[0L] = "changed"
+        assertFalse(map == other)
+
+        val intMap = IntObjectMap<String?>()
+        intMap[7] = null
+        assertTrue(intMap.containsKey(7))
+        assertNull(intMap[7])
+    }
+}
@@ -596,6 +596,37 @@ class FilesTest {
         }
     }
 
+    @test fun parallelCopyRecursively() {
+        val src = FileTreeWalkTest.createTestFiles()
+        val dst = createTempDir()
+        try {
+            src.resolve("1/3/4.txt").writeText("four")
+            src.resolve("7.txt").writeBytes(ByteArray(3 * DEFAULT_BUFFER_SIZE + 1) { it.toByte() })
+
+            src.parallelCopyRecursively(dst)
+            compareDirectories(src, dst)
+            assertEquals(src.walkTopDown().count(), dst.walkTopDown().count())
+
+            assertFailsWith(FileAlreadyExistsException::class) {
+                src.parallelCopyRecursively(dst, parallelism = 1)
+            }
+
+            src.resolve("1/3/4.txt").writeText("modified")
+            src.parallelCopyRecursively(dst, overwrite = true)
+            compareDirectories(src, dst)
+
+            assertTrue(dst.parallelDeleteRecursively())
+            assertFalse(dst.exists())
+            assertTrue(dst.parallelDeleteRecursively())
+            assertFailsWith(NoSuchFileException::class) {
+                dst.parallelCopyRecursively(src)
+            }
+        } finally {
+            src.deleteRecursively()
+            dst.deleteRecursively()
+        }
+    }
+
     @test fun helpers1() {
         val str = "123456789\n"
         System.setIn(str.byteInputStream())
@@ -122,6 +122,32 @@ class ReadWriteTest {
         file.deleteOnExit()
     }
 
+    @test fun mappedFile() {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        try {
+            val longLine = "\u044F\u20AC".repeat(DEFAULT_BUFFER_SIZE)
+            for (text in listOf("", " ", " \n", "a\r\nb\rc\n\nd", "\r\n\r\n", "x\n$longLine\r\n$longLine")) {
+                file.writeText(text)
+                val lines = ArrayList<String>()
+                file.forEachLineView { lines.add(it.toString()) }
+                assertEquals(file.readLines(), lines, text.take(10))
+            }
+
+            file.forEachLineView { line ->
+                if (line.length > 1) {
+                    assertEquals('\u044F', line[0])
+                    assertEquals("\u20AC\u044F", line.subSequence(1, 3))
+                }
+            }
+
+            val mapped = file.mapReadOnly(position = 2)
+            assertEquals(file.length() - 2, mapped.remaining().toLong())
+            assertEquals(file.readBytes()[2], mapped.get(0))
+        } finally {
+            file.delete()
+        }
+    }
+
 
 
     @test fun testUse() {
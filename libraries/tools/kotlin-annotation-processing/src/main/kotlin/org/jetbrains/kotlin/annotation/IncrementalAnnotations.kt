@@ -0,0 +1,68 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.annotation
+
+import java.io.Reader
+import java.io.Writer
+import java.util.*
+
+private val SOURCE_FILE_PREFIX = "s "
+
+/**
+ * Merges the annotations written by the annotation collector in the incremental mode (in blocks per source file)
+ * by a compilation of the changed files with the annotations of the previous compilation.
+ *
+ * The blocks of [current] replace the blocks of [previous] for the same source files, and the blocks of [removedSourceFiles]
+ * are dropped. The result keeps the blocks sorted by the source file path, so the output of the same sources is always the same.
+ */
+public fun mergeIncrementalAnnotations(previous: Reader, current: Reader, removedSourceFiles: Set<String>, output: Writer) {
+    val blocks = readBlocksBySourceFile(previous)
+    for (sourceFile in removedSourceFiles) {
+        blocks.remove(sourceFile)
+    }
+    blocks.putAll(readBlocksBySourceFile(current))
+
+    for ((sourceFile, lines) in blocks) {
+        output.write("$SOURCE_FILE_PREFIX$sourceFile\n")
+        for (line in lines) {
+            output.write(line)
+            output.write("\n")
+        }
+    }
+}
+
+private fun readBlocksBySourceFile(reader: Reader): TreeMap<String, MutableList<String>> {
+    val blocks = TreeMap<String, MutableList<String>>()
+    var currentBlock: MutableList<String>? = null
+
+    reader.useLines { lines ->
+        for (line in lines) {
+            if (line.isEmpty()) continue
+
+            if (line.startsWith(SOURCE_FILE_PREFIX)) {
+                currentBlock = arrayListOf()
+                blocks.put(line.substring(SOURCE_FILE_PREFIX.length), currentBlock!!)
+            }
+            else {
+                val block = currentBlock ?: throw AssertionError("Annotations are not written by source file: $line")
+                block.add(line)
+            }
+        }
+    }
+
+    return blocks
+}
@@ -32,6 +32,8 @@ public abstract class KotlinAnnotationProvider {
         val SHORTENED_PACKAGE_NAME = "p"
 
         val CLASS_DECLARATION = "d"
+
+        val SOURCE_FILE = "s"
     }
 
     public val annotatedKotlinElements: Map<String, Set<AnnotatedElementDescriptor>> by lazy {
@@ -46,6 +48,15 @@ public abstract class KotlinAnnotationProvider {
     public val supportInheritedAnnotations: Boolean
         get() = kotlinClassesInternal.isNotEmpty()
 
+    private val sourceFilesByClassInternal = hashMapOf<String, String>()
+
+    /**
+     * Source file paths of the annotated and declared classes, keyed by class fq name.
+     * Available only if the annotations were written by source file (the incremental mode of the annotation collector).
+     */
+    public val sourceFilesByClass: Map<String, String>
+        get() = sourceFilesByClassInternal
+
     protected abstract val serializedAnnotations: Reader
 
     private fun readAnnotations(): MutableMap<String, MutableSet<AnnotatedElementDescriptor>> {
@@ -64,6 +75,7 @@ public abstract class KotlinAnnotationProvider {
         }
 
         val annotatedKotlinElements: MutableMap<String, MutableSet<AnnotatedElementDescriptor>> = hashMapOf()
+        var currentSourceFile: String? = null
 
         serializedAnnotations.useLines { lines ->
             for (line in lines) {
@@ -74,15 +86,23 @@ public abstract class KotlinAnnotationProvider {
                 when (type) {
                     SHORTENED_ANNOTATION -> handleShortenedName(shortenedAnnotationCache, lineParts)
                     SHORTENED_PACKAGE_NAME -> handleShortenedName(shortenedPackageNameCache, lineParts)
+                    SOURCE_FILE -> {
+                        // shortened names are defined anew in every source file block
+                        shortenedAnnotationCache.clear()
+                        shortenedPackageNameCache.clear()
+                        currentSourceFile = line.substring(SOURCE_FILE.length + 1)
+                    }
                     CLASS_DECLARATION -> {
                         val classFqName = expandClassName(lineParts[1]).replace('$', '.')
                         kotlinClassesInternal.add(classFqName)
+                        currentSourceFile?.let { sourceFilesByClassInternal.put(classFqName, it) }
                     }
 
                     ANNOTATED_CLASS, ANNOTATED_FIELD, ANNOTATED_METHOD -> {
                         val annotationName = expandAnnotation(lineParts[1])
                         val classFqName = expandClassName(lineParts[2]).replace('$', '.')
                         val elementName = if (lineParts.size == 4) lineParts[3] else null
+                        currentSourceFile?.let { sourceFilesByClassInternal.put(classFqName, it) }
 
                         val set = annotatedKotlinElements.getOrPut(annotationName) { hashSetOf() }
                         set.add(when (type) {
@@ -5,6 +5,8 @@ import org.junit.Test
 import java.io.File
 import org.junit.Assert.*
 import java.io.IOException
+import java.io.StringReader
+import java.io.StringWriter
 
 public class AnnotationListParseTest {
 
@@ -47,6 +49,27 @@ public class AnnotationListParseTest {
     @Test
     fun testDeclarations() = doTest("classDeclarations")
 
+    @Test
+    fun testSourceFiles() {
+        doTest("sourceFiles")
+
+        val annotationProvider = FileKotlinAnnotationProvider(File(resourcesRootFile, "sourceFiles/annotations.txt"))
+        annotationProvider.annotatedKotlinElements
+        assertEquals(mapOf("org.test.A" to "/src/org/test/a.kt", "org.test.B" to "/src/org/test/b.kt"), annotationProvider.sourceFilesByClass)
+    }
+
+    @Test
+    fun testMergeIncremental() {
+        val previous = "s /a.kt\np org.test 0\nd 0/A\ns /b.kt\np org.test 0\nd 0/B\ns /c.kt\nd C\n"
+        val current = "s /b.kt\np org.test 0\nd 0/B\na javax.inject.Inject 0\nc 0 0/B\ns /0.kt\nd Z\n"
+
+        val output = StringWriter()
+        mergeIncrementalAnnotations(StringReader(previous), StringReader(current), setOf("/c.kt"), output)
+
+        assertEquals("s /0.kt\nd Z\ns /a.kt\np org.test 0\nd 0/A\ns /b.kt\np org.test 0\nd 0/B\na javax.inject.Inject 0\nc 0 0/B\n",
+                     output.toString())
+    }
+
 
     private val resourcesRootFile = File("src/test/resources/parse")
 
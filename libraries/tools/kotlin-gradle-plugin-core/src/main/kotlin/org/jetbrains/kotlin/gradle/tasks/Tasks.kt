@@ -25,6 +25,8 @@ import org.jetbrains.kotlin.cli.common.messages.MessageCollector
 import org.jetbrains.kotlin.cli.js.K2JSCompiler
 import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler
 import org.jetbrains.kotlin.config.Services
+import org.jetbrains.kotlin.daemon.client.DaemonCompilerRunner
+import org.jetbrains.kotlin.daemon.common.CompileService
 import org.jetbrains.kotlin.utils.LibraryUtils
 import java.io.File
 import java.util.*
@@ -33,8 +35,11 @@ val DEFAULT_ANNOTATIONS = "org.jebrains.kotlin.gradle.defaultAnnotations"
 
 val ANNOTATIONS_PLUGIN_NAME = "org.jetbrains.kotlin.kapt"
 
+val USE_DAEMON_PROPERTY = "kotlin.compiler.daemon"
+
 abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCompile() {
     abstract protected val compiler: CLICompiler<T>
+    abstract protected val targetPlatform: CompileService.TargetPlatform
     abstract protected fun createBlankArgs(): T
     open protected fun afterCompileHook(args: T) {
     }
@@ -43,6 +48,12 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCo
     public var kotlinOptions: T = createBlankArgs()
     public var kotlinDestinationDir: File? = destinationDir
 
+    /**
+     * Compile on a compile daemon shared between builds instead of the Gradle process, can also be turned on for all tasks
+     * with the `kotlin.compiler.daemon` project property. Falls back to the compilation in the Gradle process if the daemon can't be used.
+     */
+    public var useDaemon: Boolean = false
+
     private val loggerInstance = Logging.getLogger(this.javaClass)
     override fun getLogger() = loggerInstance
 
@@ -81,8 +92,16 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCo
 
     private fun callCompiler(args: T) {
         val messageCollector = GradleMessageCollector(logger)
-        logger.debug("Calling compiler")
-        val exitCode = compiler.exec(messageCollector, Services.EMPTY, args)
+        val daemonExitCode = if (isDaemonRequested()) {
+            logger.debug("Calling compiler on the daemon")
+            DaemonCompilerRunner.compile(targetPlatform, args, messageCollector)
+        }
+        else null
+
+        val exitCode = daemonExitCode ?: run {
+            logger.debug("Calling compiler")
+            compiler.exec(messageCollector, Services.EMPTY, args)
+        }
 
         when (exitCode) {
             ExitCode.COMPILATION_ERROR -> throw GradleException("Compilation error. See log for more details")
@@ -90,11 +109,15 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractCo
         }
     }
 
+    private fun isDaemonRequested(): Boolean =
+            useDaemon || project.hasProperty(USE_DAEMON_PROPERTY) && project.property(USE_DAEMON_PROPERTY).toString() != "false"
+
 }
 
 
 public open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments>() {
     override val compiler = K2JVMCompiler()
+    override val targetPlatform = CompileService.TargetPlatform.JVM
     override fun createBlankArgs(): K2JVMCompilerArguments = K2JVMCompilerArguments()
 
     // Should be SourceDirectorySet or File
@@ -246,6 +269,7 @@ public open class KotlinCompile() : AbstractKotlinCompile<K2JVMCompilerArguments
 
 public open class Kotlin2JsCompile() : AbstractKotlinCompile<K2JSCompilerArguments>() {
     override val compiler = K2JSCompiler()
+    override val targetPlatform = CompileService.TargetPlatform.JS
 
     override fun createBlankArgs(): K2JSCompilerArguments {
         val args = K2JSCompilerArguments()
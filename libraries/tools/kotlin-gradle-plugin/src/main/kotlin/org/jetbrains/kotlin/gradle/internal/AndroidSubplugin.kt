@@ -72,6 +72,7 @@ public class AndroidSubplugin : KotlinGradleSubplugin {
             ""
         }
         pluginOptions += SubpluginOption("package", applicationPackage)
+        pluginOptions += SubpluginOption("layoutCache", File(project.buildDir, "tmp/kotlin-android-extensions/${task.name}/layouts.bin").absolutePath)
 
         fun addVariant(sourceSet: AndroidSourceSet) {
             pluginOptions += SubpluginOption("variant", sourceSet.name + ';' +
@@ -81,6 +81,28 @@ class KotlinGradleIT: BaseGradleIT() {
         }
     }
 
+    @Test
+    fun testKotlinCompilerDaemon() {
+        val project = Project("kotlinProject", "1.6")
+        val useDaemonArg = "-Pkotlin.compiler.daemon=true"
+
+        project.build(useDaemonArg, "build") {
+            assertSuccessful()
+            assertReportExists()
+            assertContains(":compileKotlin", ":compileTestKotlin", "Connected to the compile daemon")
+            assertNotContains("Falling back to compilation without daemon")
+
+            fileInWorkingDir("src/main/kotlin/helloWorld.kt").appendText("fun broken(): Int = undefinedFunction()\n")
+        }
+
+        project.build(useDaemonArg, "build") {
+            assertFailed()
+            assertNotContains("Falling back to compilation without daemon")
+            val error = "e: .*helloWorld\\.kt: \\(23, 21\\): Unresolved reference: undefinedFunction".toRegex()
+            assert(error.containsMatchIn(output)) { "The compilation error is not reported with its location" }
+        }
+    }
+
     @Test
     fun testKotlinClasspath() {
         Project("classpathTest", "1.6").build("build") {
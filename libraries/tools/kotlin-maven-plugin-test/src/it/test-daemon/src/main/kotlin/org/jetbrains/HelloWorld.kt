@@ -0,0 +1,9 @@
+package org.jetbrains
+
+fun main(args : Array<String>) {
+    System.out?.println(getGreeting())
+}
+
+fun getGreeting() : String {
+    return "Hello, World!"
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package org.jetbrains
+
+fun main(args : Array<String>) {
+    println(getGreeting())
+}
@@ -0,0 +1,7 @@
+package org.jetbrains
+
+fun getGreeting() : String {
+    return "Hello, " + getName() + "!"
+}
+
+fun getName() : String = "World"
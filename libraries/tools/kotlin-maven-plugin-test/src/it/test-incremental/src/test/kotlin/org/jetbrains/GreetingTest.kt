@@ -0,0 +1,10 @@
+package org.jetbrains
+
+import org.junit.Test
+import org.junit.Assert.assertEquals
+
+class GreetingTest {
+    @Test fun greeting() {
+        assertEquals("Hello, World!", getGreeting())
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.cli.common.arguments.K2JSCompilerArguments;
 import org.jetbrains.kotlin.cli.js.K2JSCompiler;
+import org.jetbrains.kotlin.daemon.common.CompileService;
 import org.jetbrains.kotlin.utils.LibraryUtils;
 import org.jetbrains.kotlin.utils.KotlinJavascriptMetadataUtils;
 import org.jetbrains.kotlin.js.JavaScript;
@@ -144,6 +145,12 @@ public class K2JSCompilerMojo extends KotlinCompileMojoBase<K2JSCompilerArgument
         return new K2JSCompiler();
     }
 
+    @NotNull
+    @Override
+    protected CompileService.TargetPlatform getTargetPlatform() {
+        return CompileService.TargetPlatform.JS;
+    }
+
     private Set<String> getOutputDirectoriesCollector() {
         lock.lock();
         try {
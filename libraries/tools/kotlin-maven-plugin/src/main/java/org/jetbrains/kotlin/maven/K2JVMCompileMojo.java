@@ -28,8 +28,12 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.kotlin.cli.common.CLICompiler;
+import org.jetbrains.kotlin.cli.common.ExitCode;
 import org.jetbrains.kotlin.cli.common.arguments.K2JVMCompilerArguments;
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector;
 import org.jetbrains.kotlin.cli.jvm.K2JVMCompiler;
+import org.jetbrains.kotlin.incremental.IncrementalJvmCompilerRunner;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -62,6 +66,24 @@ public class K2JVMCompileMojo extends KotlinCompileMojoBase<K2JVMCompilerArgumen
     @Parameter(defaultValue = "${project.artifactId}-test", required = true, readonly = true)
     protected String testModuleName;
 
+    /**
+     * Recompile only the Kotlin sources affected by the changes since the previous build (experimental).
+     */
+    @Parameter(property = "kotlin.compiler.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    @Parameter(defaultValue = "${project.build.directory}/kotlin-ic", required = true, readonly = true)
+    private String incrementalCachesRoot;
+
+    @NotNull
+    protected String getIncrementalCacheDirName() {
+        return "compile";
+    }
+
+    protected boolean isTestCompilation() {
+        return false;
+    }
+
     @NotNull
     @Override
     protected K2JVMCompiler createCompiler() {
@@ -112,6 +134,33 @@ public class K2JVMCompileMojo extends KotlinCompileMojoBase<K2JVMCompilerArgumen
         }
     }
 
+    @NotNull
+    @Override
+    protected ExitCode executeCompiler(
+            @NotNull CLICompiler<K2JVMCompilerArguments> compiler,
+            @NotNull K2JVMCompilerArguments arguments,
+            @NotNull MessageCollector messageCollector
+    ) {
+        if (!incremental) {
+            return super.executeCompiler(compiler, arguments, messageCollector);
+        }
+
+        if (useDaemon) {
+            getLog().info("Incremental compilation runs in the Maven process, the compile daemon is not used");
+        }
+
+        File cachesDir = new File(incrementalCachesRoot, getIncrementalCacheDirName());
+        getLog().info("Using incremental compilation, caches directory is " + cachesDir);
+
+        IncrementalJvmCompilerRunner runner = new IncrementalJvmCompilerRunner(cachesDir, isTestCompilation(), new IncrementalJvmCompilerRunner.Reporter() {
+            @Override
+            public void report(@NotNull String message) {
+                getLog().info(message);
+            }
+        });
+        return runner.compile(arguments, messageCollector);
+    }
+
     protected List<String> filterClassPath(List<String> classpath) {
         return CollectionsKt.filter(classpath, new Function1<String, Boolean>() {
             @Override
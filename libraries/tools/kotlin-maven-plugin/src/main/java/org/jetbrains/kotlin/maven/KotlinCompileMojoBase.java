@@ -35,6 +35,8 @@ import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation;
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity;
 import org.jetbrains.kotlin.cli.common.messages.MessageCollector;
 import org.jetbrains.kotlin.config.Services;
+import org.jetbrains.kotlin.daemon.client.DaemonCompilerRunner;
+import org.jetbrains.kotlin.daemon.common.CompileService;
 
 import java.io.File;
 import java.lang.reflect.Field;
@@ -104,6 +106,13 @@ public abstract class KotlinCompileMojoBase<A extends CommonCompilerArguments> e
     @Parameter
     public List<String> args;
 
+    /**
+     * Compile on a compile daemon shared between builds instead of the Maven process.
+     * Falls back to the compilation in the Maven process if the daemon can't be used.
+     */
+    @Parameter(property = "kotlin.compiler.daemon", defaultValue = "false")
+    public boolean useDaemon;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
@@ -216,9 +225,18 @@ public abstract class KotlinCompileMojoBase<A extends CommonCompilerArguments> e
             @NotNull A arguments,
             @NotNull MessageCollector messageCollector
     ) {
+        if (useDaemon) {
+            ExitCode exitCode = DaemonCompilerRunner.compile(getTargetPlatform(), arguments, messageCollector);
+            if (exitCode != null) return exitCode;
+        }
         return compiler.exec(messageCollector, Services.EMPTY, arguments);
     }
 
+    @NotNull
+    protected CompileService.TargetPlatform getTargetPlatform() {
+        return CompileService.TargetPlatform.JVM;
+    }
+
     /**
      * Derived classes can register custom plugins or configurations
      */
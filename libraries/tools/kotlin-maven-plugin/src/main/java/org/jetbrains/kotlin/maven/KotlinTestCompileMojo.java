@@ -81,6 +81,17 @@ public class KotlinTestCompileMojo extends K2JVMCompileMojo {
         }
     }
 
+    @NotNull
+    @Override
+    protected String getIncrementalCacheDirName() {
+        return "test-compile";
+    }
+
+    @Override
+    protected boolean isTestCompilation() {
+        return true;
+    }
+
     @Override
     protected void configureSpecificCompilerArguments(@NotNull K2JVMCompilerArguments arguments) throws MojoExecutionException {
         module = testModule;
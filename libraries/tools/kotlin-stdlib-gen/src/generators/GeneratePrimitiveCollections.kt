@@ -0,0 +1,668 @@
+package generators
+
+import java.io.File
+import java.io.FileWriter
+
+private val listElementTypes = listOf("Int", "Long", "Double")
+private val mapKeyTypes = listOf("Int", "Long")
+
+private fun zeroOf(type: String) = when (type) {
+    "Long" -> "0L"
+    "Double" -> "0.0"
+    else -> "0"
+}
+
+/**
+ * Generates lists and hash maps of primitive values, which keep the elements in primitive arrays instead of boxing them.
+ * The higher-order functions are inline and use only the public API of the collections, so they don't box either.
+ */
+fun generatePrimitiveCollections(file: File) {
+    println("Generating file: $file")
+    val its = FileWriter(file)
+
+    its.use {
+        its.append("@file:kotlin.jvm.JvmName(\"PrimitiveCollectionsKt\")\n")
+        its.append("@file:kotlin.jvm.JvmVersion\n\n")
+        its.append("package kotlin.collections\n\n")
+        its.append("$COMMON_AUTOGENERATED_WARNING\n")
+
+        for (type in listElementTypes) {
+            its.append(primitiveList(type))
+        }
+        for (keyType in mapKeyTypes) {
+            its.append(primitiveMap(keyType, keyType))
+            its.append(primitiveMap(keyType, null))
+        }
+        its.append(primitiveCollectionsHelpers())
+    }
+}
+
+private fun primitiveList(t: String): String {
+    val zero = zeroOf(t)
+    return """
+/**
+ * A growable list of `$t` values backed by a [${t}Array], which stores the elements without boxing.
+ */
+public class ${t}List(initialCapacity: Int = 10) {
+    private var elements: ${t}Array
+
+    /**
+     * Returns the number of elements in this list.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: ${'$'}initialCapacity" }
+        elements = ${t}Array(initialCapacity)
+    }
+
+    /**
+     * Returns the range of valid indices for this list.
+     */
+    public val indices: IntRange
+        get() = 0..size - 1
+
+    /**
+     * Returns `true` if this list is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this list is not empty.
+     */
+    public fun isNotEmpty(): Boolean = size != 0
+
+    /**
+     * Returns the element at the specified [index].
+     */
+    public operator fun get(index: Int): $t {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    /**
+     * Replaces the element at the specified [index] and returns the previous one.
+     */
+    public operator fun set(index: Int, element: $t): $t {
+        checkIndex(index)
+        val previous = elements[index]
+        elements[index] = element
+        return previous
+    }
+
+    /**
+     * Appends the [element] to the end of this list.
+     */
+    public fun add(element: $t) {
+        ensureCapacity(size + 1)
+        elements[size++] = element
+    }
+
+    /**
+     * Inserts the [element] at the specified [index], shifting the following elements.
+     */
+    public fun add(index: Int, element: $t) {
+        if (index < 0 || index > size) throw IndexOutOfBoundsException("Index: ${'$'}index, Size: ${'$'}size")
+        ensureCapacity(size + 1)
+        System.arraycopy(elements, index, elements, index + 1, size - index)
+        elements[index] = element
+        size++
+    }
+
+    /**
+     * Appends all the [elements] to the end of this list.
+     */
+    public fun addAll(elements: ${t}Array) {
+        ensureCapacity(size + elements.size)
+        System.arraycopy(elements, 0, this.elements, size, elements.size)
+        size += elements.size
+    }
+
+    /**
+     * Appends all the elements of the [other] list to the end of this list.
+     */
+    public fun addAll(other: ${t}List) {
+        ensureCapacity(size + other.size)
+        System.arraycopy(other.elements, 0, elements, size, other.size)
+        size += other.size
+    }
+
+    /**
+     * Removes the element at the specified [index] and returns it.
+     */
+    public fun removeAt(index: Int): $t {
+        checkIndex(index)
+        val removed = elements[index]
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1)
+        size--
+        return removed
+    }
+
+    /**
+     * Removes all elements from this list, keeping its capacity.
+     */
+    public fun clear() {
+        size = 0
+    }
+
+    /**
+     * Returns `true` if the [element] is found in this list.
+     */
+    public operator fun contains(element: $t): Boolean = indexOf(element) >= 0
+
+    /**
+     * Returns the first index of the [element], or -1 if this list does not contain it.
+     */
+    public fun indexOf(element: $t): Int {
+        for (index in 0..size - 1) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Returns the last index of the [element], or -1 if this list does not contain it.
+     */
+    public fun lastIndexOf(element: $t): Int {
+        for (index in size - 1 downTo 0) {
+            if (same(elements[index], element)) return index
+        }
+        return -1
+    }
+
+    /**
+     * Sorts the elements of this list in place.
+     */
+    public fun sort() {
+        java.util.Arrays.sort(elements, 0, size)
+    }
+
+    /**
+     * Returns the sum of all elements in this list.
+     */
+    public fun sum(): $t {
+        var sum: $t = $zero
+        for (index in 0..size - 1) {
+            sum += elements[index]
+        }
+        return sum
+    }
+
+    /**
+     * Returns an array containing all elements of this list.
+     */
+    public fun toArray(): ${t}Array = java.util.Arrays.copyOf(elements, size)
+
+    /**
+     * Makes sure this list can hold at least [minCapacity] elements without growing.
+     */
+    public fun ensureCapacity(minCapacity: Int) {
+        if (minCapacity > elements.size) {
+            elements = java.util.Arrays.copyOf(elements, Math.max(minCapacity, elements.size + (elements.size shr 1)))
+        }
+    }
+
+    /**
+     * Shrinks the capacity of this list to its size.
+     */
+    public fun trimToSize() {
+        if (size < elements.size) {
+            elements = java.util.Arrays.copyOf(elements, size)
+        }
+    }
+
+    /**
+     * Performs the given [action] on each element.
+     */
+    public inline fun forEach(action: ($t) -> Unit) {
+        for (index in 0..size - 1) action(get(index))
+    }
+
+    /**
+     * Performs the given [action] on each element, providing its index.
+     */
+    public inline fun forEachIndexed(action: (Int, $t) -> Unit) {
+        for (index in 0..size - 1) action(index, get(index))
+    }
+
+    /**
+     * Returns `true` if at least one element matches the given [predicate].
+     */
+    public inline fun any(predicate: ($t) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (predicate(get(index))) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all elements match the given [predicate].
+     */
+    public inline fun all(predicate: ($t) -> Boolean): Boolean {
+        for (index in 0..size - 1) if (!predicate(get(index))) return false
+        return true
+    }
+
+    /**
+     * Returns the number of elements matching the given [predicate].
+     */
+    public inline fun count(predicate: ($t) -> Boolean): Int {
+        var count = 0
+        for (index in 0..size - 1) if (predicate(get(index))) count++
+        return count
+    }
+
+    /**
+     * Accumulates value starting with [initial] value and applying [operation] from left to right to current accumulator value and each element.
+     */
+    public inline fun <R> fold(initial: R, operation: (R, $t) -> R): R {
+        var accumulator = initial
+        for (index in 0..size - 1) accumulator = operation(accumulator, get(index))
+        return accumulator
+    }
+
+    /**
+     * Returns a list containing only elements matching the given [predicate].
+     */
+    public inline fun filter(predicate: ($t) -> Boolean): ${t}List {
+        val result = ${t}List()
+        for (index in 0..size - 1) {
+            val element = get(index)
+            if (predicate(element)) result.add(element)
+        }
+        return result
+    }
+
+    /**
+     * Returns a list containing the results of applying the given [transform] function to each element.
+     */
+    public inline fun map(transform: ($t) -> $t): ${t}List {
+        val result = ${t}List(size)
+        for (index in 0..size - 1) result.add(transform(get(index)))
+        return result
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is ${t}List || size != other.size) return false
+        for (index in 0..size - 1) {
+            if (!same(elements[index], other.elements[index])) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 1
+        for (index in 0..size - 1) {
+            result = 31 * result + hash(elements[index])
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (index in 0..size - 1) {
+            if (index > 0) builder.append(", ")
+            builder.append(elements[index])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: ${'$'}index, Size: ${'$'}size")
+    }
+}
+
+/**
+ * Returns a new [${t}List] with the given elements.
+ */
+public fun ${t.toLowerCase()}ListOf(vararg elements: $t): ${t}List = elements.to${t}List()
+
+/**
+ * Returns a new [${t}List] filled with all elements of this array.
+ */
+public fun ${t}Array.to${t}List(): ${t}List {
+    val result = ${t}List(size)
+    result.addAll(this)
+    return result
+}
+"""
+}
+
+/**
+ * @param valueType the primitive type of the values, or `null` for a map with values of the type parameter `V`
+ */
+private fun primitiveMap(keyType: String, valueType: String?): String {
+    val k = keyType
+    val keyZero = zeroOf(keyType)
+    val name = "$k${valueType ?: "Object"}Map"
+    val type = if (valueType != null) name else "$name<V>"
+    val v = valueType ?: "V"
+    val valuesArrayType = if (valueType != null) "${valueType}Array" else "Array<Any?>"
+    val newValuesArray = if (valueType != null) "${valueType}Array" else "arrayOfNulls<Any?>"
+    val valueZero = if (valueType != null) zeroOf(valueType) else "null"
+    val valueDescription = if (valueType != null) "`$valueType` values" else "values of type [V]"
+    val valueAt = if (valueType != null) "values[slot]" else "values[slot] as V"
+    val suppressUnchecked = if (valueType != null) "" else "\n    @Suppress(\"UNCHECKED_CAST\")"
+    val objectGet = if (valueType != null) "" else """
+    /**
+     * Returns the value for the given [key], or `null` if the key is missing in this map.
+     */
+    public operator fun get(key: $k): V? {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else null
+    }
+"""
+    return """
+/**
+ * A hash map from `$k` keys to $valueDescription, which keeps the keys in a [${k}Array] without boxing.
+ * Entries are placed with open addressing and linear probing.
+ */
+public class $type(initialCapacity: Int = 8) {
+    // $keyZero marks a free slot in [keys], so the value for the key $keyZero is kept in the extra last slot of [values]
+    private var keys: ${k}Array
+    private var values: $valuesArrayType
+    private var hasZeroKey: Boolean = false
+    private var threshold: Int = 0
+
+    /**
+     * Returns the number of entries in this map.
+     */
+    public var size: Int = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "Negative initial capacity: ${'$'}initialCapacity" }
+        val tableSize = primitiveMapTableSize(initialCapacity)
+        keys = ${k}Array(tableSize)
+        values = $newValuesArray(tableSize + 1)
+        threshold = primitiveMapThreshold(tableSize)
+    }
+
+    /**
+     * Returns `true` if this map is empty.
+     */
+    public fun isEmpty(): Boolean = size == 0
+
+    /**
+     * Returns `true` if this map contains the given [key].
+     */
+    public fun containsKey(key: $k): Boolean = findSlot(key) >= 0
+$objectGet
+    /**
+     * Returns the value for the given [key], or [defaultValue] if the key is missing in this map.
+     */
+    public fun getOrDefault(key: $k, defaultValue: $v): $v {
+        val slot = findSlot(key)
+        return if (slot >= 0) valueAt(slot) else defaultValue
+    }
+
+    /**
+     * Returns the value for the given [key] or throws an exception if the key is missing in this map.
+     */
+    public fun getValue(key: $k): $v {
+        val slot = findSlot(key)
+        if (slot < 0) throw NoSuchElementException("Key ${'$'}key is missing in the map.")
+        return valueAt(slot)
+    }
+
+    /**
+     * Associates the [value] with the [key] in this map.
+     */
+    public operator fun set(key: $k, value: $v) {
+        if (key == $keyZero) {
+            if (!hasZeroKey) {
+                hasZeroKey = true
+                size++
+            }
+            values[keys.size] = value
+            return
+        }
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == $keyZero) {
+                keys[slot] = key
+                values[slot] = value
+                if (++size >= threshold) rehash(keys.size * 2)
+                return
+            }
+            if (current == key) {
+                values[slot] = value
+                return
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    /**
+     * Removes the [key] and its value from this map.
+     * @return `true` if the key was present in this map.
+     */
+    public fun remove(key: $k): Boolean {
+        val slot = findSlot(key)
+        if (slot < 0) return false
+
+        if (key == $keyZero) {
+            hasZeroKey = false
+            values[keys.size] = $valueZero
+        }
+        else {
+            // shift the following entries of the cluster back, so that lookups don't stop at the freed slot
+            val mask = keys.size - 1
+            var gap = slot
+            var next = (gap + 1) and mask
+            while (keys[next] != $keyZero) {
+                val ideal = mix(keys[next]) and mask
+                if (((next - ideal) and mask) >= ((next - gap) and mask)) {
+                    keys[gap] = keys[next]
+                    values[gap] = values[next]
+                    gap = next
+                }
+                next = (next + 1) and mask
+            }
+            keys[gap] = $keyZero
+            values[gap] = $valueZero
+        }
+        size--
+        return true
+    }
+
+    /**
+     * Removes all entries from this map, keeping its capacity.
+     */
+    public fun clear() {
+        java.util.Arrays.fill(keys, $keyZero)
+        java.util.Arrays.fill(values, $valueZero)
+        hasZeroKey = false
+        size = 0
+    }
+
+    /**
+     * Returns an array containing all keys of this map.
+     */
+    public fun keysToArray(): ${k}Array {
+        val result = ${k}Array(size)
+        var index = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) result[index++] = cursor.key
+        return result
+    }
+
+    /**
+     * Returns a cursor over the entries of this map. The map should not be modified while the cursor is used.
+     */
+    public fun cursor(): Cursor = Cursor()
+
+    /**
+     * Performs the given [action] on each entry.
+     */
+    public inline fun forEach(action: ($k, $v) -> Unit) {
+        val cursor = cursor()
+        while (cursor.moveNext()) action(cursor.key, cursor.value)
+    }
+
+    /**
+     * Returns `true` if at least one entry matches the given [predicate].
+     */
+    public inline fun any(predicate: ($k, $v) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) return true
+        return false
+    }
+
+    /**
+     * Returns `true` if all entries match the given [predicate].
+     */
+    public inline fun all(predicate: ($k, $v) -> Boolean): Boolean {
+        val cursor = cursor()
+        while (cursor.moveNext()) if (!predicate(cursor.key, cursor.value)) return false
+        return true
+    }
+
+    /**
+     * Returns the number of entries matching the given [predicate].
+     */
+    public inline fun count(predicate: ($k, $v) -> Boolean): Int {
+        var count = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) if (predicate(cursor.key, cursor.value)) count++
+        return count
+    }
+
+    /**
+     * Iterates over the entries of the map without allocating an object per entry.
+     * [key] and [value] return the current entry after [moveNext] has returned `true`.
+     */
+    public inner class Cursor internal constructor() {
+        private var slot = -1
+
+        /**
+         * Returns the key of the current entry.
+         */
+        public val key: $k
+            get() = if (slot == keys.size) $keyZero else keys[slot]
+
+        /**
+         * Returns the value of the current entry.
+         */
+        public val value: $v
+            get() = valueAt(slot)
+
+        /**
+         * Moves the cursor to the next entry.
+         * @return `false` if there are no more entries.
+         */
+        public fun moveNext(): Boolean {
+            while (++slot < keys.size) {
+                if (keys[slot] != $keyZero) return true
+            }
+            return slot == keys.size && hasZeroKey
+        }
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is $name${if (valueType != null) "" else "<*>"} || size != other.size) return false
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            val slot = other.findSlot(cursor.key)
+            if (slot < 0 || !same(cursor.value, other.valueAt(slot))) return false
+        }
+        return true
+    }
+
+    override fun hashCode(): Int {
+        var result = 0
+        val cursor = cursor()
+        while (cursor.moveNext()) {
+            result += hash(cursor.key) xor hash(cursor.value)
+        }
+        return result
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        val cursor = cursor()
+        var first = true
+        while (cursor.moveNext()) {
+            if (!first) builder.append(", ")
+            builder.append(cursor.key).append('=').append(cursor.value)
+            first = false
+        }
+        return builder.append("}").toString()
+    }
+
+    private fun findSlot(key: $k): Int {
+        if (key == $keyZero) return if (hasZeroKey) keys.size else -1
+
+        val mask = keys.size - 1
+        var slot = mix(key) and mask
+        while (true) {
+            val current = keys[slot]
+            if (current == key) return slot
+            if (current == $keyZero) return -1
+            slot = (slot + 1) and mask
+        }
+    }
+$suppressUnchecked
+    private fun valueAt(slot: Int): $v = $valueAt
+
+    private fun rehash(tableSize: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = ${k}Array(tableSize)
+        values = $newValuesArray(tableSize + 1)
+        values[tableSize] = oldValues[oldKeys.size]
+        threshold = primitiveMapThreshold(tableSize)
+
+        val mask = tableSize - 1
+        for (oldSlot in oldKeys.indices) {
+            val key = oldKeys[oldSlot]
+            if (key == $keyZero) continue
+            var slot = mix(key) and mask
+            while (keys[slot] != $keyZero) slot = (slot + 1) and mask
+            keys[slot] = key
+            values[slot] = oldValues[oldSlot]
+        }
+    }
+}
+"""
+}
+
+private fun primitiveCollectionsHelpers(): String = """
+private fun primitiveMapTableSize(capacity: Int): Int {
+    var tableSize = 2
+    while (primitiveMapThreshold(tableSize) <= capacity && tableSize < (1 shl 30)) tableSize *= 2
+    return tableSize
+}
+
+private fun primitiveMapThreshold(tableSize: Int): Int = tableSize / 4 * 3 + (tableSize % 4) * 3 / 4
+
+private fun mix(key: Int): Int {
+    val h = key * -1640531527
+    return h xor (h ushr 16)
+}
+
+private fun mix(key: Long): Int {
+    val h = key * -7046029254386353131L
+    return (h xor (h ushr 32)).toInt()
+}
+
+private fun same(a: Int, b: Int): Boolean = a == b
+
+private fun same(a: Long, b: Long): Boolean = a == b
+
+private fun same(a: Double, b: Double): Boolean = java.lang.Double.doubleToLongBits(a) == java.lang.Double.doubleToLongBits(b)
+
+private fun same(a: Any?, b: Any?): Boolean = a == b
+
+private fun hash(value: Int): Int = value
+
+private fun hash(value: Long): Int = (value xor (value ushr 32)).toInt()
+
+private fun hash(value: Double): Int = hash(java.lang.Double.doubleToLongBits(value))
+
+private fun hash(value: Any?): Int = value?.hashCode() ?: 0
+"""
@@ -4,7 +4,7 @@ import java.io.*
 import templates.*
 import templates.Family.*
 
-private val COMMON_AUTOGENERATED_WARNING: String = """//
+internal val COMMON_AUTOGENERATED_WARNING: String = """//
 // NOTE THIS FILE IS AUTO-GENERATED by the GenerateStandardLib.kt
 // See: https://github.com/JetBrains/kotlin/tree/master/libraries/stdlib
 //"""
@@ -26,6 +26,7 @@ fun main(args: Array<String>) {
     require(jsCoreDir.exists()) { "$jsCoreDir doesn't exist!" }
 
     generateCollectionsAPI(outDir)
+    generatePrimitiveCollections(File(outDir, "_PrimitiveCollections.kt"))
     generateCollectionsJsAPI(jsCoreDir)
 
 }
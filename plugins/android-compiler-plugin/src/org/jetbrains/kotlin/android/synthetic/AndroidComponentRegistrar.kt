@@ -38,10 +38,12 @@ import org.jetbrains.kotlin.extensions.StorageComponentContainerContributor
 import org.jetbrains.kotlin.resolve.TargetPlatform
 import org.jetbrains.kotlin.resolve.jvm.extensions.PackageFragmentProviderExtension
 import org.jetbrains.kotlin.resolve.jvm.platform.JvmPlatform
+import java.io.File
 
 object AndroidConfigurationKeys {
     val VARIANT: CompilerConfigurationKey<List<String>> = CompilerConfigurationKey.create<List<String>>("Android build variant")
     val PACKAGE: CompilerConfigurationKey<String> = CompilerConfigurationKey.create<String>("application package fq name")
+    val LAYOUT_CACHE: CompilerConfigurationKey<String> = CompilerConfigurationKey.create<String>("parsed layouts cache file")
 }
 
 class AndroidCommandLineProcessor : CommandLineProcessor {
@@ -50,11 +52,12 @@ class AndroidCommandLineProcessor : CommandLineProcessor {
 
         val VARIANT_OPTION: CliOption = CliOption("variant", "<name;path>", "Android build variant", allowMultipleOccurrences = true)
         val PACKAGE_OPTION: CliOption = CliOption("package", "<fq name>", "Application package")
+        val LAYOUT_CACHE_OPTION: CliOption = CliOption("layoutCache", "<path>", "File to cache parsed layouts in between compilations", required = false)
     }
 
     override val pluginId: String = ANDROID_COMPILER_PLUGIN_ID
 
-    override val pluginOptions: Collection<CliOption> = listOf(VARIANT_OPTION, PACKAGE_OPTION)
+    override val pluginOptions: Collection<CliOption> = listOf(VARIANT_OPTION, PACKAGE_OPTION, LAYOUT_CACHE_OPTION)
 
     override fun processOption(option: CliOption, value: String, configuration: CompilerConfiguration) {
         when (option) {
@@ -64,6 +67,7 @@ class AndroidCommandLineProcessor : CommandLineProcessor {
                 configuration.put(AndroidConfigurationKeys.VARIANT, paths)
             }
             PACKAGE_OPTION -> configuration.put(AndroidConfigurationKeys.PACKAGE, value)
+            LAYOUT_CACHE_OPTION -> configuration.put(AndroidConfigurationKeys.LAYOUT_CACHE, value)
             else -> throw CliOptionProcessingException("Unknown option: ${option.name}")
         }
     }
@@ -74,9 +78,10 @@ class AndroidComponentRegistrar : ComponentRegistrar {
     override fun registerProjectComponents(project: MockProject, configuration: CompilerConfiguration) {
         val applicationPackage = configuration.get(AndroidConfigurationKeys.PACKAGE)
         val variants = configuration.get(AndroidConfigurationKeys.VARIANT)?.map { parseVariant(it) }?.filterNotNull() ?: emptyList()
+        val layoutCacheFile = configuration.get(AndroidConfigurationKeys.LAYOUT_CACHE)?.let { File(it) }
 
         if (variants.isNotEmpty() && !applicationPackage.isNullOrBlank()) {
-            val layoutXmlFileManager = CliAndroidLayoutXmlFileManager(project, applicationPackage!!, variants)
+            val layoutXmlFileManager = CliAndroidLayoutXmlFileManager(project, applicationPackage!!, variants, layoutCacheFile)
             project.registerService(AndroidLayoutXmlFileManager::class.java, layoutXmlFileManager)
 
             ExpressionCodegenExtension.registerExtension(project, AndroidExpressionCodegenExtension())
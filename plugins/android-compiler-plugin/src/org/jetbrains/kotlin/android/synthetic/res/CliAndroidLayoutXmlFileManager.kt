@@ -18,45 +18,101 @@ package org.jetbrains.kotlin.android.synthetic.res
 
 import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiFile
 import org.jetbrains.kotlin.android.synthetic.AndroidXmlHandler
 import org.jetbrains.kotlin.descriptors.ModuleDescriptor
 import java.io.ByteArrayInputStream
+import java.io.File
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
 import javax.xml.parsers.SAXParser
 import javax.xml.parsers.SAXParserFactory
 
 class CliAndroidLayoutXmlFileManager(
         project: Project,
         private val applicationPackage: String,
-        private val variants: List<AndroidVariant>
+        private val variants: List<AndroidVariant>,
+        cacheFile: File? = null
 ) : AndroidLayoutXmlFileManager(project) {
     private companion object {
         val LOG = Logger.getInstance(CliAndroidLayoutXmlFileManager::class.java)
+
+        val MAX_PARSER_THREADS = 4
     }
 
     override val androidModule = AndroidModule(applicationPackage, variants)
 
-    private val saxParser: SAXParser = initSAX()
+    private val saxParser = object : ThreadLocal<SAXParser>() {
+        override fun initialValue() = initSAX()
+    }
+
+    private val layoutCache = LayoutXmlCache(cacheFile)
+
+    // layouts are parsed once per module data request: only the changed ones, in parallel, the rest comes from the cache
+    override fun getModuleData(): AndroidModuleData {
+        val moduleData = super.getModuleData()
+
+        val layoutFiles = moduleData.flatMap { variantData -> variantData.values.flatten() }.map { it.virtualFile }.distinct()
+        parseChangedLayouts(layoutFiles.filter { layoutCache.get(it.path, it.timeStamp, it.length) == null })
+        layoutCache.save(layoutFiles.mapTo(hashSetOf()) { it.path })
+
+        return moduleData
+    }
 
     override fun doExtractResources(files: List<PsiFile>, module: ModuleDescriptor): List<AndroidResource> {
         val resources = arrayListOf<AndroidResource>()
 
-        val handler = AndroidXmlHandler { id, tag ->
-            resources += parseAndroidResource(id, tag, null)
-        }
-
         for (file in files) {
-            try {
-                val inputStream = ByteArrayInputStream(file.virtualFile.contentsToByteArray())
-                saxParser.parse(inputStream, handler)
-            } catch (e: Throwable) {
-                LOG.error(e)
+            val widgets = getWidgets(file.virtualFile)
+            for (widget in widgets) {
+                resources += parseAndroidResource(widget.id, widget.tag, null)
             }
         }
 
         return resources
     }
 
+    private fun parseChangedLayouts(files: List<VirtualFile>) {
+        if (files.isEmpty()) return
+        if (files.size == 1) {
+            getWidgets(files.single())
+            return
+        }
+
+        val executor = Executors.newFixedThreadPool(Math.min(files.size, Math.min(MAX_PARSER_THREADS, Runtime.getRuntime().availableProcessors())))
+        try {
+            executor.invokeAll(files.map { Callable { getWidgets(it) } })
+        }
+        finally {
+            executor.shutdown()
+        }
+    }
+
+    private fun getWidgets(file: VirtualFile): List<LayoutWidget> {
+        // the stamps are taken before reading, so that a file changed in the meantime is parsed again next time
+        val timeStamp = file.timeStamp
+        val length = file.length
+        layoutCache.get(file.path, timeStamp, length)?.let { return it }
+
+        val widgets = arrayListOf<LayoutWidget>()
+        val handler = AndroidXmlHandler { id, tag ->
+            widgets += LayoutWidget(id, tag)
+        }
+
+        try {
+            val inputStream = ByteArrayInputStream(file.contentsToByteArray())
+            saxParser.get().parse(inputStream, handler)
+        } catch (e: Throwable) {
+            // widgets parsed before the error are still used, but the file is not cached
+            LOG.error(e)
+            return widgets
+        }
+
+        layoutCache.put(file.path, LayoutXmlCacheEntry(timeStamp, length, widgets))
+        return widgets
+    }
+
     protected fun initSAX(): SAXParser {
         val saxFactory = SAXParserFactory.newInstance()
         saxFactory.isNamespaceAware = true
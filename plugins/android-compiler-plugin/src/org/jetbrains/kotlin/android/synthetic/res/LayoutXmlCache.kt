@@ -0,0 +1,106 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.android.synthetic.res
+
+import com.intellij.openapi.diagnostic.Logger
+import java.io.*
+
+class LayoutWidget(val id: String, val tag: String)
+
+class LayoutXmlCacheEntry(val timeStamp: Long, val length: Long, val widgets: List<LayoutWidget>)
+
+/**
+ * Widgets parsed from the layout files, keyed by the file path.
+ * An entry is valid as long as the time stamp and the length of the file stay the same.
+ */
+class LayoutXmlCache(private val cacheFile: File?) {
+    private companion object {
+        val LOG = Logger.getInstance(LayoutXmlCache::class.java)
+
+        val VERSION = 1
+    }
+
+    private val entries = hashMapOf<String, LayoutXmlCacheEntry>()
+
+    init {
+        if (cacheFile != null && cacheFile.exists()) {
+            try {
+                DataInputStream(cacheFile.inputStream().buffered()).use { read(it) }
+            }
+            catch (e: IOException) {
+                LOG.warn("Could not read the layout cache $cacheFile, all layouts will be parsed", e)
+                entries.clear()
+            }
+        }
+    }
+
+    @Synchronized
+    fun get(path: String, timeStamp: Long, length: Long): List<LayoutWidget>? {
+        val entry = entries[path] ?: return null
+        return if (entry.timeStamp == timeStamp && entry.length == length) entry.widgets else null
+    }
+
+    @Synchronized
+    fun put(path: String, entry: LayoutXmlCacheEntry) {
+        entries[path] = entry
+    }
+
+    /**
+     * Writes the entries of [livePaths] to the cache file, the entries of the removed layouts are dropped.
+     */
+    @Synchronized
+    fun save(livePaths: Set<String>) {
+        if (cacheFile == null) return
+
+        entries.keys.retainAll(livePaths)
+        try {
+            cacheFile.parentFile?.mkdirs()
+            DataOutputStream(cacheFile.outputStream().buffered()).use { write(it) }
+        }
+        catch (e: IOException) {
+            LOG.warn("Could not write the layout cache $cacheFile", e)
+            cacheFile.delete()
+        }
+    }
+
+    private fun read(input: DataInputStream) {
+        if (input.readInt() != VERSION) return
+
+        repeat(input.readInt()) {
+            val path = input.readUTF()
+            val timeStamp = input.readLong()
+            val length = input.readLong()
+            val widgets = (1..input.readInt()).map { LayoutWidget(input.readUTF(), input.readUTF()) }
+            entries[path] = LayoutXmlCacheEntry(timeStamp, length, widgets)
+        }
+    }
+
+    private fun write(output: DataOutputStream) {
+        output.writeInt(VERSION)
+        output.writeInt(entries.size)
+        for ((path, entry) in entries) {
+            output.writeUTF(path)
+            output.writeLong(entry.timeStamp)
+            output.writeLong(entry.length)
+            output.writeInt(entry.widgets.size)
+            for (widget in entry.widgets) {
+                output.writeUTF(widget.id)
+                output.writeUTF(widget.tag)
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.lang.resolve.android.test
+
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.kotlin.android.synthetic.res.LayoutWidget
+import org.jetbrains.kotlin.android.synthetic.res.LayoutXmlCache
+import org.jetbrains.kotlin.android.synthetic.res.LayoutXmlCacheEntry
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import java.io.File
+
+class LayoutXmlCacheTest : UsefulTestCase() {
+    private lateinit var cacheFile: File
+    private lateinit var layoutDir: File
+
+    override fun setUp() {
+        super.setUp()
+        val tmpDir = KotlinTestUtils.tmpDirForTest(this)
+        cacheFile = File(tmpDir, "caches/layouts.bin")
+        layoutDir = File(tmpDir, "layout")
+    }
+
+    fun testSaveAndReload() {
+        val main = layout("main.xml", "<TextView android:id=\"@+id/title\"/>")
+        val item = layout("item.xml", "<Button android:id=\"@+id/ok\"/>")
+
+        val cache = LayoutXmlCache(cacheFile)
+        cache.put(main, widgets(main))
+        cache.put(item, widgets(item))
+        cache.save(setOf(main.path, item.path))
+
+        val reloaded = LayoutXmlCache(cacheFile)
+        assertEquals(listOf("title: TextView"), reloaded.getWidgets(main))
+        assertEquals(listOf("ok: Button"), reloaded.getWidgets(item))
+    }
+
+    fun testChangedLayoutIsUpdated() {
+        val main = layout("main.xml", "<TextView android:id=\"@+id/title\"/>")
+
+        val cache = LayoutXmlCache(cacheFile)
+        cache.put(main, widgets(main))
+        cache.save(setOf(main.path))
+
+        // the length changes, and the time stamp is moved in case the file system keeps it with a low precision
+        main.writeText("<TextView android:id=\"@+id/title\"/><Button android:id=\"@+id/ok\"/>")
+        main.setLastModified(main.lastModified() + 2000)
+
+        val stale = LayoutXmlCache(cacheFile)
+        assertNull(stale.getWidgets(main))
+
+        stale.put(main, widgets(main))
+        stale.save(setOf(main.path))
+
+        assertEquals(listOf("title: TextView", "ok: Button"), LayoutXmlCache(cacheFile).getWidgets(main))
+    }
+
+    fun testDeletedLayoutIsDropped() {
+        val main = layout("main.xml", "<TextView android:id=\"@+id/title\"/>")
+        val item = layout("item.xml", "<Button android:id=\"@+id/ok\"/>")
+
+        val cache = LayoutXmlCache(cacheFile)
+        cache.put(main, widgets(main))
+        cache.put(item, widgets(item))
+        cache.save(setOf(main.path, item.path))
+
+        val timeStamp = item.lastModified()
+        val length = item.length()
+        assertTrue(item.delete())
+
+        val reloaded = LayoutXmlCache(cacheFile)
+        reloaded.save(setOf(main.path))
+
+        val afterDeletion = LayoutXmlCache(cacheFile)
+        assertEquals(listOf("title: TextView"), afterDeletion.getWidgets(main))
+        assertNull(afterDeletion.get(item.path, timeStamp, length))
+    }
+
+    fun testBrokenCacheFileIsIgnored() {
+        val main = layout("main.xml", "<TextView android:id=\"@+id/title\"/>")
+
+        cacheFile.parentFile.mkdirs()
+        cacheFile.writeBytes(byteArrayOf(0, 0, 0, 1, 0, 0))
+
+        val cache = LayoutXmlCache(cacheFile)
+        assertNull(cache.getWidgets(main))
+
+        cache.put(main, widgets(main))
+        cache.save(setOf(main.path))
+        assertEquals(listOf("title: TextView"), LayoutXmlCache(cacheFile).getWidgets(main))
+    }
+
+    private fun layout(name: String, widgets: String): File {
+        layoutDir.mkdirs()
+        val file = File(layoutDir, name)
+        file.writeText("<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\">$widgets</LinearLayout>")
+        return file
+    }
+
+    // a simplified parser of the test layouts, the real ones are parsed by CliAndroidLayoutXmlFileManager
+    private fun widgets(file: File): LayoutXmlCacheEntry {
+        val widgets = "<(\\w+) android:id=\"@\\+id/(\\w+)\"/>".toRegex().findAll(file.readText())
+                .map { LayoutWidget(it.groupValues[2], it.groupValues[1]) }
+                .toList()
+        return LayoutXmlCacheEntry(file.lastModified(), file.length(), widgets)
+    }
+
+    private fun LayoutXmlCache.put(file: File, entry: LayoutXmlCacheEntry) = put(file.path, entry)
+
+    private fun LayoutXmlCache.getWidgets(file: File): List<String>? =
+            get(file.path, file.lastModified(), file.length())?.map { "${it.id}: ${it.tag}" }
+}
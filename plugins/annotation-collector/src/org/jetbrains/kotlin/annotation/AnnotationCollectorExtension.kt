@@ -29,10 +29,22 @@ import org.jetbrains.org.objectweb.asm.*
 import java.io.File
 import java.io.IOException
 import java.io.Writer
+import java.util.*
 import java.util.regex.Pattern
 import java.util.regex.PatternSyntaxException
 
-abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations: Boolean) : ClassBuilderInterceptorExtension {
+/**
+ * Writes the annotated declarations of the generated classes.
+ *
+ * In the [incremental] mode the records are written when code generation is finished, in blocks per source file
+ * (each started with a source file record) sorted by the source file path, with the classes of a block sorted by name.
+ * Shortened names are defined anew in every block, so the blocks of files recompiled by a later compilation
+ * can replace the blocks of the previous output without touching the rest of it.
+ */
+abstract class AnnotationCollectorExtensionBase(
+        val supportInheritedAnnotations: Boolean,
+        val incremental: Boolean = false
+) : ClassBuilderInterceptorExtension {
 
     private object RecordTypes {
         val ANNOTATED_CLASS = "c"
@@ -43,13 +55,20 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
         val SHORTENED_PACKAGE_NAME = "p"
 
         val CLASS_DECLARATION = "d"
+
+        val SOURCE_FILE = "s"
     }
 
+    private class Record(val type: String, val annotationFqName: String?, val packageName: String, val className: String, val elementName: String?)
+
     protected abstract val annotationFilterList: List<String>?
 
     private val shortenedAnnotationCache = ShortenedNameCache(RecordTypes.SHORTENED_ANNOTATION)
     private val shortenedPackageNameCache = ShortenedNameCache(RecordTypes.SHORTENED_PACKAGE_NAME)
 
+    // source file path -> class internal name -> records, used in the incremental mode only
+    private val recordsBySourceFile = TreeMap<String, TreeMap<String, MutableList<Record>>>()
+
     override fun interceptClassBuilderFactory(
             interceptedFactory: ClassBuilderFactory,
             bindingContext: BindingContext,
@@ -72,6 +91,9 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
         }
 
         override fun close() {
+            if (incremental) {
+                writeRecordsBySourceFile(writer)
+            }
             closeWriter()
             delegate.close()
         }
@@ -104,6 +126,8 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
 
         private var currentPackageName: String? = null
 
+        private var currentClassRecords: MutableList<Record>? = null
+
         override fun getVisitor() = classVisitor
 
         override fun getDelegate() = delegateClassBuilder
@@ -123,6 +147,11 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
             this.currentClassSimpleName = currentClassSimpleName
             this.currentPackageName = currentPackageName
 
+            if (incremental) {
+                val sourceFile = origin?.containingFile?.virtualFile?.path ?: ""
+                currentClassRecords = recordsBySourceFile.getOrPut(sourceFile) { TreeMap() }.getOrPut(name) { arrayListOf() }
+            }
+
             if (supportInheritedAnnotations) {
                 recordClass(currentPackageName, currentClassSimpleName)
             }
@@ -169,41 +198,26 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
         }
 
         private fun recordClass(packageName: String, className: String) {
-            val packageNameId = if (!packageName.isEmpty())
-                shortenedPackageNameCache.save(packageName, writer)
-            else null
-
-            val outputClassName = getOutputClassName(packageNameId, className)
-            writer.write("${RecordTypes.CLASS_DECLARATION} $outputClassName\n")
+            record(Record(RecordTypes.CLASS_DECLARATION, null, packageName, className, null))
         }
 
         private fun recordAnnotation(name: String?, type: String, annotationDesc: String) {
             val annotationFqName = Type.getType(annotationDesc).className
             if (!isAnnotationHandled(annotationFqName)) return
 
-            try {
-                val annotationId = shortenedAnnotationCache.save(annotationFqName, writer)
-                val packageName = this.currentPackageName!!
-
-                val packageNameId = if (!packageName.isEmpty())
-                    shortenedPackageNameCache.save(packageName, writer)
-                else null
-
-                val className = this.currentClassSimpleName!!
-                val outputClassName = getOutputClassName(packageNameId, className)
-                val elementName = if (name != null) " $name" else ""
+            record(Record(type, annotationFqName, this.currentPackageName!!, this.currentClassSimpleName!!, name))
+        }
 
-                writer.write("$type $annotationId $outputClassName$elementName\n")
+        private fun record(record: Record) {
+            val classRecords = currentClassRecords
+            if (classRecords != null) {
+                classRecords.add(record)
             }
-            catch (e: IOException) {
-                throw e
+            else {
+                writeRecord(record, writer, shortenedAnnotationCache, shortenedPackageNameCache)
             }
         }
 
-        private fun getOutputClassName(packageNameId: String?, className: String): String {
-            return if (packageNameId == null) className else "$packageNameId/$className"
-        }
-
         private fun String.compilePatternOpt(): Pattern? {
             return try {
                 Pattern.compile(this)
@@ -214,6 +228,41 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
         }
     }
 
+    private fun writeRecordsBySourceFile(writer: Writer) {
+        for ((sourceFile, recordsByClass) in recordsBySourceFile) {
+            writer.write("${RecordTypes.SOURCE_FILE} $sourceFile\n")
+
+            val annotationCache = ShortenedNameCache(RecordTypes.SHORTENED_ANNOTATION)
+            val packageNameCache = ShortenedNameCache(RecordTypes.SHORTENED_PACKAGE_NAME)
+            for (records in recordsByClass.values) {
+                for (record in records) {
+                    writeRecord(record, writer, annotationCache, packageNameCache)
+                }
+            }
+        }
+        recordsBySourceFile.clear()
+    }
+
+    private fun writeRecord(record: Record, writer: Writer, annotationCache: ShortenedNameCache, packageNameCache: ShortenedNameCache) {
+        val annotationId = if (record.annotationFqName != null)
+            annotationCache.save(record.annotationFqName, writer)
+        else null
+
+        val packageNameId = if (!record.packageName.isEmpty())
+            packageNameCache.save(record.packageName, writer)
+        else null
+
+        val outputClassName = if (packageNameId == null) record.className else "$packageNameId/${record.className}"
+
+        if (annotationId == null) {
+            writer.write("${record.type} $outputClassName\n")
+        }
+        else {
+            val elementName = if (record.elementName != null) " ${record.elementName}" else ""
+            writer.write("${record.type} $annotationId $outputClassName$elementName\n")
+        }
+    }
+
     private class ShortenedNameCache(val type: String) {
         private val internalCache = hashMapOf<String, String>()
         private var counter: Int = 0
@@ -232,8 +281,9 @@ abstract class AnnotationCollectorExtensionBase(val supportInheritedAnnotations:
 class AnnotationCollectorExtension(
         override val annotationFilterList: List<String>? = null,
         val outputFilename: String? = null,
-        supportInheritedAnnotations: Boolean
-) : AnnotationCollectorExtensionBase(supportInheritedAnnotations) {
+        supportInheritedAnnotations: Boolean,
+        incremental: Boolean = false
+) : AnnotationCollectorExtensionBase(supportInheritedAnnotations, incremental) {
 
     private var writerInternal: Writer? = null
 
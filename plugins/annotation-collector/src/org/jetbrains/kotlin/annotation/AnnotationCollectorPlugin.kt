@@ -53,6 +53,8 @@ object AnnotationCollectorConfigurationKeys {
             CompilerConfigurationKey.create<String>("stubs output directory")
     val INHERITED: CompilerConfigurationKey<String> =
             CompilerConfigurationKey.create<String>("support inherited annotations")
+    val INCREMENTAL: CompilerConfigurationKey<String> =
+            CompilerConfigurationKey.create<String>("write annotations by source file")
 }
 
 class AnnotationCollectorCommandLineProcessor : CommandLineProcessor {
@@ -71,12 +73,16 @@ class AnnotationCollectorCommandLineProcessor : CommandLineProcessor {
         val INHERITED_ANNOTATIONS_OPTION: CliOption =
                 CliOption("inherited", "<true/false>",
                           "True if collecting Kotlin class names for inherited annotations is needed", required = false)
+
+        val INCREMENTAL_OPTION: CliOption =
+                CliOption("incremental", "<true/false>",
+                          "True if annotations should be written in blocks per source file, which can be merged with the previous output", required = false)
     }
 
     override val pluginId: String = ANNOTATION_COLLECTOR_COMPILER_PLUGIN_ID
 
     override val pluginOptions: Collection<CliOption> =
-            listOf(ANNOTATION_FILTER_LIST_OPTION, OUTPUT_FILENAME_OPTION, STUBS_PATH_OPTION, INHERITED_ANNOTATIONS_OPTION)
+            listOf(ANNOTATION_FILTER_LIST_OPTION, OUTPUT_FILENAME_OPTION, STUBS_PATH_OPTION, INHERITED_ANNOTATIONS_OPTION, INCREMENTAL_OPTION)
 
     override fun processOption(option: CliOption, value: String, configuration: CompilerConfiguration) {
         when (option) {
@@ -87,6 +93,7 @@ class AnnotationCollectorCommandLineProcessor : CommandLineProcessor {
             OUTPUT_FILENAME_OPTION -> configuration.put(AnnotationCollectorConfigurationKeys.OUTPUT_FILENAME, value)
             STUBS_PATH_OPTION -> configuration.put(AnnotationCollectorConfigurationKeys.STUBS_PATH, value)
             INHERITED_ANNOTATIONS_OPTION -> configuration.put(AnnotationCollectorConfigurationKeys.INHERITED, value)
+            INCREMENTAL_OPTION -> configuration.put(AnnotationCollectorConfigurationKeys.INCREMENTAL, value)
             else -> throw CliOptionProcessingException("Unknown option: ${option.name}")
         }
     }
@@ -95,11 +102,12 @@ class AnnotationCollectorCommandLineProcessor : CommandLineProcessor {
 class AnnotationCollectorComponentRegistrar : ComponentRegistrar {
     override fun registerProjectComponents(project: MockProject, configuration: CompilerConfiguration) {
         val supportInheritedAnnotations = "true" == (configuration.get(AnnotationCollectorConfigurationKeys.INHERITED) ?: "true")
+        val incremental = "true" == configuration.get(AnnotationCollectorConfigurationKeys.INCREMENTAL)
 
         val annotationFilterList = configuration.get(AnnotationCollectorConfigurationKeys.ANNOTATION_FILTER_LIST)
         val outputFilename = configuration.get(AnnotationCollectorConfigurationKeys.OUTPUT_FILENAME)
         if (outputFilename != null) {
-            val collectorExtension = AnnotationCollectorExtension(annotationFilterList, outputFilename, supportInheritedAnnotations)
+            val collectorExtension = AnnotationCollectorExtension(annotationFilterList, outputFilename, supportInheritedAnnotations, incremental)
             ClassBuilderInterceptorExtension.registerExtension(project, collectorExtension)
         }
 
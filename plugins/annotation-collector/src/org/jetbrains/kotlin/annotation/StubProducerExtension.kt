@@ -28,6 +28,10 @@ import org.jetbrains.kotlin.resolve.DelegatingBindingTrace
 import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin
 import org.jetbrains.kotlin.resolve.jvm.extensions.AnalysisCompletedHandlerExtension
 import org.jetbrains.org.objectweb.asm.ClassWriter
+import org.jetbrains.org.objectweb.asm.MethodVisitor
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
 import java.io.File
 
 class StubProducerExtension(val stubsOutputDir: File) : AnalysisCompletedHandlerExtension {
@@ -38,6 +42,7 @@ class StubProducerExtension(val stubsOutputDir: File) : AnalysisCompletedHandler
             bindingContext: BindingContext,
             files: Collection<KtFile>
     ): AnalysisResult? {
+        // stubs have no real bodies, so there is nothing to inline or optimize
         val generationState = GenerationState(
                 project,
                 StubClassBuilderFactory(),
@@ -45,7 +50,9 @@ class StubProducerExtension(val stubsOutputDir: File) : AnalysisCompletedHandler
                 bindingContext,
                 files.toList(),
                 disableCallAssertions = false,
-                disableParamAssertions = false)
+                disableParamAssertions = false,
+                disableInline = true,
+                disableOptimization = true)
 
         KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION)
 
@@ -61,8 +68,8 @@ private class StubClassBuilderFactory : ClassBuilderFactory {
 
     override fun getClassBuilderMode() = ClassBuilderMode.LIGHT_CLASSES
 
-    override fun newClassBuilder(origin: JvmDeclarationOrigin) = AbstractClassBuilder.Concrete(
-            ClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS))
+    // frames and maximums are not computed: stub methods contain only a trivial throw, see StubMethodVisitor
+    override fun newClassBuilder(origin: JvmDeclarationOrigin): ClassBuilder = StubClassBuilder(ClassWriter(0))
 
     override fun asText(builder: ClassBuilder) = throw UnsupportedOperationException("BINARIES generator asked for text")
 
@@ -74,4 +81,47 @@ private class StubClassBuilderFactory : ClassBuilderFactory {
     override fun close() {
 
     }
-}
\ No newline at end of file
+}
+
+private class StubClassBuilder(private val classWriter: ClassWriter) : AbstractClassBuilder() {
+    override fun getVisitor(): ClassWriter = classWriter
+
+    override fun newMethod(
+            origin: JvmDeclarationOrigin,
+            access: Int,
+            name: String,
+            desc: String,
+            signature: String?,
+            exceptions: Array<out String>?
+    ): MethodVisitor {
+        val visitor = super.newMethod(origin, access, name, desc, signature, exceptions)
+        if (access and (Opcodes.ACC_ABSTRACT or Opcodes.ACC_NATIVE) != 0) return visitor
+        return StubMethodVisitor(visitor, access, desc)
+    }
+}
+
+/**
+ * Replaces method bodies with a trivial throw. Light classes codegen generates no code for methods, which leaves non-abstract
+ * methods without a Code attribute: javac accepts such class files, but nothing else reading them does.
+ */
+private class StubMethodVisitor(
+        private val target: MethodVisitor,
+        private val access: Int,
+        private val desc: String
+) : MethodVisitor(Opcodes.ASM5, target) {
+
+    // only signatures and annotations matter for stubs, so the code (if any is generated) is dropped
+    override fun visitCode() {
+        mv = null
+    }
+
+    override fun visitEnd() {
+        mv = target
+        mv.visitCode()
+        AsmUtil.genThrow(InstructionAdapter(mv), "java/lang/RuntimeException", "Stub!")
+        // the size of arguments includes 'this'
+        val argumentsSize = Type.getArgumentsAndReturnSizes(desc) shr 2
+        mv.visitMaxs(3, if (access and Opcodes.ACC_STATIC != 0) argumentsSize - 1 else argumentsSize)
+        mv.visitEnd()
+    }
+}
@@ -20,6 +20,7 @@ import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles
 import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
 import org.jetbrains.kotlin.codegen.CodegenTestCase
 import org.jetbrains.kotlin.codegen.CodegenTestUtil
+import org.jetbrains.kotlin.codegen.GenerationUtils
 import org.jetbrains.kotlin.codegen.extensions.ClassBuilderInterceptorExtension
 import org.jetbrains.kotlin.codegen.generated.AbstractBlackBoxCodegenTest
 import org.jetbrains.kotlin.config.CompilerConfiguration
@@ -30,6 +31,7 @@ import org.jetbrains.kotlin.test.TestJdkKind
 import java.io.File
 import java.io.StringWriter
 import java.io.Writer
+import java.util.*
 import org.junit.Assert.*
 
 abstract class AbstractAnnotationProcessorBoxTest : CodegenTestCase() {
@@ -49,6 +51,71 @@ abstract class AbstractAnnotationProcessorBoxTest : CodegenTestCase() {
         KotlinTestUtils.assertEqualsToFile(expectedAnnotationsFile, actualAnnotations)
     }
 
+    /**
+     * Compiles all files of the test in the incremental mode, then the files changed by `*.kt.changed` alone,
+     * and then drops the files marked by `*.kt.removed`. The outputs are merged by source file, as the build tools do,
+     * and the result of each step is compared with `annotations.txt`, `annotations.changed.txt` and `annotations.removed.txt`.
+     */
+    fun doIncrementalTest(path: String) {
+        val testDir = File(path)
+        val testFiles = testDir.listFiles()!!.toList()
+
+        val sources = TreeMap<String, String>()
+        testFiles.filter { it.name.endsWith(".kt") }.associateTo(sources) { it.name to it.readText() }
+
+        var annotations = compileIncrementally(sources.keys, sources)
+        KotlinTestUtils.assertEqualsToFile(File(testDir, "annotations.txt"), annotations)
+
+        val changedFiles = testFiles.filter { it.name.endsWith(".kt.changed") }
+        for (file in changedFiles) {
+            sources.put(file.name.removeSuffix(".changed"), file.readText())
+        }
+        val recompiled = compileIncrementally(changedFiles.map { it.name.removeSuffix(".changed") }, sources)
+        annotations = mergeBySourceFile(annotations, recompiled, emptySet())
+        KotlinTestUtils.assertEqualsToFile(File(testDir, "annotations.changed.txt"), annotations)
+
+        val removedFiles = testFiles.filter { it.name.endsWith(".kt.removed") }.map { "/" + it.name.removeSuffix(".removed") }
+        annotations = mergeBySourceFile(annotations, "", removedFiles.toSet())
+        KotlinTestUtils.assertEqualsToFile(File(testDir, "annotations.removed.txt"), annotations)
+    }
+
+    private fun compileIncrementally(fileNames: Collection<String>, sources: Map<String, String>): String {
+        val configuration = KotlinTestUtils.compilerConfigurationForTests(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK)
+        val environment = KotlinCoreEnvironment.createForTests(testRootDisposable!!, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
+        val project = environment.project
+
+        val outputFile = File(KotlinTestUtils.tmpDirForTest(this), "annotations.txt")
+        val collectorExtension = AnnotationCollectorExtension(
+                outputFilename = outputFile.path, supportInheritedAnnotations = false, incremental = true)
+        ClassBuilderInterceptorExtension.registerExtension(project, collectorExtension)
+
+        val files = fileNames.map { KotlinTestUtils.createFile(it, sources[it]!!, project) }
+        GenerationUtils.compileManyFilesGetGenerationStateForTest(project, files).destroy()
+
+        return outputFile.readText()
+    }
+
+    // the blocks of the recompiled source files replace the previous ones, the blocks of the removed files are dropped
+    private fun mergeBySourceFile(previous: String, current: String, removedSourceFiles: Set<String>): String {
+        val blocks = splitBySourceFile(previous)
+        blocks.keys.removeAll(removedSourceFiles)
+        blocks.putAll(splitBySourceFile(current))
+        return blocks.values.joinToString("")
+    }
+
+    private fun splitBySourceFile(annotations: String): TreeMap<String, String> {
+        val blocks = TreeMap<String, String>()
+        var sourceFile: String? = null
+        for (line in annotations.lines().filter { it.isNotEmpty() }) {
+            if (line.startsWith("s ")) {
+                sourceFile = line.substring(2)
+            }
+            val blockSourceFile = sourceFile ?: throw AssertionError("Annotations are not written by source file: $line")
+            blocks.put(blockSourceFile, blocks[blockSourceFile].orEmpty() + line + "\n")
+        }
+        return blocks
+    }
+
     override fun codegenTestBasePath(): String {
         return "plugins/annotation-collector/testData/codegen/"
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2010-2016 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.annotation
+
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.TestCaseWithTmpdir
+import org.jetbrains.kotlin.test.TestJdkKind
+import org.jetbrains.org.objectweb.asm.ClassReader
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.tree.ClassNode
+import org.jetbrains.org.objectweb.asm.tree.MethodNode
+import org.jetbrains.org.objectweb.asm.tree.analysis.Analyzer
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.SimpleVerifier
+import java.io.File
+import java.lang.reflect.InvocationTargetException
+import java.net.URLClassLoader
+
+class StubProducerExtensionTest : TestCaseWithTmpdir() {
+    private val source = """
+        package stubs
+
+        fun topLevel(a: Long, b: Double, c: String): Int = c.length
+
+        abstract class Base(val x: Long) {
+            abstract fun abstractFun(d: Double): String
+
+            open fun instanceFun(a: Long, b: Int, c: Double): Long = a + b
+
+            companion object {
+                @JvmStatic fun staticFun(a: Double, b: Long): Double = a + b
+            }
+        }
+
+        class Impl(x: Long, val y: Double) : Base(x) {
+            constructor() : this(0L, 0.0)
+
+            override fun abstractFun(d: Double) = d.toString()
+        }
+
+        interface Intf {
+            fun withBody(a: Long, b: Double): Double = a + b
+
+            fun abstractInInterface(a: Long)
+        }
+    """
+
+    fun testStubBodies() {
+        val classes = generateStubs().associateBy { it.name }
+
+        for (classNode in classes.values) {
+            for (method in classNode.methods) {
+                val isAbstract = method.access and (Opcodes.ACC_ABSTRACT or Opcodes.ACC_NATIVE) != 0
+                assertEquals("${classNode.name}.${method.name}${method.desc}: only abstract methods have no code",
+                             isAbstract, method.instructions.size() == 0)
+            }
+        }
+
+        val base = classes["stubs/Base"]!!
+        assertStubBody(base, base.method("<init>", "(J)V"))
+        assertStubBody(base, base.method("instanceFun", "(JID)J"))
+        assertStubBody(base, base.method("staticFun", "(DJ)D"))
+        assertTrue(base.method("abstractFun", "(D)Ljava/lang/String;").access and Opcodes.ACC_ABSTRACT != 0)
+
+        val impl = classes["stubs/Impl"]!!
+        assertStubBody(impl, impl.method("<init>", "(JD)V"))
+        assertStubBody(impl, impl.method("<init>", "()V"))
+
+        assertTrue(classes["stubs/Intf"]!!.method("withBody", "(JD)D").access and Opcodes.ACC_ABSTRACT != 0)
+        val defaultImpls = classes["stubs/Intf\$DefaultImpls"]!!
+        assertStubBody(defaultImpls, defaultImpls.method("withBody", "(Lstubs/Intf;JD)D"))
+
+        val facade = classes["stubs/StubsKt"]!!
+        assertStubBody(facade, facade.method("topLevel", "(JDLjava/lang/String;)I"))
+    }
+
+    fun testStubsAreAcceptedByJvm() {
+        generateStubs()
+
+        val loader = URLClassLoader(arrayOf(tmpdir.toURI().toURL(), ForTestCompileRuntime.runtimeJarForTests().toURI().toURL()), null)
+        // the methods of a class are only returned once it's linked, i.e. the bytecode is verified
+        for (className in listOf("stubs.Base", "stubs.Base\$Companion", "stubs.Impl", "stubs.Intf", "stubs.Intf\$DefaultImpls", "stubs.StubsKt")) {
+            Class.forName(className, false, loader).declaredMethods
+        }
+
+        val topLevel = loader.loadClass("stubs.StubsKt").getMethod("topLevel", Long::class.java, Double::class.java, String::class.java)
+        try {
+            topLevel.invoke(null, 1L, 2.0, "")
+            fail("The stub body is expected to throw")
+        }
+        catch (e: InvocationTargetException) {
+            assertEquals("Stub!", e.targetException.message)
+        }
+    }
+
+    private fun generateStubs(): List<ClassNode> {
+        val configuration = KotlinTestUtils.compilerConfigurationForTests(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK)
+        val environment = KotlinCoreEnvironment.createForTests(testRootDisposable!!, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
+        val file = KotlinTestUtils.createFile("stubs.kt", source.trimIndent(), environment.project)
+        val analysisResult = JvmResolveUtil.analyzeOneFileWithJavaIntegrationAndCheckForErrors(file)
+
+        StubProducerExtension(tmpdir).analysisCompleted(environment.project, analysisResult.moduleDescriptor,
+                                                        analysisResult.bindingContext, listOf(file))
+
+        return tmpdir.walk().filter { it.extension == "class" }.map { classFile ->
+            ClassNode().apply { ClassReader(classFile.readBytes()).accept(this, 0) }
+        }.toList()
+    }
+
+    private fun ClassNode.method(name: String, desc: String): MethodNode =
+            methods.firstOrNull { it.name == name && it.desc == desc } ?: throw AssertionError("No method $name$desc in ${this.name}")
+
+    // the analyzer fails if the maximums of the stack and of the locals are less than the code and the parameters need
+    private fun assertStubBody(classNode: ClassNode, method: MethodNode) {
+        val opcodes = method.instructions.toArray().map { it.opcode }.filter { it >= 0 }
+        assertEquals("${classNode.name}.${method.name}${method.desc}",
+                     listOf(Opcodes.NEW, Opcodes.DUP, Opcodes.LDC, Opcodes.INVOKESPECIAL, Opcodes.ATHROW), opcodes)
+
+        Analyzer<BasicValue>(SimpleVerifier()).analyze(classNode.name, method)
+    }
+}
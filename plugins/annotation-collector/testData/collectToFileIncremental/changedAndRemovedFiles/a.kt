@@ -0,0 +1,9 @@
+package org.test.a
+
+@java.lang.Deprecated public class A {
+
+    @java.lang.Deprecated public fun deprecatedFunction() {
+
+    }
+
+}
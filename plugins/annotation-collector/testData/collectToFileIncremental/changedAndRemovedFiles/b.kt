@@ -0,0 +1,9 @@
+package org.test.b
+
+public class B {
+
+    @java.lang.Deprecated public fun deprecatedFunction() {
+
+    }
+
+}
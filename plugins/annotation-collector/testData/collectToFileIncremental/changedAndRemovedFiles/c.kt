@@ -0,0 +1,3 @@
+package org.test.c
+
+@java.lang.Deprecated public class C